@@ -0,0 +1,127 @@
+package com.example.SpringBackendCRUD.Bench;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.SplittableRandom;
+
+// Gerador da massa de dados do perfil 'bench' (application-bench.properties): usuários e telefones criados a partir
+// de uma semente fixa, então a mesma configuração produz sempre as mesmas linhas (ids, nomes, quantidade de
+// telefones por usuário). Assim as medições de consultas e paginação podem ser repetidas e comparadas entre versões.
+// As linhas são gravadas direto por JDBC, em lotes (addBatch) com um commit por lote, sem passar pelo Hibernate,
+// o que carrega milhões de linhas em segundos. No fim, as colunas de identidade são reiniciadas depois dos ids
+// gerados (os próximos POST /users continuam a numeração) e as estatísticas do banco são atualizadas (ANALYZE).
+// Roda antes do servidor web subir, então nenhuma requisição encontra o banco pela metade.
+// Quantidade: crud.bench.users-per-scale x crud.bench.scale usuários, cada um com 1 a max-phones telefones.
+@Component
+@Profile("bench")
+public class BenchDataGenerator implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(BenchDataGenerator.class);
+
+    private static final String[] FIRST_NAMES = {"Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela",
+            "Henrique", "Isabela", "Joao", "Larissa", "Marcos", "Natalia", "Otavio", "Paula", "Rafael", "Sofia",
+            "Thiago", "Vanessa", "Wagner"};
+    private static final String[] LAST_NAMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira",
+            "Alves", "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida"};
+    private static final String[] PHONE_TYPES = {"celular", "residencial", "comercial"};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${crud.bench.seed:42}")
+    private long seed;
+
+    @Value("${crud.bench.scale:1}")
+    private double scale;
+
+    @Value("${crud.bench.users-per-scale:100000}")
+    private long usersPerScale;
+
+    @Value("${crud.bench.max-phones:3}")
+    private int maxPhones;
+
+    @Value("${crud.bench.batch-size:5000}")
+    private int batchSize;
+
+    public BenchDataGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Banco já populado (por exemplo, um H2 em arquivo reaproveitado): não gera de novo
+        Long existing = jdbcTemplate.queryForObject("select count(*) from user", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Bench data already present ({} users), skipping generation", existing);
+            return;
+        }
+        long users = Math.max(1, Math.round(usersPerScale * scale));
+
+        long start = System.nanoTime();
+        Long phones = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            connection.setAutoCommit(false);
+            long inserted = insertUsers(connection, users);
+            restartIds(connection, users, inserted);
+            return inserted;
+        });
+        log.info("Bench data: {} users, {} phones in {} ms", users, phones, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Usuário e telefones nos mesmos lotes (usuários primeiro, por causa da chave estrangeira user_id);
+    // devolve quantos telefones foram gravados
+    private long insertUsers(Connection connection, long users) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        long phoneId = 0;
+        try (PreparedStatement user = connection.prepareStatement("insert into user (id, name, email) values (?, ?, ?)");
+             PreparedStatement phone = connection.prepareStatement(
+                     "insert into phone (id, type, number, user_id) values (?, ?, ?, ?)")) {
+            for (long id = 1; id <= users; id++) {
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                user.setLong(1, id);
+                user.setString(2, first + " " + last);
+                user.setString(3, first.toLowerCase() + "." + last.toLowerCase() + id + "@bench.crud.com");
+                user.addBatch();
+
+                int count = 1 + random.nextInt(Math.max(1, maxPhones));
+                for (int i = 0; i < count; i++) {
+                    phone.setLong(1, ++phoneId);
+                    phone.setString(2, PHONE_TYPES[random.nextInt(PHONE_TYPES.length)]);
+                    phone.setString(3, String.format("(%02d) 9%04d-%04d", 11 + random.nextInt(89),
+                            random.nextInt(10_000), random.nextInt(10_000)));
+                    phone.setLong(4, id);
+                    phone.addBatch();
+                }
+                if (id % batchSize == 0) {
+                    user.executeBatch();
+                    phone.executeBatch();
+                    connection.commit();
+                }
+            }
+            user.executeBatch();
+            phone.executeBatch();
+            connection.commit();
+        }
+        return phoneId;
+    }
+
+    // Os ids foram gravados explicitamente; a identidade de cada tabela recomeça logo depois do último gerado
+    private void restartIds(Connection connection, long users, long phones) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table user alter column id restart with " + (users + 1));
+            statement.execute("alter table phone alter column id restart with " + (phones + 1));
+            statement.execute("analyze");
+        }
+        connection.commit();
+    }
+}
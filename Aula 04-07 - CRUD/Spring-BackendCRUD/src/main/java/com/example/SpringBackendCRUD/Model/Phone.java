@@ -32,11 +32,12 @@ public class Phone {
     private String number;
 
     // Associação muitos-para-um entre Phone e User. Cada telefone está associado a um usuário.
-    // A propriedade 'fetch' é definida como EAGER, o que significa que os dados do usuário associado serão carregados imediatamente.
+    // A propriedade 'fetch' é definida como LAZY: o usuário só é carregado se for acessado. Com EAGER, cada telefone
+    // buscava o seu usuário de volta, fechando um ciclo User -> Phone -> User de consultas extras.
     // A anotação @JoinColumn indica a coluna que faz a ligação (foreign key) na tabela de telefone para a tabela de usuário.
     // @JsonBackReference é usado para evitar referências circulares ao usar Jackson para serialização/deserialização JSON,
     // indicando que esta é a parte de trás da referência (o lado oposto de @JsonManagedReference).
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonBackReference
     private User user;
@@ -34,9 +34,10 @@ public class User {
     // Define uma relação Um-para-Muitos com a entidade Phone. Ou seja, um usuário pode ter vários telefones.
     // A propriedade 'mappedBy' indica que a entidade Phone possui uma propriedade chamada 'user' que é a chave estrangeira.
     // A anotação 'cascade = CascadeType.ALL' indica que as operações de persistência aplicadas ao usuário são propagadas para os telefones.
-    // A propriedade 'fetch = FetchType.EAGER' garante que a lista de telefones seja carregada imediatamente com o usuário.
+    // A lista é LAZY: as consultas do UserRepository já trazem os telefones junto com o usuário (@EntityGraph),
+    // em um único SELECT. Com EAGER, cada usuário carregado gerava mais um SELECT para os telefones (N+1).
     // @JsonManagedReference é usada para lidar corretamente com referências circulares durante a serialização JSON.
-    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference
     private List<Phone> phones;
 
@@ -1,9 +1,23 @@
 package com.example.SpringBackendCRUD.Repository;
 
 import com.example.SpringBackendCRUD.Model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+import java.util.Optional;
+
 // Interface UserRepository, que estende JpaRepository para fornecer funcionalidades CRUD
 // para a entidade User. O JpaRepository requer dois parâmetros: o tipo da entidade e o tipo de seu identificador.
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    // As buscas de usuários trazem os telefones no mesmo SELECT (LEFT JOIN), já que a resposta JSON
+    // sempre inclui a lista de telefones. Sem o @EntityGraph, cada usuário geraria uma consulta a mais.
+    @Override
+    @EntityGraph(attributePaths = "phones")
+    List<User> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "phones")
+    Optional<User> findById(Long id);
 }
@@ -0,0 +1,162 @@
+package com.example.SpringBackendCRUD.Controller;
+
+import com.example.SpringBackendCRUD.Model.Phone;
+import com.example.SpringBackendCRUD.Model.User;
+import com.example.SpringBackendCRUD.Monitoring.SqlTimingFilter;
+import com.example.SpringBackendCRUD.QueryBudget;
+import com.example.SpringBackendCRUD.Repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Quantidade de comandos SQL de cada endpoint de /users: as leituras trazem os telefones no mesmo SELECT,
+// não importa quantos usuários e telefones existem.
+@SpringBootTest
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class UserControllerTests {
+
+    private static final String MONITORING = "com.example.SpringBackendCRUD.Monitoring";
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PrometheusMeterRegistry prometheus;
+
+    private MockMvc mockMvc;
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = QueryBudget.mockMvc(context);
+        userRepository.deleteAll();
+        users.clear();
+        for (int i = 0; i < 30; i++) {
+            User user = User.builder().name("Usuario " + i).email("user" + i + "@crud.com").build();
+            List<Phone> phones = new ArrayList<>();
+            for (int p = 0; p < 3; p++) {
+                phones.add(Phone.builder().type("movel").number("9999-000" + p).user(user).build());
+            }
+            user.setPhones(phones);
+            users.add(userRepository.save(user));
+        }
+    }
+
+    @Test
+    void listingUsersLoadsPhonesInTheSameStatement() throws Exception {
+        String json = mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(1))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode body = objectMapper.readTree(json);
+        assertEquals(30, body.size());
+        assertEquals(3, body.get(0).get("phones").size());
+    }
+
+    @Test
+    void singleUserLoadsInOneStatement() throws Exception {
+        User user = users.get(7);
+        String json = mockMvc.perform(get("/users/" + user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(1))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode body = objectMapper.readTree(json);
+        assertEquals("Usuario 7", body.get("name").asText());
+        assertEquals(3, body.get("phones").size());
+    }
+
+    @Test
+    void writesStayWithinBudget() throws Exception {
+        String user = """
+                {"name": "Novo", "email": "novo@crud.com",
+                 "phones": [{"type": "movel", "number": "1111"}, {"type": "casa", "number": "2222"}]}
+                """;
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(user))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(3))
+                .andExpect(QueryBudget.noRepeatedStatements());
+
+        mockMvc.perform(delete("/users/" + users.get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(5));
+    }
+
+    @Test
+    void repeatedStatementsShowUpInServerTimingAndTheLog(CapturedOutput output) throws Exception {
+        LoggingSystem logging = LoggingSystem.get(getClass().getClassLoader());
+        logging.setLogLevel(MONITORING, LogLevel.DEBUG);
+        try {
+            // Sem lote JDBC, cada telefone e um INSERT: 6 iguais passam do crud.sql.repeat-threshold (5)
+            String user = """
+                    {"name": "Muitos telefones", "email": "telefones@crud.com", "phones": [
+                     {"type": "movel", "number": "1"}, {"type": "movel", "number": "2"},
+                     {"type": "movel", "number": "3"}, {"type": "movel", "number": "4"},
+                     {"type": "movel", "number": "5"}, {"type": "movel", "number": "6"}]}
+                    """;
+            mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(user))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(SqlTimingFilter.HEADER,
+                            matchesPattern("db;dur=\\d+\\.\\d{3};desc=\"statements=\\d+ repeated=1\"")));
+        } finally {
+            logging.setLogLevel(MONITORING, null);
+        }
+
+        assertTrue(output.getOut().contains("POST /users: same statement 6 times (N+1?)"), output::getOut);
+    }
+
+    @Test
+    void requestsAndRepositoryCallsGetLatencyHistograms() throws Exception {
+        // O filtro de observação do Actuator, que o webAppContextSetup não inclui
+        ServerHttpObservationFilter observation = context.getBeansOfType(FilterRegistrationBean.class).values().stream()
+                .map(FilterRegistrationBean::getFilter)
+                .filter(ServerHttpObservationFilter.class::isInstance)
+                .map(ServerHttpObservationFilter.class::cast)
+                .findFirst()
+                .orElseThrow();
+        MockMvcBuilders.webAppContextSetup(context).addFilters(observation).build()
+                .perform(get("/users/" + users.get(0).getId()))
+                .andExpect(status().isOk());
+
+        String scrape = prometheus.scrape();
+        assertTrue(scrape.lines().anyMatch(line -> line.startsWith("http_server_requests_seconds_bucket{")
+                && line.contains("uri=\"/users/{id}\"")), "no histogram buckets for /users/{id}");
+        assertTrue(scrape.lines().anyMatch(line -> line.startsWith("spring_data_repository_invocations_seconds_bucket{")
+                && line.contains("repository=\"UserRepository\"")), "no histogram buckets for UserRepository");
+        assertTrue(scrape.contains("hikaricp_connections_pending{"));
+        assertTrue(scrape.contains("hibernate_sessions_open_total{"));
+    }
+}
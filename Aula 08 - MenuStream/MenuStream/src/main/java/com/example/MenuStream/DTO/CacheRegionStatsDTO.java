@@ -0,0 +1,6 @@
+package com.example.MenuStream.DTO;
+
+// Contadores de uma regiao do cache de segundo nivel desde o inicio da aplicacao (GET /cache/stats)
+public record CacheRegionStatsDTO(String region, long hits, long misses, float hitPercentage, long puts,
+                                  long removals, long evictions) {
+}
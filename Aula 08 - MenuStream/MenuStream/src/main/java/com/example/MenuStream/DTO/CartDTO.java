@@ -0,0 +1,13 @@
+package com.example.MenuStream.DTO;
+
+import com.example.MenuStream.model.Money;
+
+import java.util.List;
+
+// Carrinho com os precos atuais do cardapio; subtotal sem a taxa de servico cobrada no pedido
+public record CartDTO(Long customerId, List<Line> items, Money subtotal) {
+
+    // available = false quando o produto saiu do cardapio ou esta indisponivel (nao entra no subtotal)
+    public record Line(Long productId, String name, Money price, int quantity, boolean available) {
+    }
+}
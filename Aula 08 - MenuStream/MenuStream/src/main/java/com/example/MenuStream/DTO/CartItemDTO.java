@@ -0,0 +1,9 @@
+package com.example.MenuStream.DTO;
+
+import lombok.Data;
+
+@Data
+public class CartItemDTO {
+    private Long productId;
+    private Integer quantity;
+}
@@ -0,0 +1,7 @@
+package com.example.MenuStream.DTO;
+
+import java.util.List;
+
+// Pagina por cursor: nextCursor e nulo na ultima pagina e deve ser repassado como ?cursor= para buscar a proxima
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,7 @@
+package com.example.MenuStream.DTO;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+public record HourlySalesDTO(Date hour, long orders, long quantity, BigDecimal amount) {
+}
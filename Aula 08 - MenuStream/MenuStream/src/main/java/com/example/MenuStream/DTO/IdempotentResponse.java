@@ -0,0 +1,18 @@
+package com.example.MenuStream.DTO;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+// Resposta ja serializada de uma operacao idempotente; replayed indica que veio do Idempotency-Key
+public record IdempotentResponse(int status, byte[] body, boolean replayed) {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    public ResponseEntity<byte[]> toResponseEntity() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON);
+        if (replayed) {
+            response.header(REPLAYED_HEADER, "true");
+        }
+        return response.body(body);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.MenuStream.DTO;
+
+import java.util.List;
+
+public record OrderBatchResponse(int received, int created, int failed, List<OrderBatchResult> results) {
+}
@@ -0,0 +1,17 @@
+package com.example.MenuStream.DTO;
+
+// Resultado de um pedido dentro de POST /orders/batch; index e a posicao do pedido no corpo da requisicao
+public record OrderBatchResult(int index, Long orderId, String status, String error) {
+
+    public static OrderBatchResult created(int index, Long orderId) {
+        return new OrderBatchResult(index, orderId, "CREATED", null);
+    }
+
+    public static OrderBatchResult rejected(int index, String error) {
+        return new OrderBatchResult(index, null, "REJECTED", error);
+    }
+
+    public static OrderBatchResult failed(int index, String error) {
+        return new OrderBatchResult(index, null, "FAILED", error);
+    }
+}
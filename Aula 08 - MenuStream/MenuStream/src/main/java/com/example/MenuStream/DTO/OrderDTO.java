@@ -1,8 +1,8 @@
 package com.example.MenuStream.DTO;
 
+import com.example.MenuStream.model.Money;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.Date;
 import java.util.List;
@@ -10,7 +10,7 @@ import java.util.List;
 public class OrderDTO {
     private Long customerId;
     private List<OrderDetailDTO> orderDetails;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private String status;
     private Date orderDate;
     private Date fulfillmentDate;
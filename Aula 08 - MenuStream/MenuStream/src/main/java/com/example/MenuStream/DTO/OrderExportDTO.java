@@ -0,0 +1,11 @@
+package com.example.MenuStream.DTO;
+
+import com.example.MenuStream.model.Money;
+
+import java.util.Date;
+import java.util.List;
+
+// Um pedido por linha no NDJSON de GET /orders/export
+public record OrderExportDTO(Long id, Long customerId, String status, Date orderDate, Date fulfillmentDate,
+                             Money totalAmount, List<OrderDetailDTO> orderDetails) {
+}
@@ -0,0 +1,10 @@
+package com.example.MenuStream.DTO;
+
+import com.example.MenuStream.model.Money;
+
+import java.util.Date;
+
+// Uma linha da exportacao: o pedido repetido em cada item (productId/quantity nulos se o pedido nao tem itens)
+public record OrderExportRow(Long orderId, Long customerId, String status, Date orderDate, Date fulfillmentDate,
+                             Money totalAmount, Long productId, Integer quantity) {
+}
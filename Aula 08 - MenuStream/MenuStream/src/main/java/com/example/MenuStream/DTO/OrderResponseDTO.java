@@ -0,0 +1,28 @@
+package com.example.MenuStream.DTO;
+
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.OrderDetail;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Pedido como sai da API (/orders). Montado dentro da transacao, com itens e produtos ja carregados
+// (entity graph Order.withItems ou entidades recem-gravadas); do cliente so vai o id.
+public record OrderResponseDTO(Long id, Long customerId, String status, Date orderDate, Date fulfillmentDate,
+                               Money totalAmount, List<Item> orderDetails) {
+
+    public record Item(Long id, Long productId, String productName, int quantity) {
+    }
+
+    public static OrderResponseDTO of(Order order) {
+        List<Item> items = new ArrayList<>(order.getOrderDetails().size());
+        for (OrderDetail detail : order.getOrderDetails()) {
+            items.add(new Item(detail.getId(), detail.getProduct().getId(), detail.getProduct().getName(),
+                    detail.getQuantity()));
+        }
+        return new OrderResponseDTO(order.getId(), order.getCustomer().getId(), order.getStatus(),
+                order.getOrderDate(), order.getFulfillmentDate(), order.getTotalAmount(), items);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.MenuStream.DTO;
+
+// Situacao de um pedido aceito com Prefer: respond-async (GET /orders/{id}/status)
+// state: QUEUED (aceito, ainda em memoria), CREATED (gravado) ou FAILED (nao pode ser gravado; error diz o motivo)
+public record OrderStatusDTO(Long orderId, String state, String statusUrl, String error) {
+
+    public static OrderStatusDTO of(Long orderId, String state, String error) {
+        return new OrderStatusDTO(orderId, state, "/orders/" + orderId + "/status", error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.MenuStream.DTO;
+
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Payment;
+
+import java.util.Date;
+
+// Pagamento como sai da API (/payments); o status muda de PENDING quando o gateway responde
+public record PaymentDTO(Long id, Long orderId, String paymentMethod, Money transactionAmount, String paymentStatus,
+                         String gatewayReference, String failureReason, Date updatedAt) {
+
+    public static PaymentDTO of(Payment payment) {
+        return new PaymentDTO(payment.getId(), payment.getOrder().getId(), payment.getPaymentMethod(),
+                payment.getTransactionAmount(), payment.getPaymentStatus(), payment.getGatewayReference(),
+                payment.getFailureReason(), payment.getUpdatedAt());
+    }
+}
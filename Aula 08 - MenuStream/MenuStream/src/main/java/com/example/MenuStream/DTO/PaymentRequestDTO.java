@@ -0,0 +1,5 @@
+package com.example.MenuStream.DTO;
+
+// Corpo de POST /payments
+public record PaymentRequestDTO(Long orderId, String paymentMethod) {
+}
@@ -0,0 +1,11 @@
+package com.example.MenuStream.DTO;
+
+import com.example.MenuStream.model.Product;
+
+import java.util.List;
+
+// Resposta de GET /products/changes: o cliente guarda version e a envia como ?since= na proxima sincronizacao.
+// full = true: changed traz o cardapio inteiro e o cliente troca a copia local por ele (primeira carga, since
+// mais antigo que as exclusoes guardadas ou de outro banco)
+public record ProductChangesDTO(long version, boolean full, List<Product> changed, List<Long> deleted) {
+}
@@ -0,0 +1,8 @@
+package com.example.MenuStream.DTO;
+
+import com.example.MenuStream.model.Product;
+
+import java.util.List;
+
+public record ProductSearchPage(List<Product> items, int page, int size, int total) {
+}
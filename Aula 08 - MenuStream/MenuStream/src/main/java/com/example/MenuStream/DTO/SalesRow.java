@@ -0,0 +1,10 @@
+package com.example.MenuStream.DTO;
+
+import com.example.MenuStream.model.Money;
+
+import java.util.Date;
+
+// Linha pedido x item lida pela reconstrucao dos rollups (produto/quantidade nulos se o pedido nao tem itens)
+public record SalesRow(Long orderId, Date orderDate, Money totalAmount, Long productId, String category,
+                       Money price, Integer quantity) {
+}
@@ -0,0 +1,7 @@
+package com.example.MenuStream.DTO;
+
+import java.math.BigDecimal;
+
+// Total de um produto (key = id) ou de uma categoria (key = nome) no periodo consultado
+public record SalesTotalDTO(String key, long orders, long quantity, BigDecimal amount) {
+}
@@ -0,0 +1,5 @@
+package com.example.MenuStream.DTO;
+
+// Estoque atual de um produto (nulo = sem controle de estoque)
+public record StockDTO(Long productId, Integer stock) {
+}
@@ -0,0 +1,5 @@
+package com.example.MenuStream.DTO;
+
+// Item da faixa "mais pedidos agora": quantidade pedida estimada na janela (nunca abaixo da real)
+public record TrendingProductDTO(Long productId, String name, String category, String image, long quantity) {
+}
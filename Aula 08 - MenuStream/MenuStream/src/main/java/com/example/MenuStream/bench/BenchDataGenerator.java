@@ -0,0 +1,250 @@
+package com.example.MenuStream.bench;
+
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.service.PricingEngine;
+import com.example.MenuStream.service.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.SplittableRandom;
+
+// Massa de dados do perfil bench: clientes, produtos e pedidos com itens gerados a partir de uma semente, entao
+// a mesma configuracao produz sempre as mesmas linhas (ids, precos, datas). Grava direto por JDBC, em lotes
+// (addBatch) com commit a cada lote, sem passar pelo Hibernate; no fim ajusta as sequencias/identidades para
+// as escritas da aplicacao continuarem dos ids gerados e atualiza as estatisticas do banco (ANALYZE).
+// Roda antes do servidor web subir, entao nenhuma requisicao ve o banco pela metade nem guarda um cardapio vazio.
+// Quantidades: <tabela>-per-scale x scale (scale=1: 10 mil clientes, 1.000 produtos, 100 mil pedidos).
+@Component
+@Profile("bench")
+public class BenchDataGenerator implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(BenchDataGenerator.class);
+
+    private static final String[] CATEGORIES = {"Pizzas", "Lanches", "Bebidas", "Sobremesas", "Saladas", "Massas",
+            "Porcoes", "Pratos executivos", "Cafes", "Veganos"};
+    private static final String[] WORDS = {"frango", "queijo", "tomate", "manjericao", "calabresa", "feijao",
+            "chocolate", "morango", "bacon", "cebola", "alho", "picanha", "salmao", "limao", "coco", "milho",
+            "cogumelo", "abacaxi", "pimenta", "azeitona"};
+    private static final String[] STATUSES = {"NEW", "PREPARING", "READY", "DELIVERED", "CANCELLED"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Value("${menustream.bench.seed:42}")
+    private long seed;
+
+    @Value("${menustream.bench.scale:1}")
+    private double scale;
+
+    @Value("${menustream.bench.customers-per-scale:10000}")
+    private long customersPerScale;
+
+    @Value("${menustream.bench.products-per-scale:1000}")
+    private long productsPerScale;
+
+    @Value("${menustream.bench.orders-per-scale:100000}")
+    private long ordersPerScale;
+
+    @Value("${menustream.bench.max-lines:6}")
+    private int maxLines;
+
+    // Pedidos distribuidos nos "days" dias anteriores a "until" (fixo, para as datas nao dependerem do dia da carga)
+    @Value("${menustream.bench.until:2024-06-01T00:00:00Z}")
+    private Instant until;
+
+    @Value("${menustream.bench.days:180}")
+    private int days;
+
+    @Value("${menustream.bench.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${menustream.bench.rebuild-rollups:true}")
+    private boolean rebuildRollups;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long existing = jdbcTemplate.queryForObject("select count(*) from customers", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Bench data already present ({} customers), skipping generation", existing);
+            return;
+        }
+        long customers = scaled(customersPerScale);
+        long products = scaled(productsPerScale);
+        long orders = scaled(ordersPerScale);
+
+        long start = System.nanoTime();
+        long[] prices = jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+            connection.setAutoCommit(false);
+            insertCustomers(connection, customers);
+            long[] productPrices = insertProducts(connection, products);
+            long lines = insertOrders(connection, orders, customers, productPrices);
+            restartIds(connection, customers, products, orders, lines);
+            return productPrices;
+        });
+        log.info("Bench data: {} customers, {} products, {} orders in {} ms", customers, prices.length, orders,
+                (System.nanoTime() - start) / 1_000_000);
+
+        if (rebuildRollups) {
+            salesRollupService.rebuild();
+        }
+    }
+
+    private long scaled(long perScale) {
+        return Math.max(1, Math.round(perScale * scale));
+    }
+
+    private void insertCustomers(Connection connection, long customers) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (PreparedStatement insert = connection.prepareStatement("insert into customers "
+                + "(id, name, email, delivery_address, payment_preferences) values (?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= customers; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "Cliente " + id);
+                insert.setString(3, "cliente" + id + "@bench.menustream.com");
+                insert.setString(4, "Rua " + word(random) + ", " + (1 + random.nextInt(2000)));
+                insert.setString(5, random.nextInt(3) == 0 ? null : random.nextBoolean() ? "PIX" : "CARD");
+                add(connection, insert, id);
+            }
+            flush(connection, insert);
+        }
+    }
+
+    // Devolve o preco (centavos) de cada produto, indice = id - 1, para calcular o total dos pedidos
+    private long[] insertProducts(Connection connection, long products) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        long[] prices = new long[Math.toIntExact(products)];
+        try (PreparedStatement insert = connection.prepareStatement("insert into products "
+                + "(id, name, description, price, category, availability, image, stock, row_version) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < prices.length; i++) {
+                long id = i + 1L;
+                prices[i] = 500 + random.nextInt(15_000);
+                insert.setLong(1, id);
+                insert.setString(2, capitalize(word(random)) + " com " + word(random) + " " + id);
+                insert.setString(3, sentence(random, 6 + random.nextInt(14)));
+                insert.setBigDecimal(4, BigDecimal.valueOf(prices[i], 2));
+                insert.setString(5, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                // Estoque primeiro: estoque 0 e sempre indisponivel, como o StockService deixa o produto ao esgotar
+                Integer stock = random.nextInt(4) == 0 ? null : random.nextInt(500);
+                insert.setBoolean(6, random.nextInt(10) != 0 && (stock == null || stock > 0));
+                insert.setString(7, "https://cdn.menustream.com/products/" + id + ".jpg");
+                if (stock == null) {
+                    insert.setNull(8, Types.INTEGER);
+                } else {
+                    insert.setInt(8, stock);
+                }
+                insert.setLong(9, id);
+                add(connection, insert, id);
+            }
+            flush(connection, insert);
+        }
+        return prices;
+    }
+
+    // Pedidos e itens nos mesmos lotes; devolve quantos itens foram gravados
+    private long insertOrders(Connection connection, long orders, long customers, long[] prices) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        long untilMillis = until.toEpochMilli();
+        long spanMillis = days * 86_400_000L;
+        long lineId = 0;
+        try (PreparedStatement order = connection.prepareStatement("insert into orders "
+                + "(id, customer_id, total_amount, status, order_date, fulfillment_date) values (?, ?, ?, ?, ?, ?)");
+             PreparedStatement detail = connection.prepareStatement("insert into order_details "
+                     + "(id, order_id, product_id, quantity) values (?, ?, ?, ?)")) {
+            for (long id = 1; id <= orders; id++) {
+                int lines = 1 + random.nextInt(Math.max(1, maxLines));
+                long subtotal = 0;
+                for (int line = 0; line < lines; line++) {
+                    // Alguns produtos vendem muito mais que os outros (distribuicao enviesada para os ids baixos)
+                    int product = (int) (prices.length * Math.pow(random.nextDouble(), 2));
+                    int quantity = 1 + random.nextInt(4);
+                    subtotal += PricingEngine.lineCents(Money.ofCents(prices[product]), quantity);
+                    detail.setLong(1, ++lineId);
+                    detail.setLong(2, id);
+                    detail.setLong(3, product + 1L);
+                    detail.setInt(4, quantity);
+                    detail.addBatch();
+                }
+                long orderDate = untilMillis - spanMillis + (long) (random.nextDouble() * spanMillis);
+                String status = STATUSES[random.nextInt(STATUSES.length)];
+                order.setLong(1, id);
+                order.setLong(2, 1 + random.nextLong(customers));
+                order.setBigDecimal(3, PricingEngine.orderTotal(subtotal).toBigDecimal());
+                order.setString(4, status);
+                order.setTimestamp(5, new Timestamp(orderDate));
+                order.setTimestamp(6, status.equals("DELIVERED")
+                        ? new Timestamp(orderDate + 1_200_000 + random.nextInt(3_600_000)) : null);
+                order.addBatch();
+                if (id % batchSize == 0) {
+                    // Os pedidos antes dos itens (chave estrangeira order_id)
+                    order.executeBatch();
+                    detail.executeBatch();
+                    connection.commit();
+                }
+            }
+            order.executeBatch();
+            detail.executeBatch();
+            connection.commit();
+        }
+        return lineId;
+    }
+
+    // Pedidos e itens usam sequencias pooled (blocos de 50): comecar um bloco inteiro depois do ultimo id gerado
+    private void restartIds(Connection connection, long customers, long products, long orders, long lines)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table customers alter column id restart with " + (customers + 1));
+            statement.execute("alter table products alter column id restart with " + (products + 1));
+            statement.execute("alter sequence orders_seq restart with " + (orders + 100));
+            statement.execute("alter sequence order_details_seq restart with " + (lines + 100));
+            statement.execute("analyze");
+        }
+        connection.commit();
+    }
+
+    private void add(Connection connection, PreparedStatement insert, long count) throws SQLException {
+        insert.addBatch();
+        if (count % batchSize == 0) {
+            flush(connection, insert);
+        }
+    }
+
+    private static void flush(Connection connection, PreparedStatement insert) throws SQLException {
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    private static String word(SplittableRandom random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            sentence.append(i == 0 ? "" : " ").append(word(random));
+        }
+        return sentence.toString();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.MenuStream.controller;
+
+import com.example.MenuStream.DTO.CacheRegionStatsDTO;
+import com.example.MenuStream.service.CacheStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Hits, misses e evictions de cada regiao do cache de segundo nivel (produtos, clientes e consultas)
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheRegionStatsDTO>> getStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.MenuStream.controller;
+
+import com.example.MenuStream.DTO.CartDTO;
+import com.example.MenuStream.DTO.CartItemDTO;
+import com.example.MenuStream.service.CartService;
+import com.example.MenuStream.service.CheckoutService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Carrinho do cliente; todas as respostas trazem o carrinho completo, ja com os precos do cardapio
+@RestController
+@RequestMapping("/carts/{customerId}")
+public class CartController {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @GetMapping
+    public ResponseEntity<CartDTO> getCart(@PathVariable Long customerId) {
+        return ResponseEntity.ok(cartService.getCart(customerId));
+    }
+
+    // Soma a quantidade ao item (cria o item se ainda nao esta no carrinho)
+    @PostMapping("/items")
+    public ResponseEntity<CartDTO> addItem(@PathVariable Long customerId, @RequestBody CartItemDTO item) {
+        return ResponseEntity.ok(cartService.addItem(customerId, item.getProductId(), item.getQuantity()));
+    }
+
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<CartDTO> setItem(@PathVariable Long customerId, @PathVariable Long productId,
+                                           @RequestBody CartItemDTO item) {
+        return ResponseEntity.ok(cartService.setItem(customerId, productId, item.getQuantity()));
+    }
+
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<CartDTO> removeItem(@PathVariable Long customerId, @PathVariable Long productId) {
+        return ResponseEntity.ok(cartService.removeItem(customerId, productId));
+    }
+
+    // Transforma o carrinho em pedido; com Idempotency-Key, repeticoes devolvem o mesmo pedido
+    @PostMapping("/checkout")
+    public ResponseEntity<byte[]> checkout(@PathVariable Long customerId,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return checkoutService.checkout(customerId, idempotencyKey).toResponseEntity();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<CartDTO> clearCart(@PathVariable Long customerId) {
+        return ResponseEntity.ok(cartService.clearCart(customerId));
+    }
+}
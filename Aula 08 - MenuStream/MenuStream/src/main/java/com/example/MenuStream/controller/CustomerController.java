@@ -1,5 +1,6 @@
 package com.example.MenuStream.controller;
 
+import com.example.MenuStream.DTO.CursorPage;
 import com.example.MenuStream.DTO.CustomerDTO;
 import com.example.MenuStream.model.Customer;
 import com.example.MenuStream.service.CustomerService;
@@ -8,8 +9,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/customers")
 public class CustomerController {
@@ -33,8 +32,9 @@ public class CustomerController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Customer>> getAllCustomers() {
-        return ResponseEntity.ok(customerService.getAllCustomers());
+    public ResponseEntity<CursorPage<Customer>> getAllCustomers(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(customerService.getCustomers(cursor, size));
     }
 
     @PutMapping("/{id}")
@@ -1,14 +1,32 @@
 package com.example.MenuStream.controller;
 
+import com.example.MenuStream.DTO.CursorPage;
+import com.example.MenuStream.DTO.OrderBatchResponse;
 import com.example.MenuStream.DTO.OrderDTO;
 import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.DTO.OrderResponseDTO;
+import com.example.MenuStream.DTO.OrderStatusDTO;
+import com.example.MenuStream.event.OrderEventBroadcaster;
 import com.example.MenuStream.model.Order;
+import com.example.MenuStream.service.AsyncOrderService;
+import com.example.MenuStream.service.IdempotencyService;
+import com.example.MenuStream.service.OrderExportService;
+import com.example.MenuStream.service.OrderIngestService;
 import com.example.MenuStream.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/orders")
@@ -17,27 +35,90 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderIngestService orderIngestService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderEventBroadcaster orderEventBroadcaster;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AsyncOrderService asyncOrderService;
+
+    // Idempotency-Key opcional: o app reenvia o POST quando a rede cai e recebe o pedido criado na primeira vez.
+    // Com Prefer: respond-async o pedido e aceito em memoria e gravado em lote: 202 com a URL de status
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody OrderDTO orderDTO) {
-        Order order = orderService.saveOrder(orderDTO);
-        return ResponseEntity.ok(order);
+    public ResponseEntity<byte[]> createOrder(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                              @RequestHeader(value = "Prefer", required = false) String prefer,
+                                              @RequestBody OrderDTO orderDTO) {
+        if (respondAsync(prefer) && asyncOrderService.isEnabled()) {
+            String fingerprint = idempotencyKey == null ? null : "orders-async:" + idempotencyService.digest(orderDTO);
+            ResponseEntity<byte[]> accepted = idempotencyService.execute(idempotencyKey, fingerprint, HttpStatus.ACCEPTED,
+                    () -> asyncOrderService.accept(orderDTO)).toResponseEntity();
+            return ResponseEntity.status(accepted.getStatusCode())
+                    .headers(accepted.getHeaders())
+                    .header("Preference-Applied", "respond-async")
+                    .body(accepted.getBody());
+        }
+        String fingerprint = idempotencyKey == null ? null : "orders:" + idempotencyService.digest(orderDTO);
+        return idempotencyService.execute(idempotencyKey, fingerprint, HttpStatus.OK,
+                () -> OrderResponseDTO.of(orderService.saveOrder(orderDTO))).toResponseEntity();
+    }
+
+    // Estado de um pedido aceito de forma assincrona; wait (segundos) segura a resposta ate o pedido ser gravado
+    @GetMapping("/{id}/status")
+    public CompletableFuture<OrderStatusDTO> getOrderStatus(@PathVariable Long id,
+                                                            @RequestParam(required = false, defaultValue = "0") long wait) {
+        return asyncOrderService.awaitStatus(id, wait);
+    }
+
+    // Reenvio em massa dos terminais: array JSON ou NDJSON de OrderDTO, com resultado por pedido
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchResponse> createOrders(InputStream body) throws IOException {
+        return ResponseEntity.ok(orderIngestService.ingest(body));
+    }
+
+    // Painel da cozinha: eventos de pedidos em tempo real (SSE); na reconexao o navegador envia Last-Event-ID
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrders(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return orderEventBroadcaster.subscribe(lastEventId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
-        return ResponseEntity.ok(orderService.getOrderById(id));
+    public ResponseEntity<OrderResponseDTO> getOrderById(@PathVariable Long id) {
+        return ResponseEntity.ok(orderService.getOrderResponse(id));
     }
 
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public ResponseEntity<CursorPage<OrderResponseDTO>> getAllOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getOrders(status, toDate(from), toDate(to), cursor, size));
+    }
+
+    // Exportacao mensal para a contabilidade: NDJSON enviado enquanto o banco ainda esta sendo lido.
+    // Inclui os pedidos ja arquivados, a menos que includeArchived=false
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam Instant from, @RequestParam Instant to,
+                                                              @RequestParam(defaultValue = "true") boolean includeArchived) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> orderExportService.exportOrders(toDate(from), toDate(to), includeArchived, out));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody OrderDTO orderDTO) {
+    public ResponseEntity<OrderResponseDTO> updateOrder(@PathVariable Long id, @RequestBody OrderDTO orderDTO) {
         System.out.println(orderDTO.toString());
         Order order = orderService.updateOrder(id, orderDTO);
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok(OrderResponseDTO.of(order));
     }
 
     @DeleteMapping("/{id}")
@@ -45,4 +126,12 @@ public class OrderController {
         orderService.deleteOrder(id);
         return ResponseEntity.ok().build();
     }
+
+    private static boolean respondAsync(String prefer) {
+        return prefer != null && prefer.toLowerCase(Locale.ROOT).contains("respond-async");
+    }
+
+    private static Date toDate(Instant instant) {
+        return instant == null ? null : Date.from(instant);
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.MenuStream.controller;
+
+import com.example.MenuStream.DTO.PaymentDTO;
+import com.example.MenuStream.DTO.PaymentRequestDTO;
+import com.example.MenuStream.service.PaymentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/payments")
+public class PaymentController {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    // Aceita o pagamento (202, PENDING); o resultado do gateway aparece depois em GET /payments/{id}
+    @PostMapping
+    public ResponseEntity<PaymentDTO> submitPayment(@RequestBody PaymentRequestDTO request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(paymentService.submit(request.orderId(), request.paymentMethod()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PaymentDTO> getPayment(@PathVariable Long id) {
+        return ResponseEntity.ok(paymentService.getPayment(id));
+    }
+}
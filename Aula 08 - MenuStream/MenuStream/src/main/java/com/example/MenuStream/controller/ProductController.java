@@ -1,8 +1,20 @@
 package com.example.MenuStream.controller;
 
+import com.example.MenuStream.DTO.CursorPage;
+import com.example.MenuStream.DTO.ProductChangesDTO;
+import com.example.MenuStream.DTO.ProductSearchPage;
+import com.example.MenuStream.DTO.StockDTO;
+import com.example.MenuStream.DTO.TrendingProductDTO;
 import com.example.MenuStream.model.Product;
+import com.example.MenuStream.service.MenuSnapshot;
 import com.example.MenuStream.service.ProductService;
+import com.example.MenuStream.service.StockService;
+import com.example.MenuStream.service.TrendingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,22 +27,95 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private StockService stockService;
+
     @CrossOrigin(origins = "*", allowedHeaders = "*")
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
         return ResponseEntity.ok(productService.saveProduct(product));
     }
 
+    // Caixa de busca do cardapio: indice em memoria, sem acento, por prefixo e paginado
+    @CrossOrigin(origins = "*", allowedHeaders = "*")
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchPage> searchProducts(@RequestParam(required = false) String q,
+                                                            @RequestParam(required = false) String category,
+                                                            @RequestParam(required = false) Boolean available,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(productService.searchProducts(q, category, available, page, size));
+    }
+
+    // Sincronizacao incremental dos quiosques: so o que mudou depois da versao que o cliente ja tem
+    @CrossOrigin(origins = "*", allowedHeaders = "*")
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesDTO> getProductChanges(@RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(productService.getChangesSince(since));
+    }
+
+    // Mais pedidos nos ultimos 15 minutos, 1 hora ou 24 horas (window=15m|1h|24h), estimados em memoria
+    @CrossOrigin(origins = "*", allowedHeaders = "*")
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingProductDTO>> getTrendingProducts(@RequestParam(defaultValue = "1h") String window,
+                                                                        @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingService.getTrending(window, limit));
+    }
+
     @CrossOrigin(origins = "*", allowedHeaders = "*")
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
         return ResponseEntity.ok(productService.getProductById(id));
     }
 
-    @CrossOrigin(origins = "*", allowedHeaders = "*")
+    // Cardapio servido direto da memoria: bytes ja serializados (gzip quando o cliente aceita) e 304 pelo ETag
+    @CrossOrigin(origins = "*", allowedHeaders = "*", exposedHeaders = HttpHeaders.ETAG)
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MenuSnapshot menu = productService.getMenuSnapshot();
+        if (menu.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(menu.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(menu.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(menu.gzip());
+        }
+        return response.body(menu.json());
+    }
+
+    // Paginacao por cursor: ativada quando o cliente informa ?size= (o GET sem parametros continua devolvendo o cardapio)
+    @CrossOrigin(origins = "*", allowedHeaders = "*")
+    @GetMapping(params = "size")
+    public ResponseEntity<CursorPage<Product>> getProducts(@RequestParam(required = false) String category,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam Integer size) {
+        return ResponseEntity.ok(productService.getProducts(category, cursor, size));
+    }
+
+    // Estoque em tempo real (contador em memoria), diferente do valor gravado que aparece no cardapio
+    @CrossOrigin(origins = "*", allowedHeaders = "*")
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockDTO> getStock(@PathVariable Long id) {
+        return ResponseEntity.ok(stockService.getStock(id));
+    }
+
+    // Reposicao: {"stock": 50} substitui a quantidade; {"stock": null} desliga o controle de estoque
+    @CrossOrigin(origins = "*", allowedHeaders = "*")
+    @PutMapping("/{id}/stock")
+    public ResponseEntity<StockDTO> setStock(@PathVariable Long id, @RequestBody StockDTO stock) {
+        return ResponseEntity.ok(stockService.setStock(id, stock.stock()));
     }
 
     @CrossOrigin(origins = "*", allowedHeaders = "*")
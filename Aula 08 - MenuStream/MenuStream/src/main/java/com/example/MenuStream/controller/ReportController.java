@@ -0,0 +1,57 @@
+package com.example.MenuStream.controller;
+
+import com.example.MenuStream.DTO.HourlySalesDTO;
+import com.example.MenuStream.DTO.SalesTotalDTO;
+import com.example.MenuStream.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+// Relatorios da gerencia: leem apenas os rollups de vendas, nunca as tabelas de pedidos.
+// Periodo [from, to) arredondado para horas cheias; padrao: ultimas 24 horas.
+@RestController
+@RequestMapping("/reports/sales")
+public class ReportController {
+
+    private static final Duration DEFAULT_PERIOD = Duration.ofHours(24);
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @GetMapping("/hourly")
+    public ResponseEntity<List<HourlySalesDTO>> getHourlySales(@RequestParam(required = false) Instant from,
+                                                               @RequestParam(required = false) Instant to) {
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(DEFAULT_PERIOD) : from;
+        return ResponseEntity.ok(salesRollupService.getHourlySales(Date.from(start), Date.from(end)));
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<List<SalesTotalDTO>> getProductSales(@RequestParam(required = false) Instant from,
+                                                               @RequestParam(required = false) Instant to,
+                                                               @RequestParam(defaultValue = "20") int limit) {
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(DEFAULT_PERIOD) : from;
+        return ResponseEntity.ok(salesRollupService.getProductSales(Date.from(start), Date.from(end), limit));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<SalesTotalDTO>> getCategorySales(@RequestParam(required = false) Instant from,
+                                                                @RequestParam(required = false) Instant to) {
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(DEFAULT_PERIOD) : from;
+        return ResponseEntity.ok(salesRollupService.getCategorySales(Date.from(start), Date.from(end)));
+    }
+
+    // Reconstrucao completa a partir dos pedidos (varre o banco inteiro: usar fora do horario de pico)
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuild() {
+        return ResponseEntity.ok(Map.of("orders", salesRollupService.rebuild()));
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.MenuStream.event;
+
+import java.util.Map;
+
+// Itens (produto -> quantidade) que viraram pedido; o CartService os tira do carrinho depois do commit
+public record CartCheckout(Long customerId, Long orderId, Map<Long, Integer> items) {
+}
@@ -0,0 +1,48 @@
+package com.example.MenuStream.event;
+
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.OrderDetail;
+
+import java.util.Date;
+import java.util.List;
+
+// Evento de dominio publicado pelo OrderService e entregue aos ouvintes somente depois do commit
+public record OrderEvent(Type type, Long orderId, Long customerId, String status, Date orderDate,
+                         Money totalAmount, List<Line> lines) {
+
+    public enum Type {
+        ORDER_CREATED("order-created"),
+        ORDER_UPDATED("order-updated"),
+        STATUS_CHANGED("status-changed"),
+        ORDER_DELETED("order-deleted");
+
+        // Nome do evento no fluxo SSE (campo "event:")
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        public String eventName() {
+            return eventName;
+        }
+    }
+
+    public record Line(Long productId, String productName, int quantity) {
+    }
+
+    public static OrderEvent of(Type type, Order order) {
+        List<Line> lines = order.getOrderDetails().stream().map(OrderEvent::line).toList();
+        return new OrderEvent(type, order.getId(), order.getCustomer().getId(), order.getStatus(),
+                order.getOrderDate(), order.getTotalAmount(), lines);
+    }
+
+    public static OrderEvent deleted(Long orderId) {
+        return new OrderEvent(Type.ORDER_DELETED, orderId, null, null, null, null, List.of());
+    }
+
+    private static Line line(OrderDetail detail) {
+        return new Line(detail.getProduct().getId(), detail.getProduct().getName(), detail.getQuantity());
+    }
+}
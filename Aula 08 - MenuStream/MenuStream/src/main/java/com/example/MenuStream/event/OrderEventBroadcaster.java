@@ -0,0 +1,258 @@
+package com.example.MenuStream.event;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Feed da cozinha (GET /orders/stream). Os eventos confirmados entram em um buffer circular de tamanho fixo,
+// numerado em sequencia; cada assinante SSE guarda apenas a posicao do proximo evento a receber.
+// Quem publica nunca espera por um cliente: so grava no buffer e agenda a entrega. Um cliente lento que
+// fica mais de "capacity" eventos para tras recebe "resync" e pula para o evento mais novo.
+// Um envio que passa de send-timeout (cliente que parou de ler e encheu o buffer do socket) fecha o assinante;
+// enquanto a thread presa nao volta, o pool ganha uma thread extra para os demais clientes nao esperarem.
+@Component
+public class OrderEventBroadcaster {
+
+    // Maximo de eventos enviados de uma vez para um assinante antes de liberar a thread
+    private static final int MAX_BATCH = 256;
+    private static final long RECONNECT_MILLIS = 3000;
+
+    @Value("${menustream.orders.stream.buffer-size:1024}")
+    private int capacity;
+
+    @Value("${menustream.orders.stream.dispatcher-threads:8}")
+    private int dispatcherThreads;
+
+    @Value("${menustream.orders.stream.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${menustream.orders.stream.send-timeout:5s}")
+    private Duration sendTimeout;
+
+    private Envelope[] ring;
+    private long lastId;
+    private ThreadPoolExecutor dispatcher;
+    private ScheduledExecutorService watchdog;
+    // Threads do pool presas em um envio que ja estourou o prazo
+    private final AtomicInteger stuckSenders = new AtomicInteger();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private record Envelope(long id, OrderEvent event) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private long nextId;
+        private volatile boolean closed;
+        // Inicio (System.nanoTime) do envio em andamento e a thread que o faz; 0/null fora de um envio
+        private volatile long sendingSince;
+        private Thread sender;
+        private boolean expired;
+
+        private Subscriber(SseEmitter emitter, long nextId) {
+            this.emitter = emitter;
+            this.nextId = nextId;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        ring = new Envelope[capacity];
+        // Fila sem limite: o pool fica sempre no tamanho base, que so cresce enquanto houver thread presa
+        dispatcher = new ThreadPoolExecutor(dispatcherThreads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "order-stream-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-stream-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(10, sendTimeout.toMillis() / 4);
+        watchdog.scheduleWithFixedDelay(this::expireStuckSends, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        watchdog.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        publish(event);
+    }
+
+    public void publish(OrderEvent event) {
+        synchronized (this) {
+            lastId++;
+            ring[(int) (lastId % capacity)] = new Envelope(lastId, event);
+        }
+        subscribers.forEach(this::schedule);
+    }
+
+    // lastEventId vem do cabecalho Last-Event-ID na reconexao; sem ele o cliente recebe so os eventos novos
+    public SseEmitter subscribe(Long lastEventId) {
+        return subscribe(new SseEmitter(timeout.toMillis()), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long lastEventId) {
+        Subscriber subscriber;
+        synchronized (this) {
+            long nextId = lastEventId == null ? lastId + 1 : lastEventId + 1;
+            // Id maior que o ultimo publicado: o servidor reiniciou desde a conexao anterior, forca um resync
+            subscriber = new Subscriber(emitter, nextId > lastId + 1 ? 0 : nextId);
+        }
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> close(subscriber));
+        try {
+            // Envia os cabecalhos na hora e sugere ao navegador o intervalo de reconexao
+            emitter.send(SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("connected"));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // No maximo uma entrega em andamento por assinante, entao a fila do executor tem no maximo um item por cliente
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.closed && subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    // Um lote por vez: com mais pendente, o assinante volta para o fim da fila e divide as threads com os outros
+    private void drain(Subscriber subscriber) {
+        try {
+            if (!subscriber.closed) {
+                for (Envelope envelope : read(subscriber)) {
+                    send(subscriber, SseEmitter.event()
+                            .id(Long.toString(envelope.id()))
+                            .name(envelope.event().type().eventName())
+                            .data(envelope.event()));
+                    subscriber.nextId = envelope.id() + 1;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            close(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // Sobrou lote ou um evento chegou entre a ultima leitura e a liberacao da flag
+        if (hasPending(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    private List<Envelope> read(Subscriber subscriber) throws IOException {
+        while (true) {
+            long resyncTo;
+            synchronized (this) {
+                long oldest = Math.max(1, lastId - capacity + 1);
+                if (subscriber.nextId >= oldest) {
+                    List<Envelope> batch = new ArrayList<>();
+                    for (long id = subscriber.nextId; id <= lastId && batch.size() < MAX_BATCH; id++) {
+                        batch.add(ring[(int) (id % capacity)]);
+                    }
+                    return batch;
+                }
+                resyncTo = lastId;
+            }
+            // Os eventos que o cliente nao recebeu ja sairam do buffer: ele deve recarregar GET /orders
+            send(subscriber, SseEmitter.event()
+                    .id(Long.toString(resyncTo))
+                    .name("resync")
+                    .data(Map.of("lastEventId", resyncTo)));
+            subscriber.nextId = resyncTo + 1;
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        synchronized (subscriber) {
+            subscriber.sender = Thread.currentThread();
+        }
+        subscriber.sendingSince = System.nanoTime();
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendingSince = 0;
+            synchronized (subscriber) {
+                subscriber.sender = null;
+                // Limpa uma interrupcao do watchdog para ela nao vazar para a proxima tarefa desta thread
+                Thread.interrupted();
+                if (subscriber.expired) {
+                    subscriber.expired = false;
+                    dispatcher.setCorePoolSize(dispatcherThreads + stuckSenders.decrementAndGet());
+                }
+            }
+        }
+        if (subscriber.closed) {
+            throw new IllegalStateException("Subscriber closed");
+        }
+    }
+
+    // Roda no watchdog. Nao chama o emitter aqui: ResponseBodyEmitter.send segura o monitor do emitter enquanto
+    // escreve, entao complete()/completeWithError() esperariam pela mesma escrita presa.
+    private void expireStuckSends() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since == 0 || now - since < sendTimeout.toNanos()) {
+                continue;
+            }
+            close(subscriber);
+            synchronized (subscriber) {
+                if (subscriber.sender != null && !subscriber.expired) {
+                    subscriber.expired = true;
+                    dispatcher.setCorePoolSize(dispatcherThreads + stuckSenders.incrementAndGet());
+                    subscriber.sender.interrupt();
+                }
+            }
+        }
+    }
+
+    private synchronized boolean hasPending(Subscriber subscriber) {
+        return !subscriber.closed && subscriber.nextId <= lastId;
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+}
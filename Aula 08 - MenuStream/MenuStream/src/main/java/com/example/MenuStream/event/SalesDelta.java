@@ -0,0 +1,87 @@
+package com.example.MenuStream.event;
+
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.OrderDetail;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Efeito de um pedido confirmado nos relatorios de vendas: a venda que sai (estado anterior) e a que entra.
+// Calculado dentro da transacao, a partir das entidades ja carregadas, e aplicado nos rollups depois do commit.
+public record SalesDelta(Sale removed, Sale added) {
+
+    public static SalesDelta created(Order order) {
+        return new SalesDelta(null, Sale.of(order));
+    }
+
+    public static SalesDelta updated(Sale before, Order order) {
+        return new SalesDelta(before, Sale.of(order));
+    }
+
+    public static SalesDelta deleted(Sale before) {
+        return new SalesDelta(before, null);
+    }
+
+    // Um item do pedido como entra no calculo: preco e categoria do produto no momento do evento
+    public record Line(Long productId, String category, Money price, int quantity) {
+    }
+
+    // Item ja com a sua parte do totalAmount do pedido (em centavos)
+    public record Item(Long productId, String category, int quantity, long amountCents) {
+    }
+
+    public record Sale(Date orderDate, long amountCents, List<Item> items) {
+
+        public static Sale of(Order order) {
+            List<Line> lines = new ArrayList<>(order.getOrderDetails().size());
+            for (OrderDetail detail : order.getOrderDetails()) {
+                lines.add(new Line(detail.getProduct().getId(), detail.getProduct().getCategory(),
+                        detail.getProduct().getPrice(), detail.getQuantity()));
+            }
+            return of(order.getOrderDate(), order.getTotalAmount(), lines);
+        }
+
+        // O totalAmount e rateado entre os itens proporcionalmente a preco x quantidade (taxa de servico e
+        // ajustes manuais incluidos); o ultimo item fica com o resto, entao a soma dos itens e exatamente o total
+        public static Sale of(Date orderDate, Money totalAmount, List<Line> lines) {
+            long totalCents = totalAmount == null ? 0 : totalAmount.cents();
+            BigDecimal weightSum = BigDecimal.ZERO;
+            for (Line line : lines) {
+                weightSum = weightSum.add(weight(line));
+            }
+            boolean byQuantity = weightSum.signum() == 0;
+            if (byQuantity) {
+                for (Line line : lines) {
+                    weightSum = weightSum.add(BigDecimal.valueOf(line.quantity()));
+                }
+            }
+
+            List<Item> items = new ArrayList<>(lines.size());
+            long allocated = 0;
+            for (int i = 0; i < lines.size(); i++) {
+                Line line = lines.get(i);
+                long cents;
+                if (i == lines.size() - 1) {
+                    cents = totalCents - allocated;
+                } else if (weightSum.signum() == 0) {
+                    cents = 0;
+                } else {
+                    BigDecimal weight = byQuantity ? BigDecimal.valueOf(line.quantity()) : weight(line);
+                    cents = BigDecimal.valueOf(totalCents).multiply(weight)
+                            .divide(weightSum, 0, RoundingMode.HALF_UP).longValueExact();
+                }
+                allocated += cents;
+                items.add(new Item(line.productId(), line.category(), line.quantity(), cents));
+            }
+            return new Sale(orderDate, totalCents, items);
+        }
+
+        private static BigDecimal weight(Line line) {
+            return line.price() == null ? BigDecimal.ZERO : BigDecimal.valueOf(line.price().cents() * line.quantity());
+        }
+    }
+}
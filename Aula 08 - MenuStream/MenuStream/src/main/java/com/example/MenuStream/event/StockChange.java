@@ -0,0 +1,16 @@
+package com.example.MenuStream.event;
+
+import java.util.Map;
+
+// Publicado junto com uma escrita de pedido: "reserved" (produto -> quantidade) ja saiu dos contadores e volta
+// se a transacao for desfeita; "returned" so volta ao estoque depois do commit (item removido, pedido excluido)
+public record StockChange(Map<Long, Integer> reserved, Map<Long, Integer> returned) {
+
+    public static StockChange reserved(Map<Long, Integer> quantities) {
+        return new StockChange(quantities, Map.of());
+    }
+
+    public static StockChange returned(Map<Long, Integer> quantities) {
+        return new StockChange(Map.of(), quantities);
+    }
+}
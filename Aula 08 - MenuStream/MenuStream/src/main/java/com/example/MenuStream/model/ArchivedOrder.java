@@ -0,0 +1,51 @@
+package com.example.MenuStream.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// Pedido antigo movido de orders para orders_archive pelo OrderArchiveService (mesmo id e mesmas colunas).
+// So leitura: as tabelas quentes ficam com os pedidos em andamento e os recentes.
+@Data
+@Entity
+@NamedEntityGraph(name = ArchivedOrder.WITH_ITEMS, attributeNodes = @NamedAttributeNode("orderDetails"))
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_customer", columnList = "customer_id"),
+        @Index(name = "idx_orders_archive_order_date_id", columnList = "orderDate, id")})
+public class ArchivedOrder {
+    public static final String WITH_ITEMS = "ArchivedOrder.withItems";
+
+    @Id
+    private Long id;
+
+    // Sem chave estrangeira: o cliente pode ser excluido depois que o pedido foi arquivado
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @OneToMany(mappedBy = "order")
+    @OrderBy("id")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<ArchivedOrderDetail> orderDetails = new ArrayList<>();
+
+    @Column(nullable = false)
+    @Convert(converter = MoneyConverter.class)
+    private Money totalAmount;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private Date orderDate;
+
+    @Column
+    private Date fulfillmentDate;
+
+    @Column(nullable = false)
+    private Date archivedAt;
+}
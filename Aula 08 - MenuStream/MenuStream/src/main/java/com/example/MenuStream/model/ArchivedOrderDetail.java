@@ -0,0 +1,31 @@
+package com.example.MenuStream.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+// Item de um pedido arquivado (order_details_archive)
+@Data
+@Entity
+@Table(name = "order_details_archive", indexes = @Index(name = "idx_order_details_archive_order", columnList = "order_id"))
+public class ArchivedOrderDetail {
+    @Id
+    private Long id;
+
+    // Coluna gravada pela copia em lote; a associacao abaixo so le a mesma coluna
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", insertable = false, updatable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private ArchivedOrder order;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int quantity;
+}
@@ -0,0 +1,46 @@
+package com.example.MenuStream.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.Date;
+
+// Pagamento de um pedido arquivado (payments_archive); sai de payments junto com o pedido
+@Data
+@Entity
+@Table(name = "payments_archive", indexes = @Index(name = "idx_payments_archive_order", columnList = "order_id"))
+public class ArchivedPayment {
+    @Id
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private String paymentMethod;
+
+    @Column(nullable = false)
+    @Convert(converter = MoneyConverter.class)
+    private Money transactionAmount;
+
+    @Column(nullable = false)
+    private String paymentStatus;
+
+    @Column
+    private String gateway;
+
+    @Column
+    private String gatewayReference;
+
+    @Column(length = 512)
+    private String failureReason;
+
+    @Column(length = 64)
+    private String chargeKey;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column
+    private Date updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.example.MenuStream.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Resposta gravada para um Idempotency-Key: repeticoes da mesma requisicao recebem exatamente esta resposta.
+// Inserida na mesma transacao do trabalho (pedido/checkout), entao existe se e somente se o trabalho foi feito.
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt"))
+public class IdempotencyRecord {
+    @Id
+    @Column(length = 255)
+    private String idempotencyKey;
+
+    // Operacao + resumo da requisicao: a mesma chave com outra requisicao e rejeitada
+    @Column(nullable = false, length = 100)
+    private String fingerprint;
+
+    @Column(nullable = false)
+    private int status;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] body;
+
+    @Column(nullable = false)
+    private Date createdAt;
+
+    @Column(nullable = false)
+    private Date expiresAt;
+}
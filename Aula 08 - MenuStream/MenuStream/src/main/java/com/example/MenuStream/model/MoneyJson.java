@@ -0,0 +1,44 @@
+package com.example.MenuStream.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+// JSON de Money: numero com duas casas na saida; na entrada aceita numero ou texto ("12.5", "12.50")
+public final class MoneyJson {
+
+    private MoneyJson() {
+    }
+
+    public static class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money money, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(money.toBigDecimal());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            try {
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    return Money.of(parser.getDecimalValue());
+                }
+                if (token == JsonToken.VALUE_STRING) {
+                    return Money.of(new BigDecimal(parser.getText().trim()));
+                }
+            } catch (IllegalArgumentException e) {
+                return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), e.getMessage());
+            }
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+    }
+}
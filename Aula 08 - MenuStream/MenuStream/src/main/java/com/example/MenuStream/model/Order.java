@@ -1,33 +1,64 @@
 package com.example.MenuStream.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 @Data
 @Entity
-@Table(name = "orders")
+// Pedido com itens e produtos em uma unica consulta (leituras de GET /orders)
+@NamedEntityGraph(name = Order.WITH_ITEMS,
+        attributeNodes = @NamedAttributeNode(value = "orderDetails", subgraph = "items"),
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
+// (fulfillmentDate, id): lotes do arquivamento (OrderArchiveService) em ordem de entrega
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "orderDate, id"),
+        @Index(name = "idx_orders_fulfillment_date_id", columnList = "fulfillmentDate, id")})
 public class Order {
+    public static final String WITH_ITEMS = "Order.withItems";
+
+    // Sequencia com blocos de 50 ids (pooled): com IDENTITY o Hibernate nao consegue agrupar os INSERTs em lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "orders_seq")
+    @GenericGenerator(name = "orders_seq", type = OrderIdGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "orders_seq"),
+            @Parameter(name = "increment_size", value = "50")})
     private Long id;
 
-    @ManyToOne
+    // Id ja tirado da sequencia (pedido aceito de forma assincrona); usado pelo OrderIdGenerator no persist
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Long reservedId;
+
+    // LAZY: as leituras de pedido so usam o id do cliente, que o proxy ja tem sem consultar customers
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     @JsonBackReference
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Customer customer;
 
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    // orphanRemoval: item retirado da lista e apagado no flush (updateOrder altera so a diferenca)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private List<OrderDetail> orderDetails = new ArrayList<>();
 
     @Column(nullable = false)
-    private BigDecimal totalAmount;
+    @Convert(converter = MoneyConverter.class)
+    private Money totalAmount;
 
     @Column(nullable = false)
     private String status;
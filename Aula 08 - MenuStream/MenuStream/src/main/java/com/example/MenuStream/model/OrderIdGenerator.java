@@ -0,0 +1,17 @@
+package com.example.MenuStream.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+// Mesma sequencia orders_seq (pooled, blocos de 50), mas aceita um id reservado antes do INSERT: o aceite
+// assincrono de pedidos tira o id do bloco em memoria na hora da requisicao e o grava depois
+public class OrderIdGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (object instanceof Order order && order.getReservedId() != null) {
+            return order.getReservedId();
+        }
+        return super.generate(session, object);
+    }
+}
@@ -1,29 +1,62 @@
 package com.example.MenuStream.model;
 
 import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
-import java.math.BigDecimal;
+import java.util.Date;
 
+@Data
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = @Index(name = "idx_payments_status_updated_at", columnList = "paymentStatus, updatedAt"))
 public class Payment {
+    public static final String PENDING = "PENDING";
+    public static final String APPROVED = "APPROVED";
+    public static final String DECLINED = "DECLINED";
+    public static final String FAILED = "FAILED";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Order order;
 
     @Column(nullable = false)
     private String paymentMethod;
 
     @Column(nullable = false)
-    private BigDecimal transactionAmount;
+    @Convert(converter = MoneyConverter.class)
+    private Money transactionAmount;
 
+    // PENDING ate o gateway responder; APPROVED/DECLINED sao finais, FAILED depois de esgotar as tentativas
     @Column(nullable = false)
     private String paymentStatus;
 
+    // Gateway que atende o pagamento e a referencia devolvida por ele
+    @Column
+    private String gateway;
+
+    @Column
+    private String gatewayReference;
+
+    @Column(length = 512)
+    private String failureReason;
+
+    // Chave de idempotencia enviada ao gateway: a mesma nas novas tentativas, outra a cada novo envio do cliente
+    @Column(length = 64)
+    private String chargeKey;
+
+    // Chamadas ao gateway sem resposta final (erro ou timeout)
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column
+    private Date updatedAt;
+
     // Constructors, getters and setters
 }
-
@@ -2,11 +2,15 @@ package com.example.MenuStream.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import java.math.BigDecimal;
 @Data
 @Entity
-@Table(name = "products")
+// Cache de segundo nivel (regiao "products" em application.conf)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_row_version", columnList = "rowVersion"))
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,7 +23,8 @@ public class Product {
     private String description;
 
     @Column(nullable = false)
-    private BigDecimal price;
+    @Convert(converter = MoneyConverter.class)
+    private Money price;
 
     @Column(nullable = false)
     private String category;
@@ -30,4 +35,13 @@ public class Product {
     @Column
     private String image;
 
+    // Estoque controlado pelo StockService (nulo = sem controle de estoque); com estoque, availability
+    // acompanha a quantidade. No cardapio aparece o ultimo valor gravado pelo reconciliador.
+    @Column
+    private Integer stock;
+
+    // Versao global da ultima alteracao (GET /products/changes); atribuida pelo ProductService, nula em linhas antigas
+    @Column
+    private Long rowVersion;
+
 }
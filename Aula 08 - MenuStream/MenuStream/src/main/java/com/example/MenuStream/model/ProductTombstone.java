@@ -0,0 +1,29 @@
+package com.example.MenuStream.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Registro de um produto excluido, para que GET /products/changes informe a exclusao aos quiosques
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "product_tombstones", indexes = @Index(name = "idx_product_tombstones_row_version", columnList = "rowVersion"))
+public class ProductTombstone {
+    @Id
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long rowVersion;
+
+    @Column(nullable = false)
+    private Date deletedAt;
+
+    public ProductTombstone(Long productId, Long rowVersion) {
+        this.productId = productId;
+        this.rowVersion = rowVersion;
+        this.deletedAt = new Date();
+    }
+}
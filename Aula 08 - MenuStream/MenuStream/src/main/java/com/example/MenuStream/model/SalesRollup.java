@@ -0,0 +1,40 @@
+package com.example.MenuStream.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Acumulado de vendas de uma hora em uma dimensao (total da hora, por produto ou por categoria).
+// Mantido pelo SalesRollupService; os relatorios leem so esta tabela, nunca orders/order_details.
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "sales_rollups")
+public class SalesRollup {
+
+    public enum Dimension {
+        HOUR,
+        PRODUCT,
+        CATEGORY
+    }
+
+    @EmbeddedId
+    private SalesRollupId id;
+
+    // Pedidos que contem a chave (na dimensao HOUR, todos os pedidos da hora)
+    @Column(nullable = false)
+    private long orders;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    public SalesRollup(SalesRollupId id) {
+        this.id = id;
+        this.amount = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.MenuStream.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+// Chave do rollup: dimensao + inicio da hora + valor da dimensao (id do produto, categoria ou vazio para HOUR).
+// A ordem das colunas serve as consultas dos relatorios: uma dimensao em um intervalo de horas.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class SalesRollupId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private SalesRollup.Dimension dimension;
+
+    @Column(nullable = false)
+    private Date hourStart;
+
+    @Column(nullable = false)
+    private String dimensionKey;
+}
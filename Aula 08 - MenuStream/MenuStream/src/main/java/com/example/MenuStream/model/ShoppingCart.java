@@ -3,23 +3,41 @@ package com.example.MenuStream.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
+@Data
 @Entity
 @Table(name = "shopping_carts")
 public class ShoppingCart {
+    // Sequencia em blocos (como em orders) para o write-behind do CartService gravar carrinhos em lotes
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shopping_carts_seq")
+    @SequenceGenerator(name = "shopping_carts_seq", sequenceName = "shopping_carts_seq", allocationSize = 50)
     private Long id;
 
-    @OneToOne
-    @JoinColumn(name = "customer_id", nullable = false)
+    // Um carrinho por cliente
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id", nullable = false, unique = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Customer customer;
 
-    @OneToMany(mappedBy = "shoppingCart")
+    @OneToMany(mappedBy = "shoppingCart", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
     @JsonManagedReference
-    private List<CartItem> cartItems;
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<CartItem> cartItems = new ArrayList<>();
+
+    // Ultima alteracao gravada
+    @Column
+    private Date updatedAt;
 
     // Constructors, getters and setters
 }
@@ -0,0 +1,38 @@
+package com.example.MenuStream.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Registrado em application.properties (hibernate.session.events.auto): o Hibernate cria um por sessao e avisa
+// o inicio e o fim de cada execucao JDBC; o tempo vai para a requisicao atual.
+public class JdbcTimingListener extends BaseSessionEventListener {
+
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private static void record(long start) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.jdbcTime(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.MenuStream.monitoring;
+
+import com.example.MenuStream.event.OrderEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Metricas de negocio a partir dos eventos de pedido confirmados (todos os caminhos de criacao publicam
+// ORDER_CREATED: POST /orders, lote, fila assincrona e checkout):
+//   menustream.orders{event}      pedidos por tipo de evento; rate(...[1m]) * 60 = pedidos por minuto
+//   menustream.order.lines        itens por pedido criado (media = sum / count)
+//   menustream.order.amount       valor dos pedidos criados, em reais
+@Component
+public class OrderMetrics {
+
+    private final Map<OrderEvent.Type, Counter> orders = new EnumMap<>(OrderEvent.Type.class);
+    private final DistributionSummary lines;
+    private final DistributionSummary amount;
+
+    public OrderMetrics(MeterRegistry registry) {
+        for (OrderEvent.Type type : OrderEvent.Type.values()) {
+            orders.put(type, Counter.builder("menustream.orders")
+                    .description("Confirmed order events")
+                    .tag("event", type.eventName())
+                    .register(registry));
+        }
+        lines = DistributionSummary.builder("menustream.order.lines")
+                .description("Lines per created order")
+                .baseUnit("lines")
+                .register(registry);
+        amount = DistributionSummary.builder("menustream.order.amount")
+                .description("Total amount of created orders")
+                .baseUnit("BRL")
+                .register(registry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        orders.get(event.type()).increment();
+        if (event.type() == OrderEvent.Type.ORDER_CREATED) {
+            lines.record(event.lines().size());
+            if (event.totalAmount() != null) {
+                amount.record(event.totalAmount().cents() / 100.0);
+            }
+        }
+    }
+}
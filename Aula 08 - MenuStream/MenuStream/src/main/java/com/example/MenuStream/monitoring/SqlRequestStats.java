@@ -0,0 +1,73 @@
+package com.example.MenuStream.monitoring;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Comandos SQL e tempo de JDBC da requisicao HTTP em andamento na thread atual. Aberto e fechado pelo
+// SqlTimingFilter; alimentado pelo SqlStatementInspector (comandos) e pelo JdbcTimingListener (tempo).
+// Fora de uma requisicao (tarefas agendadas, threads de pagamento) nao ha contexto e nada e contado.
+public final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private int statements;
+    private long jdbcNanos;
+    // Formato do comando -> execucoes; o mesmo formato repetido muitas vezes costuma ser um N+1
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    static SqlRequestStats begin() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    void statement(String sql) {
+        statements++;
+        shapes.merge(shape(sql), 1, Integer::sum);
+    }
+
+    void jdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long jdbcNanos() {
+        return jdbcNanos;
+    }
+
+    // Formatos executados pelo menos threshold vezes, do mais repetido para o menos
+    public Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    // Tira literais e junta listas IN de qualquer tamanho, para que "where id=1" e "where id=2" contem juntos
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (...)");
+        return SPACES.matcher(shape).replaceAll(" ").trim();
+    }
+}
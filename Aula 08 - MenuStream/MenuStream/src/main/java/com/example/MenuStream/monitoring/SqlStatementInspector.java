@@ -0,0 +1,17 @@
+package com.example.MenuStream.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Registrado em application.properties (hibernate.session_factory.statement_inspector): conta cada comando
+// preparado pelo Hibernate na requisicao atual. Um lote JDBC (batch) e preparado uma vez e conta como um comando.
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.statement(sql);
+        }
+        return sql;
+    }
+}
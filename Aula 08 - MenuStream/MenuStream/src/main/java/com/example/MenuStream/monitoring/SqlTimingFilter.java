@@ -0,0 +1,128 @@
+package com.example.MenuStream.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+
+// Orcamento de SQL por requisicao: conta os comandos e o tempo de JDBC e devolve no cabecalho
+//   Server-Timing: db;dur=<ms de JDBC>;desc="statements=<n> repeated=<formatos repetidos>"
+// (aparece na aba Network do navegador). O cabecalho vai quando a resposta comeca a ser escrita, que nas
+// respostas JSON e depois do servico terminar; nas respostas em stream (SSE, NDJSON) conta so o que veio antes.
+// Em DEBUG registra o resumo de cada requisicao e os formatos de comando repetidos repeat-threshold vezes ou
+// mais, o sinal tipico de um N+1.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlTimingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlTimingFilter.class);
+
+    @Value("${menustream.sql.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.begin();
+        TimingResponse timed = new TimingResponse(response, stats);
+        try {
+            chain.doFilter(request, timed);
+        } finally {
+            timed.stamp();
+            SqlRequestStats.end();
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlRequestStats stats) {
+        if (!log.isDebugEnabled() || stats.statements() == 0) {
+            return;
+        }
+        log.debug("{} {}: {} statements, {} ms JDBC", request.getMethod(), request.getRequestURI(),
+                stats.statements(), millis(stats.jdbcNanos()));
+        for (Map.Entry<String, Integer> shape : stats.repeated(repeatThreshold).entrySet()) {
+            log.debug("{} {}: same statement {} times (N+1?): {}", request.getMethod(), request.getRequestURI(),
+                    shape.getValue(), shape.getKey());
+        }
+    }
+
+    private String header(SqlRequestStats stats) {
+        return "db;dur=" + millis(stats.jdbcNanos()) + ";desc=\"statements=" + stats.statements()
+                + " repeated=" + stats.repeated(repeatThreshold).size() + "\"";
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    // Grava o cabecalho na primeira escrita da resposta (depois dela nao da mais) ou no fim da requisicao
+    private class TimingResponse extends HttpServletResponseWrapper {
+
+        private final SqlRequestStats stats;
+        private boolean stamped;
+
+        TimingResponse(HttpServletResponse response, SqlRequestStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void stamp() {
+            if (!stamped && !isCommitted()) {
+                addHeader(HEADER, header(stats));
+            }
+            stamped = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            stamp();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            stamp();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            stamp();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            stamp();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            stamp();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            stamp();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.MenuStream.repository;
+
+import com.example.MenuStream.DTO.OrderExportRow;
+import com.example.MenuStream.DTO.SalesRow;
+import com.example.MenuStream.model.ArchivedOrder;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Arquivamento de pedidos: copia em lote (INSERT ... SELECT) das tabelas quentes e exclusao das linhas copiadas.
+// Tudo em HQL, entao o Hibernate sabe quais tabelas mudaram e nao limpa o cache de segundo nivel inteiro.
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    @EntityGraph(ArchivedOrder.WITH_ITEMS)
+    Optional<ArchivedOrder> findWithItemsById(Long id);
+
+    // Proximo lote (keyset sobre o indice (fulfillmentDate, id)): entregues antes de "before", depois do ultimo
+    // pedido visto, sem pagamento pendente
+    @Query("select o.id, o.fulfillmentDate from Order o where o.fulfillmentDate < :before "
+            + "and (o.fulfillmentDate > :afterDate or (o.fulfillmentDate = :afterDate and o.id > :afterId)) "
+            + "and not exists (select 1 from Payment p where p.order = o and p.paymentStatus = 'PENDING') "
+            + "order by o.fulfillmentDate, o.id")
+    List<Object[]> findArchivable(@Param("before") Date before, @Param("afterDate") Date afterDate,
+                                  @Param("afterId") Long afterId, Limit limit);
+
+    @Modifying
+    @Query("insert into ArchivedOrder (id, customerId, totalAmount, status, orderDate, fulfillmentDate, archivedAt) "
+            + "select o.id, o.customer.id, o.totalAmount, o.status, o.orderDate, o.fulfillmentDate, :archivedAt "
+            + "from Order o where o.id in :ids")
+    int copyOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") Date archivedAt);
+
+    @Modifying
+    @Query("insert into ArchivedOrderDetail (id, orderId, productId, quantity) "
+            + "select d.id, d.order.id, d.product.id, d.quantity from OrderDetail d where d.order.id in :ids")
+    int copyOrderDetails(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("insert into ArchivedPayment (id, orderId, paymentMethod, transactionAmount, paymentStatus, gateway, "
+            + "gatewayReference, failureReason, chargeKey, attempts, updatedAt) "
+            + "select p.id, p.order.id, p.paymentMethod, p.transactionAmount, p.paymentStatus, p.gateway, "
+            + "p.gatewayReference, p.failureReason, p.chargeKey, p.attempts, p.updatedAt "
+            + "from Payment p where p.order.id in :ids")
+    int copyPayments(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Payment p where p.order.id in :ids")
+    int deletePayments(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from OrderDetail d where d.order.id in :ids")
+    int deleteOrderDetails(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Order o where o.id in :ids")
+    int deleteOrders(@Param("ids") Collection<Long> ids);
+
+    // Exportacao NDJSON: a mesma projecao de OrderRepository.streamForExport, sobre o indice (orderDate, id)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.MenuStream.DTO.OrderExportRow(o.id, o.customerId, o.status, o.orderDate, "
+            + "o.fulfillmentDate, o.totalAmount, d.productId, d.quantity) "
+            + "from ArchivedOrder o left join o.orderDetails d "
+            + "where o.orderDate >= :from and o.orderDate < :to order by o.orderDate, o.id")
+    Stream<OrderExportRow> streamForExport(@Param("from") Date from, @Param("to") Date to);
+
+    // Reconstrucao dos rollups de vendas: os pedidos arquivados tambem contam (mesma projecao de OrderRepository)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.MenuStream.DTO.SalesRow(o.id, o.orderDate, o.totalAmount, p.id, p.category, "
+            + "p.price, d.quantity) "
+            + "from ArchivedOrder o left join o.orderDetails d left join Product p on p.id = d.productId "
+            + "order by o.id, d.id")
+    Stream<SalesRow> streamForSalesRollup();
+}
@@ -2,10 +2,19 @@ package com.example.MenuStream.repository;
 
 import com.example.MenuStream.model.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     // Opções para encontrar itens por carrinho ou produto
+
+    // Esvazia o carrinho gravado no checkout, com um unico DELETE
+    @Modifying
+    @Query("delete from CartItem i where i.shoppingCart.id in "
+            + "(select c.id from ShoppingCart c where c.customer.id = :customerId)")
+    int deleteByCustomerId(@Param("customerId") Long customerId);
 }
 
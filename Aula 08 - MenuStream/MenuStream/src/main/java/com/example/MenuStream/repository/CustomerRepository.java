@@ -1,10 +1,24 @@
 package com.example.MenuStream.repository;
 
 import com.example.MenuStream.model.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     // Métodos de busca específicos podem ser adicionados aqui
+
+    // Valida um lote inteiro de clientes em uma unica consulta
+    @Query("select c.id from Customer c where c.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Paginacao por cursor sobre a chave primaria
+    List<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
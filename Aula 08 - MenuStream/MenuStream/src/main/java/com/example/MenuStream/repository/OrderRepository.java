@@ -1,10 +1,89 @@
 package com.example.MenuStream.repository;
 
+import com.example.MenuStream.DTO.OrderExportRow;
+import com.example.MenuStream.DTO.SalesRow;
 import com.example.MenuStream.model.Order;
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
     // Pode incluir consultas para encontrar pedidos por status ou data
+
+    // Paginacao por cursor (keyset) sobre o indice (order_date, id): o custo de qualquer pagina e o mesmo da primeira.
+    // Filtros ausentes ficam fora do SQL (nada de "? is null or ..."), e a posicao do cursor vira
+    // "order_date >= ? and (order_date > ? or id > ?)": o primeiro termo e a busca por faixa no indice e o OR so
+    // separa as linhas empatadas na data do cursor. Uso: findBy(page(...), q -> q.sortBy(PAGE_ORDER).limit(n).all())
+    Sort PAGE_ORDER = Sort.by("orderDate", "id");
+
+    static Specification<Order> page(String status, Date from, Date to, Date afterDate, Long afterId) {
+        return (root, query, cb) -> {
+            Path<Date> orderDate = root.get("orderDate");
+            List<Predicate> predicates = new ArrayList<>();
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(orderDate, from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThan(orderDate, to));
+            }
+            if (afterDate != null) {
+                predicates.add(cb.greaterThanOrEqualTo(orderDate, afterDate));
+                predicates.add(cb.or(cb.greaterThan(orderDate, afterDate),
+                        cb.greaterThan(root.get("id"), afterId)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Pedidos com itens e produtos em uma consulta; a pagina vem das consultas acima (o LIMIT nao pode ir junto
+    // com o fetch da colecao sem o Hibernate paginar em memoria)
+    @EntityGraph(Order.WITH_ITEMS)
+    List<Order> findWithItemsByIdIn(Collection<Long> ids);
+
+    @EntityGraph(Order.WITH_ITEMS)
+    Optional<Order> findWithItemsById(Long id);
+
+    // Exportacao: projecao plana pedido x item lida por cursor (so para frente) em blocos de fetchSize linhas.
+    // Nao cria entidades, entao o contexto de persistencia nao cresce durante a leitura.
+    // No MySQL o fetchSize so e respeitado com useCursorFetch=true na URL de conexao.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.MenuStream.DTO.OrderExportRow(o.id, o.customer.id, o.status, o.orderDate, "
+            + "o.fulfillmentDate, o.totalAmount, d.product.id, d.quantity) "
+            + "from Order o left join o.orderDetails d "
+            + "where o.orderDate >= :from and o.orderDate < :to order by o.orderDate, o.id")
+    Stream<OrderExportRow> streamForExport(@Param("from") Date from, @Param("to") Date to);
+
+    // Reconstrucao dos rollups de vendas: varredura completa, lida por cursor como a exportacao
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.example.MenuStream.DTO.SalesRow(o.id, o.orderDate, o.totalAmount, p.id, p.category, "
+            + "p.price, d.quantity) "
+            + "from Order o left join o.orderDetails d left join d.product p order by o.id, d.id")
+    Stream<SalesRow> streamForSalesRollup();
 }
@@ -1,10 +1,24 @@
 package com.example.MenuStream.repository;
 
 import com.example.MenuStream.model.Payment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     // Consultas para busca de pagamentos por status ou método
+
+    @Query("select p from Payment p where p.order.id = :orderId")
+    Optional<Payment> findByOrderId(@Param("orderId") Long orderId);
+
+    // Pendentes sem resposta ha algum tempo (timeout, erro do gateway ou restart da aplicacao)
+    @Query("select p from Payment p where p.paymentStatus = 'PENDING' and p.updatedAt < :before order by p.updatedAt")
+    List<Payment> findStalePending(@Param("before") Date before, Limit limit);
 }
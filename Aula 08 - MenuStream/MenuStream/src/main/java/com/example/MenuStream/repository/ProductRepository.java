@@ -1,10 +1,33 @@
 package com.example.MenuStream.repository;
 
 import com.example.MenuStream.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     // Aqui você pode adicionar consultas personalizadas, se necessário
+
+    // Paginacao por cursor sobre a chave primaria. Os ids de cada pagina ficam no cache de consultas
+    // (regiao "product-queries") e os produtos no cache de entidades; qualquer escrita em products invalida
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-queries")})
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-queries")})
+    List<Product> findByCategoryAndIdGreaterThanOrderByIdAsc(String category, Long id, Limit limit);
+
+    // Sincronizacao incremental do cardapio (GET /products/changes)
+    List<Product> findByRowVersionGreaterThanAndRowVersionLessThanEqualOrderByRowVersionAsc(Long since, Long until);
+
+    @Query("select coalesce(max(p.rowVersion), 0) from Product p")
+    long findMaxRowVersion();
 }
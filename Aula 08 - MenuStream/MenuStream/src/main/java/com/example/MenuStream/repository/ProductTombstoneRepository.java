@@ -0,0 +1,32 @@
+package com.example.MenuStream.repository;
+
+import com.example.MenuStream.model.ProductTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    List<ProductTombstone> findByRowVersionGreaterThanAndRowVersionLessThanEqual(Long since, Long until);
+
+    @Query("select coalesce(max(t.rowVersion), 0) from ProductTombstone t")
+    long findMaxRowVersion();
+
+    @Query("select coalesce(min(t.rowVersion), 0) from ProductTombstone t where t.deletedAt < :before")
+    long findMinRowVersionDeletedBefore(@Param("before") Date before);
+
+    @Query("select coalesce(max(t.rowVersion), 0) from ProductTombstone t where t.deletedAt < :before")
+    long findMaxRowVersionDeletedBefore(@Param("before") Date before);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ProductTombstone t where t.rowVersion < :version")
+    int deleteOlderThan(@Param("version") long version);
+}
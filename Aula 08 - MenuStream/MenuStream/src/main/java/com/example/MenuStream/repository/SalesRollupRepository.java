@@ -0,0 +1,25 @@
+package com.example.MenuStream.repository;
+
+import com.example.MenuStream.model.SalesRollup;
+import com.example.MenuStream.model.SalesRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollupId> {
+
+    @Query("select r from SalesRollup r where r.id.dimension = :dimension "
+            + "and r.id.hourStart >= :from and r.id.hourStart < :to")
+    List<SalesRollup> findRange(@Param("dimension") SalesRollup.Dimension dimension,
+                                @Param("from") Date from, @Param("to") Date to);
+
+    // Todas as linhas das horas informadas, para somar os deltas de um flush com uma unica consulta
+    @Query("select r from SalesRollup r where r.id.hourStart in :hours")
+    List<SalesRollup> findByHours(@Param("hours") Collection<Date> hours);
+}
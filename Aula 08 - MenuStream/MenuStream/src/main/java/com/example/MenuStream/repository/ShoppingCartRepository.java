@@ -1,9 +1,18 @@
 package com.example.MenuStream.repository;
 import com.example.MenuStream.model.ShoppingCart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
     // Métodos adicionais para gerenciar o carrinho de compras
+
+    // Carrinhos de varios clientes com os itens, em uma consulta (write-behind e restauracao do CartService)
+    @Query("select distinct c from ShoppingCart c left join fetch c.cartItems where c.customer.id in :customerIds")
+    List<ShoppingCart> findWithItemsByCustomerIds(@Param("customerIds") Collection<Long> customerIds);
 }
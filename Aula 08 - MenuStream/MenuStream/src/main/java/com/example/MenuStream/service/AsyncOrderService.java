@@ -0,0 +1,329 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.DTO.OrderStatusDTO;
+import com.example.MenuStream.event.OrderEvent;
+import com.example.MenuStream.event.SalesDelta;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.OrderRepository;
+import com.example.MenuStream.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Aceite assincrono de pedidos (POST /orders com Prefer: respond-async). Na requisicao o pedido e validado,
+// o estoque e reservado e o id sai do bloco de ids da sequencia ja em memoria; a resposta 202 sai sem esperar
+// o commit no banco. Uma unica thread grava a fila: pega tudo o que acumulou enquanto gravava o lote anterior
+// (ate max-batch pedidos) e grava em uma transacao so (group commit), entao o custo do commit e dividido entre
+// os pedidos do lote. Com a fila cheia (capacity) o aceite responde 503 e o cliente tenta de novo.
+// Durabilidade: um pedido aceito fica so em memoria ate o commit do seu lote (normalmente milissegundos);
+// se a aplicacao cair nesse intervalo ele se perde e GET /orders/{id}/status passa a responder 404.
+// O cliente que precisa de garantia consulta o status e, no 404, reenvia com o mesmo Idempotency-Key.
+@Service
+public class AsyncOrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncOrderService.class);
+
+    public static final String QUEUED = "QUEUED";
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    // Espera maxima de um long-poll em GET /orders/{id}/status
+    private static final long MAX_WAIT_SECONDS = 30;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${menustream.orders.async.enabled:true}")
+    private boolean enabled;
+
+    @Value("${menustream.orders.async.capacity:10000}")
+    private int capacity;
+
+    @Value("${menustream.orders.async.max-batch:500}")
+    private int maxBatch;
+
+    @Value("${menustream.orders.async.status-ttl:PT10M}")
+    private Duration statusTtl;
+
+    private BlockingQueue<Ticket> queue;
+    // Vagas da fila: tomada no aceite, devolvida quando o pedido e gravado ou recusado (ou o aceite e desfeito)
+    private Semaphore slots;
+    private final Map<Long, Ticket> tickets = new ConcurrentHashMap<>();
+    private final ReentrantLock writing = new ReentrantLock();
+    private BeforeExecutionGenerator orderIds;
+    private Thread writer;
+    private volatile boolean running;
+
+    private static final class Ticket {
+        private final Long orderId;
+        private final OrderDTO orderDTO;
+        private final Map<Long, Integer> quantities;
+        private final CompletableFuture<OrderStatusDTO> done = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private Ticket(Long orderId, OrderDTO orderDTO, Map<Long, Integer> quantities) {
+            this.orderId = orderId;
+            this.orderDTO = orderDTO;
+            this.quantities = quantities;
+        }
+
+        private OrderStatusDTO status() {
+            return done.isDone() ? done.join() : OrderStatusDTO.of(orderId, QUEUED, null);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new LinkedBlockingQueue<>();
+        slots = new Semaphore(capacity);
+        orderIds = (BeforeExecutionGenerator) entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .getEntityDescriptor(Order.class).getGenerator();
+        running = true;
+        writer = new Thread(this::drain, "order-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Para de aceitar e grava o que ainda esta na fila antes do contexto fechar
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(MAX_WAIT_SECONDS));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // A transacao e a do Idempotency-Key (ou uma propria): o pedido so entra na fila se ela for confirmada
+    @Transactional
+    public OrderStatusDTO accept(OrderDTO orderDTO) {
+        Map<Long, Product> products = menuProducts(orderDTO);
+        Set<Long> customers = orderDTO.getCustomerId() != null && customerRepository.existsById(orderDTO.getCustomerId())
+                ? Set.of(orderDTO.getCustomerId()) : Set.of();
+        String error = OrderIngestService.validate(orderDTO, customers, products);
+        if (error != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, error);
+        }
+        if (!running || !slots.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Order queue is full, retry later");
+        }
+
+        Ticket ticket;
+        try {
+            Map<Long, Integer> quantities = StockService.quantities(orderDTO.getOrderDetails());
+            // Devolvido pelo StockService se esta transacao for desfeita
+            stockService.reserve(quantities, products);
+            ticket = new Ticket(reserveId(), orderDTO, quantities);
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+        tickets.put(ticket.orderId, ticket);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    queue.add(ticket);
+                } else {
+                    tickets.remove(ticket.orderId);
+                    slots.release();
+                }
+            }
+        });
+        return ticket.status();
+    }
+
+    // Proximo id do bloco pooled em memoria; so vai ao banco quando o bloco de 50 acaba, pela conexao da transacao
+    private Long reserveId() {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        return (Long) orderIds.generate(session, null, null, EventType.INSERT);
+    }
+
+    // Produtos do cardapio em memoria: a validacao do aceite nao consulta a tabela de produtos
+    private Map<Long, Product> menuProducts(OrderDTO orderDTO) {
+        Map<Long, Product> products = new HashMap<>();
+        if (orderDTO.getOrderDetails() != null) {
+            for (OrderDetailDTO detail : orderDTO.getOrderDetails()) {
+                Product product = detail.getProductId() == null ? null : productService.getMenuProduct(detail.getProductId());
+                if (product != null) {
+                    products.put(product.getId(), product);
+                }
+            }
+        }
+        return products;
+    }
+
+    public OrderStatusDTO getStatus(Long orderId) {
+        Ticket ticket = tickets.get(orderId);
+        if (ticket != null) {
+            return ticket.status();
+        }
+        // Ja saiu da memoria (ou foi criado pelo caminho sincrono)
+        if (orderRepository.existsById(orderId)) {
+            return OrderStatusDTO.of(orderId, CREATED, null);
+        }
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+    }
+
+    // Long-poll: responde quando o pedido sair da fila ou depois de waitSeconds com o estado atual
+    public CompletableFuture<OrderStatusDTO> awaitStatus(Long orderId, long waitSeconds) {
+        Ticket ticket = tickets.get(orderId);
+        if (ticket == null || waitSeconds <= 0) {
+            return CompletableFuture.completedFuture(getStatus(orderId));
+        }
+        return ticket.done.copy().completeOnTimeout(ticket.status(),
+                Math.min(waitSeconds, MAX_WAIT_SECONDS), TimeUnit.SECONDS);
+    }
+
+    private void drain() {
+        List<Ticket> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Ticket first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Tudo o que chegou enquanto o lote anterior era gravado vai no mesmo commit
+                queue.drainTo(batch, maxBatch - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order writer failed on a batch of {} orders", batch.size(), e);
+                for (Ticket ticket : batch) {
+                    if (!ticket.done.isDone()) {
+                        stockService.release(ticket.quantities);
+                        complete(ticket, FAILED, e.getMessage());
+                    }
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Ticket> batch) {
+        writing.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(batch));
+            batch.forEach(ticket -> complete(ticket, CREATED, null));
+        } catch (RuntimeException e) {
+            // O lote falhou inteiro: regrava um a um para recusar so o pedido com problema
+            for (Ticket ticket : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(ticket)));
+                    complete(ticket, CREATED, null);
+                } catch (RuntimeException single) {
+                    stockService.release(ticket.quantities);
+                    complete(ticket, FAILED, single.getMessage());
+                }
+            }
+        } finally {
+            writing.unlock();
+        }
+    }
+
+    private void persist(List<Ticket> batch) {
+        Set<Long> productIds = batch.stream().flatMap(ticket -> ticket.quantities.keySet().stream())
+                .collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (Ticket ticket : batch) {
+            if (!products.keySet().containsAll(ticket.quantities.keySet())) {
+                throw new RuntimeException("Product not found");
+            }
+            Customer customer = entityManager.getReference(Customer.class, ticket.orderDTO.getCustomerId());
+            Order order = orderService.buildOrder(ticket.orderDTO, customer, products);
+            order.setReservedId(ticket.orderId);
+            entityManager.persist(order);
+            orders.add(order);
+        }
+        entityManager.flush();
+        for (Order order : orders) {
+            eventPublisher.publishEvent(OrderEvent.of(OrderEvent.Type.ORDER_CREATED, order));
+            eventPublisher.publishEvent(SalesDelta.created(order));
+        }
+        entityManager.clear();
+    }
+
+    // Libera a vaga da fila antes de avisar quem espera pelo pedido
+    private void complete(Ticket ticket, String state, String error) {
+        slots.release();
+        ticket.completedAt = System.currentTimeMillis();
+        ticket.done.complete(OrderStatusDTO.of(ticket.orderId, state, error));
+    }
+
+    // Estados finais ficam consultaveis por status-ttl; depois disso o status vem do banco
+    @Scheduled(fixedDelayString = "${menustream.orders.async.purge-interval:PT1M}")
+    public void purgeCompleted() {
+        long limit = System.currentTimeMillis() - statusTtl.toMillis();
+        tickets.values().removeIf(ticket -> ticket.done.isDone() && ticket.completedAt < limit);
+    }
+
+    // Usado nos testes para segurar o escritor e encher a fila
+    ReentrantLock writerLock() {
+        return writing;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.CacheRegionStatsDTO;
+import org.springframework.stereotype.Service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+
+// Estatisticas do cache de segundo nivel. Cada regiao e um cache JCache com monitoring.statistics ligado
+// (application.conf), que o provedor publica como MBean padrao javax.cache:type=CacheStatistics;
+// ler dali nao depende do provedor nem do Hibernate.
+@Service
+public class CacheStatisticsService {
+
+    private static final String STATISTICS = "javax.cache:type=CacheStatistics,*";
+
+    public List<CacheRegionStatsDTO> getStatistics() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            return server.queryNames(new ObjectName(STATISTICS), null).stream()
+                    .map(name -> read(server, name))
+                    .sorted(Comparator.comparing(CacheRegionStatsDTO::region))
+                    .toList();
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not read cache statistics", e);
+        }
+    }
+
+    public CacheRegionStatsDTO getStatistics(String region) {
+        return getStatistics().stream()
+                .filter(stats -> stats.region().equals(region))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static CacheRegionStatsDTO read(MBeanServer server, ObjectName name) {
+        try {
+            return new CacheRegionStatsDTO(name.getKeyProperty("Cache"),
+                    (Long) server.getAttribute(name, "CacheHits"),
+                    (Long) server.getAttribute(name, "CacheMisses"),
+                    (Float) server.getAttribute(name, "CacheHitPercentage"),
+                    (Long) server.getAttribute(name, "CachePuts"),
+                    (Long) server.getAttribute(name, "CacheRemovals"),
+                    (Long) server.getAttribute(name, "CacheEvictions"));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not read cache statistics of " + name, e);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.CartDTO;
+import com.example.MenuStream.event.CartCheckout;
+import com.example.MenuStream.model.CartItem;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.model.ShoppingCart;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.ProductRepository;
+import com.example.MenuStream.repository.ShoppingCartRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Carrinhos ativos ficam em memoria, por cliente. Cada toque (adicionar, alterar, remover) so mexe no mapa
+// do carrinho sob o lock da sua faixa e marca o cliente como pendente; um flush periodico grava todos os
+// carrinhos pendentes em lotes (varios toques no mesmo carrinho viram uma unica escrita).
+// Carrinhos parados alem do TTL saem da memoria depois de gravados e voltam do banco no proximo acesso,
+// o que tambem cobre o restart da aplicacao.
+@Service
+public class CartService {
+
+    private static final Logger log = LoggerFactory.getLogger(CartService.class);
+
+    private static final int STRIPES = 256;
+    private static final int FLUSH_BATCH = 500;
+    private static final int MAX_QUANTITY = 99;
+
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${menustream.carts.ttl:PT30M}")
+    private Duration ttl;
+
+    private final Map<Long, Cart> carts = new ConcurrentHashMap<>();
+    private final Lock[] stripes = new Lock[STRIPES];
+    // Clientes com alteracoes ainda nao gravadas
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // Estado de um carrinho; os campos mutaveis so mudam com o lock da faixa do cliente
+    private static final class Cart {
+        private final Map<Long, Integer> items = new LinkedHashMap<>();
+        // version conta as alteracoes; flushedVersion e a ultima ja confirmada no banco
+        private long version;
+        private long flushedVersion;
+        private boolean evicted;
+        private volatile long lastAccess = System.currentTimeMillis();
+    }
+
+    private record Snapshot(Map<Long, Integer> items, long version) {
+    }
+
+    public CartService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public CartDTO getCart(Long customerId) {
+        return withCart(customerId, cart -> toDTO(customerId, cart));
+    }
+
+    public CartDTO addItem(Long customerId, Long productId, Integer quantity) {
+        requireProduct(productId);
+        int added = requireQuantity(quantity);
+        return withCart(customerId, cart -> {
+            cart.items.merge(productId, added, (current, more) -> Math.min(MAX_QUANTITY, current + more));
+            changed(customerId, cart);
+            return toDTO(customerId, cart);
+        });
+    }
+
+    // Quantidade 0 remove o item
+    public CartDTO setItem(Long customerId, Long productId, Integer quantity) {
+        if (quantity != null && quantity == 0) {
+            return removeItem(customerId, productId);
+        }
+        requireProduct(productId);
+        int value = requireQuantity(quantity);
+        return withCart(customerId, cart -> {
+            cart.items.put(productId, value);
+            changed(customerId, cart);
+            return toDTO(customerId, cart);
+        });
+    }
+
+    public CartDTO removeItem(Long customerId, Long productId) {
+        return withCart(customerId, cart -> {
+            if (cart.items.remove(productId) != null) {
+                changed(customerId, cart);
+            }
+            return toDTO(customerId, cart);
+        });
+    }
+
+    public CartDTO clearCart(Long customerId) {
+        return withCart(customerId, cart -> {
+            if (!cart.items.isEmpty()) {
+                cart.items.clear();
+                changed(customerId, cart);
+            }
+            return toDTO(customerId, cart);
+        });
+    }
+
+    // Copia dos itens (produto -> quantidade) para o checkout
+    public Map<Long, Integer> getItems(Long customerId) {
+        return withCart(customerId, cart -> new LinkedHashMap<>(cart.items));
+    }
+
+    // Depois do commit do pedido: tira do carrinho o que foi comprado (itens adicionados durante o checkout ficam)
+    @TransactionalEventListener
+    public void onCartCheckout(CartCheckout checkout) {
+        withCart(checkout.customerId(), cart -> {
+            checkout.items().forEach((productId, quantity) ->
+                    cart.items.computeIfPresent(productId, (id, current) -> current > quantity ? current - quantity : null));
+            changed(checkout.customerId(), cart);
+            return null;
+        });
+    }
+
+    // Executa a acao com o carrinho travado; carrega do banco se ele nao esta em memoria
+    private <T> T withCart(Long customerId, Function<Cart, T> action) {
+        Lock lock = stripe(customerId);
+        while (true) {
+            Cart cart = carts.get(customerId);
+            if (cart == null) {
+                // Leitura fora do lock: so chega aqui um carrinho que ja foi gravado antes de sair da memoria
+                Cart loaded = load(customerId);
+                cart = carts.putIfAbsent(customerId, loaded);
+                if (cart == null) {
+                    cart = loaded;
+                }
+            }
+            lock.lock();
+            try {
+                // Removido pela expiracao entre o get e o lock: busca de novo
+                if (cart.evicted) {
+                    continue;
+                }
+                cart.lastAccess = System.currentTimeMillis();
+                return action.apply(cart);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Cart load(Long customerId) {
+        Cart cart = new Cart();
+        List<ShoppingCart> stored = shoppingCartRepository.findWithItemsByCustomerIds(List.of(customerId));
+        if (stored.isEmpty()) {
+            if (!customerRepository.existsById(customerId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found");
+            }
+            return cart;
+        }
+        for (CartItem item : stored.get(0).getCartItems()) {
+            cart.items.put(item.getProduct().getId(), item.getQuantity());
+        }
+        return cart;
+    }
+
+    private void changed(Long customerId, Cart cart) {
+        cart.version++;
+        dirty.add(customerId);
+    }
+
+    // Grava os carrinhos alterados desde o ultimo flush; se o banco falhar eles continuam pendentes (um carrinho
+    // invalido, com produto ou cliente apagado, e corrigido ou descartado em flushOne)
+    @Scheduled(fixedDelayString = "${menustream.carts.flush-interval:PT1S}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Long> pending = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long customerId = it.next();
+            it.remove();
+            pending.add(customerId);
+        }
+        for (int from = 0; from < pending.size(); from += FLUSH_BATCH) {
+            flush(pending.subList(from, Math.min(from + FLUSH_BATCH, pending.size())));
+        }
+    }
+
+    private void flush(List<Long> customerIds) {
+        Map<Long, Snapshot> snapshots = new HashMap<>();
+        for (Long customerId : customerIds) {
+            Cart cart = carts.get(customerId);
+            if (cart == null) {
+                continue;
+            }
+            Lock lock = stripe(customerId);
+            lock.lock();
+            try {
+                snapshots.put(customerId, new Snapshot(new LinkedHashMap<>(cart.items), cart.version));
+            } finally {
+                lock.unlock();
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(snapshots));
+        } catch (RuntimeException e) {
+            // O lote falhou inteiro (ex.: produto ou cliente apagado com o carrinho pendente, a chave estrangeira
+            // so estoura no commit): regrava um a um, para um carrinho com problema nao segurar os outros
+            log.warn("Cart flush of {} carts failed, retrying one by one", snapshots.size(), e);
+            snapshots.forEach(this::flushOne);
+            return;
+        }
+        snapshots.forEach(this::flushed);
+    }
+
+    // Carrinho sozinho: linhas de produtos que nao existem mais saem; o carrinho de um cliente apagado e descartado.
+    // So volta para os pendentes se falhar por outro motivo (ex.: banco fora do ar)
+    private void flushOne(Long customerId, Snapshot snapshot) {
+        Snapshot written;
+        try {
+            written = transactionTemplate.execute(status -> {
+                if (!customerRepository.existsById(customerId)) {
+                    return null;
+                }
+                Set<Long> existing = new HashSet<>();
+                productRepository.findAllById(snapshot.items().keySet()).forEach(product -> existing.add(product.getId()));
+                Map<Long, Integer> items = new LinkedHashMap<>(snapshot.items());
+                items.keySet().retainAll(existing);
+                Snapshot valid = new Snapshot(items, snapshot.version());
+                write(Map.of(customerId, valid));
+                return valid;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Cart flush failed for customer {}, keeping it pending", customerId, e);
+            dirty.add(customerId);
+            return;
+        }
+        if (written == null) {
+            log.warn("Customer {} no longer exists, dropping its cart", customerId);
+            drop(customerId);
+            return;
+        }
+        if (written.items().size() < snapshot.items().size()) {
+            Set<Long> missing = new HashSet<>(snapshot.items().keySet());
+            missing.removeAll(written.items().keySet());
+            log.warn("Products {} no longer exist, dropped from the cart of customer {}", missing, customerId);
+            withStoredCart(customerId, cart -> cart.items.keySet().removeAll(missing));
+        }
+        flushed(customerId, written);
+    }
+
+    private void flushed(Long customerId, Snapshot snapshot) {
+        withStoredCart(customerId, cart -> cart.flushedVersion = Math.max(cart.flushedVersion, snapshot.version()));
+    }
+
+    private void drop(Long customerId) {
+        withStoredCart(customerId, cart -> {
+            cart.evicted = true;
+            carts.remove(customerId, cart);
+        });
+    }
+
+    // Acao sob o lock no carrinho que esta em memoria (sem carregar do banco se ele ja saiu)
+    private void withStoredCart(Long customerId, Consumer<Cart> action) {
+        Cart cart = carts.get(customerId);
+        if (cart == null) {
+            return;
+        }
+        Lock lock = stripe(customerId);
+        lock.lock();
+        try {
+            if (!cart.evicted) {
+                action.accept(cart);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Uma consulta para os carrinhos do lote; o resto sao INSERT/UPDATE/DELETE em lotes JDBC no commit
+    private void write(Map<Long, Snapshot> snapshots) {
+        Map<Long, ShoppingCart> stored = new HashMap<>();
+        for (ShoppingCart cart : shoppingCartRepository.findWithItemsByCustomerIds(snapshots.keySet())) {
+            stored.put(cart.getCustomer().getId(), cart);
+        }
+        Date now = new Date();
+        snapshots.forEach((customerId, snapshot) -> {
+            ShoppingCart cart = stored.get(customerId);
+            if (cart == null) {
+                if (snapshot.items().isEmpty()) {
+                    return;
+                }
+                cart = new ShoppingCart();
+                cart.setCustomer(entityManager.getReference(Customer.class, customerId));
+                // Antes do persist: o INSERT leva o estado deste momento, uma mudanca depois viraria um UPDATE
+                cart.setUpdatedAt(now);
+                entityManager.persist(cart);
+            }
+            Map<Long, CartItem> current = new HashMap<>();
+            for (CartItem item : cart.getCartItems()) {
+                current.put(item.getProduct().getId(), item);
+            }
+            cart.getCartItems().removeIf(item -> !snapshot.items().containsKey(item.getProduct().getId()));
+            for (Map.Entry<Long, Integer> entry : snapshot.items().entrySet()) {
+                CartItem item = current.get(entry.getKey());
+                if (item == null) {
+                    item = new CartItem();
+                    item.setShoppingCart(cart);
+                    item.setProduct(entityManager.getReference(Product.class, entry.getKey()));
+                    cart.getCartItems().add(item);
+                }
+                item.setQuantity(entry.getValue());
+            }
+            cart.setUpdatedAt(now);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${menustream.carts.eviction-interval:PT1M}")
+    public void evictIdle() {
+        evictIdle(ttl.toMillis());
+    }
+
+    // Tira da memoria os carrinhos sem acesso ha idleMillis que ja estao gravados; os pendentes esperam o flush
+    int evictIdle(long idleMillis) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        int evicted = 0;
+        for (Map.Entry<Long, Cart> entry : carts.entrySet()) {
+            Cart cart = entry.getValue();
+            if (cart.lastAccess > cutoff) {
+                continue;
+            }
+            Lock lock = stripe(entry.getKey());
+            lock.lock();
+            try {
+                if (cart.lastAccess <= cutoff && cart.version == cart.flushedVersion) {
+                    cart.evicted = true;
+                    carts.remove(entry.getKey(), cart);
+                    evicted++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return evicted;
+    }
+
+    int activeCarts() {
+        return carts.size();
+    }
+
+    private CartDTO toDTO(Long customerId, Cart cart) {
+        List<CartDTO.Line> lines = new ArrayList<>(cart.items.size());
+        long subtotal = 0;
+        for (Map.Entry<Long, Integer> entry : cart.items.entrySet()) {
+            Product product = productService.getMenuProduct(entry.getKey());
+            if (product == null) {
+                lines.add(new CartDTO.Line(entry.getKey(), null, null, entry.getValue(), false));
+                continue;
+            }
+            lines.add(new CartDTO.Line(product.getId(), product.getName(), product.getPrice(), entry.getValue(),
+                    product.isAvailability()));
+            if (product.isAvailability()) {
+                subtotal += PricingEngine.lineCents(product.getPrice(), entry.getValue());
+            }
+        }
+        return new CartDTO(customerId, lines, Money.ofCents(subtotal));
+    }
+
+    private void requireProduct(Long productId) {
+        Product product = productId == null ? null : productService.getMenuProduct(productId);
+        if (product == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        if (!product.isAvailability()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Product not available");
+        }
+    }
+
+    private static int requireQuantity(Integer quantity) {
+        if (quantity == null || quantity <= 0 || quantity > MAX_QUANTITY) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be between 1 and " + MAX_QUANTITY);
+        }
+        return quantity;
+    }
+
+    private Lock stripe(Long customerId) {
+        return stripes[(Long.hashCode(customerId) * 0x9E3779B9 >>> 24) & (STRIPES - 1)];
+    }
+}
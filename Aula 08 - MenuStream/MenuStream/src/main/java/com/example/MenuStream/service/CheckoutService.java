@@ -0,0 +1,82 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.IdempotentResponse;
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.DTO.OrderResponseDTO;
+import com.example.MenuStream.event.CartCheckout;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CartItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+// Fecha o carrinho do cliente em um pedido. O pedido sai do estado em memoria do carrinho (o banco pode estar
+// alguns instantes atras por causa do write-behind) e e gravado como no POST /orders: uma consulta de produtos
+// e INSERTs em lote; o carrinho gravado e esvaziado com um DELETE na mesma transacao.
+@Service
+public class CheckoutService {
+
+    public static final String NEW_ORDER_STATUS = "NEW";
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public IdempotentResponse checkout(Long customerId, String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "checkout:" + customerId, HttpStatus.CREATED,
+                () -> placeOrder(customerId));
+    }
+
+    // Roda dentro da transacao aberta pelo IdempotencyService
+    private OrderResponseDTO placeOrder(Long customerId) {
+        Map<Long, Integer> items = cartService.getItems(customerId);
+        if (items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Cart is empty");
+        }
+        List<OrderDetailDTO> details = new ArrayList<>(items.size());
+        items.forEach((productId, quantity) -> {
+            Product product = productService.getMenuProduct(productId);
+            if (product == null || !product.isAvailability()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Product not available: " + productId);
+            }
+            OrderDetailDTO detail = new OrderDetailDTO();
+            detail.setProductId(productId);
+            detail.setQuantity(quantity);
+            details.add(detail);
+        });
+
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customerId);
+        orderDTO.setStatus(NEW_ORDER_STATUS);
+        orderDTO.setOrderDate(new Date());
+        orderDTO.setOrderDetails(details);
+        Order order = orderService.saveOrder(orderDTO);
+
+        cartItemRepository.deleteByCustomerId(customerId);
+        eventPublisher.publishEvent(new CartCheckout(customerId, order.getId(), items));
+        return OrderResponseDTO.of(order);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.MenuStream.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Codifica a posicao da ultima linha de uma pagina em um token opaco para o cliente
+final class Cursors {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    private Cursors() {
+    }
+
+    static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    static String encode(long... keys) {
+        StringBuilder token = new StringBuilder();
+        for (long key : keys) {
+            if (!token.isEmpty()) {
+                token.append(':');
+            }
+            token.append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long[] decode(String cursor, int keys) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != keys) {
+                throw new IllegalArgumentException();
+            }
+            long[] values = new long[keys];
+            for (int i = 0; i < keys; i++) {
+                values[i] = Long.parseLong(parts[i]);
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
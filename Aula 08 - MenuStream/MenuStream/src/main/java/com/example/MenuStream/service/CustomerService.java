@@ -1,8 +1,10 @@
 package com.example.MenuStream.service;
 
+import com.example.MenuStream.DTO.CursorPage;
 import com.example.MenuStream.model.Customer;
 import com.example.MenuStream.repository.CustomerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import java.util.List;
 
@@ -20,8 +22,15 @@ public class CustomerService {
         return customerRepository.findById(id).orElseThrow(() -> new RuntimeException("Customer not found"));
     }
 
-    public List<Customer> getAllCustomers() {
-        return customerRepository.findAll();
+    public CursorPage<Customer> getCustomers(String cursor, Integer size) {
+        int pageSize = Cursors.pageSize(size);
+        long afterId = cursor == null ? 0L : Cursors.decode(cursor, 1)[0];
+        List<Customer> customers = customerRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        if (customers.size() <= pageSize) {
+            return new CursorPage<>(customers, null);
+        }
+        List<Customer> page = customers.subList(0, pageSize);
+        return new CursorPage<>(page, Cursors.encode(page.get(pageSize - 1).getId()));
     }
 
     public Customer updateCustomer(Long id, Customer customerDetails) {
@@ -0,0 +1,229 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.IdempotentResponse;
+import com.example.MenuStream.model.IdempotencyRecord;
+import com.example.MenuStream.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Idempotency-Key para POSTs que criam pedidos. A primeira requisicao com uma chave faz o trabalho e grava a
+// resposta na tabela idempotency_keys na mesma transacao; as repeticoes recebem a resposta gravada.
+// Repeticoes simultaneas na mesma instancia esperam a primeira terminar (um unico pedido); entre instancias,
+// a chave primaria da tabela faz a segunda transacao falhar e devolver a resposta da primeira.
+// As respostas recentes ficam tambem em memoria, limitadas em quantidade e com a mesma validade da tabela.
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${menustream.idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${menustream.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${menustream.idempotency.wait-timeout:PT30S}")
+    private Duration waitTimeout;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Chaves na ordem de chegada; como a validade e a mesma para todas, tambem e a ordem de expiracao
+    private final Queue<String> arrival = new ConcurrentLinkedQueue<>();
+
+    private record Entry(String fingerprint, long expiresAt, CompletableFuture<IdempotentResponse> response) {
+    }
+
+    // Executa work em uma transacao e devolve a resposta serializada; com key, no maximo uma vez por chave
+    public IdempotentResponse execute(String key, String fingerprint, HttpStatus status, Supplier<Object> work) {
+        if (key == null) {
+            return transactionTemplate.execute(tx -> new IdempotentResponse(status.value(), serialize(work.get()), false));
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key");
+        }
+
+        long now = System.currentTimeMillis();
+        Entry mine = new Entry(fingerprint, now + ttl.toMillis(), new CompletableFuture<>());
+        Entry existing = entries.compute(key, (k, current) ->
+                current == null || current.expiresAt() <= now ? mine : current);
+        if (existing != mine) {
+            return replay(existing, fingerprint);
+        }
+        arrival.add(key);
+        trim();
+
+        try {
+            IdempotentResponse response = stored(key, fingerprint);
+            if (response == null) {
+                response = run(key, fingerprint, status, work, mine.expiresAt());
+            }
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // Falhas nao ficam gravadas: a proxima tentativa com a mesma chave executa de novo
+            entries.remove(key, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private IdempotentResponse run(String key, String fingerprint, HttpStatus status, Supplier<Object> work,
+                                   long expiresAt) {
+        try {
+            return transactionTemplate.execute(tx -> {
+                // Linha vencida que o purgeExpired ainda nao apagou: sai antes do INSERT, senao a chave duplicada
+                // viraria erro em vez de uma execucao nova
+                idempotencyRecordRepository.deleteIfExpired(key, new Date());
+                byte[] body = serialize(work.get());
+                IdempotencyRecord record = new IdempotencyRecord();
+                record.setIdempotencyKey(key);
+                record.setFingerprint(fingerprint);
+                record.setStatus(status.value());
+                record.setBody(body);
+                record.setCreatedAt(new Date());
+                record.setExpiresAt(new Date(expiresAt));
+                entityManager.persist(record);
+                // Outra instancia com a mesma chave: o INSERT espera o commit dela e falha com chave duplicada
+                entityManager.flush();
+                return new IdempotentResponse(status.value(), body, false);
+            });
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            IdempotentResponse response = stored(key, fingerprint);
+            if (response == null) {
+                throw e;
+            }
+            return response;
+        }
+    }
+
+    // Resposta ja gravada na tabela (por esta ou outra instancia, inclusive antes de um restart)
+    private IdempotentResponse stored(String key, String fingerprint) {
+        return idempotencyRecordRepository.findById(key)
+                .filter(record -> record.getExpiresAt().getTime() > System.currentTimeMillis())
+                .map(record -> {
+                    checkFingerprint(record.getFingerprint(), fingerprint);
+                    return new IdempotentResponse(record.getStatus(), record.getBody(), true);
+                })
+                .orElse(null);
+    }
+
+    private IdempotentResponse replay(Entry entry, String fingerprint) {
+        checkFingerprint(entry.fingerprint(), fingerprint);
+        try {
+            IdempotentResponse response = entry.response().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            return new IdempotentResponse(response.status(), response.body(), true);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        }
+    }
+
+    private static void checkFingerprint(String stored, String fingerprint) {
+        if (!stored.equals(fingerprint)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+    }
+
+    // Acima do limite, as chaves mais antigas ja respondidas saem da memoria (continuam na tabela)
+    private void trim() {
+        while (entries.size() > maxEntries) {
+            String oldest = arrival.poll();
+            if (oldest == null) {
+                return;
+            }
+            entries.computeIfPresent(oldest, (k, entry) -> entry.response().isDone() ? null : entry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${menustream.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        for (String key; (key = arrival.peek()) != null; ) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() > now) {
+                break;
+            }
+            arrival.poll();
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+        }
+        int deleted = idempotencyRecordRepository.deleteExpired(new Date(now));
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    // Resumo de uma requisicao para compor o fingerprint
+    public String digest(Object request) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    // Simula um restart: esquece as respostas em memoria (a tabela continua valendo)
+    void clearMemory() {
+        entries.clear();
+        arrival.clear();
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.MenuStream.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gateway local para desenvolvimento e testes: responde depois de uma latencia simulada, com recusas e erros
+// aleatorios nas taxas configuradas. A espera e um agendamento, nao uma thread parada, como um cliente HTTP
+// assincrono. Valores "magicos" (centavos) dao respostas deterministicas: ,13 recusa, ,99 nunca responde.
+// Repete a resposta final para a mesma chave de cobranca, como um gateway real com chave de idempotencia.
+@Component
+public class LocalPaymentGateway implements PaymentGateway {
+
+    public static final String NAME = "local";
+
+    @Value("${menustream.payments.local.latency:PT0.2S}")
+    private Duration latency;
+
+    @Value("${menustream.payments.local.decline-rate:0.05}")
+    private double declineRate;
+
+    @Value("${menustream.payments.local.error-rate:0.02}")
+    private double errorRate;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "local-payment-gateway");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Result> settled = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<Result> charge(Charge charge) {
+        CompletableFuture<Result> response = new CompletableFuture<>();
+        long cents = Math.floorMod(charge.amount().cents(), 100);
+        if (cents == 99) {
+            // Sem resposta: quem chama precisa do proprio timeout
+            return response;
+        }
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        long jitter = latency.toMillis() / 2;
+        long delay = latency.toMillis() + (jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : 0);
+        timer.schedule(() -> {
+            inFlight.decrementAndGet();
+            Result previous = settled.get(charge.key());
+            if (previous != null) {
+                response.complete(previous);
+            } else if (cents != 13 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                response.completeExceptionally(new IllegalStateException("Gateway unavailable"));
+            } else {
+                boolean approved = cents != 13 && ThreadLocalRandom.current().nextDouble() >= declineRate;
+                Result result = new Result(approved, "local-" + UUID.randomUUID(), approved ? null : "Card declined");
+                response.complete(settled.merge(charge.key(), result, (first, second) -> first));
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        return response;
+    }
+
+    // Maior numero de cobrancas em andamento ao mesmo tempo (usado nos testes)
+    int peakInFlight() {
+        return peakInFlight.get();
+    }
+
+    void resetPeak() {
+        peakInFlight.set(inFlight.get());
+    }
+
+    @PreDestroy
+    void stop() {
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+// Cardapio pronto para envio: copias dos produtos (fora de qualquer sessao JPA) em ordem de id, e o JSON ja
+// serializado (e sua versao gzip). E imutavel; o ProductService troca a instancia inteira a cada alteracao de
+// produto, aplicando so o produto alterado. O JSON e gerado na primeira leitura de cada versao, nao em cada escrita.
+// productsById atende as consultas por id feitas a cada toque no carrinho sem percorrer a lista.
+public final class MenuSnapshot {
+
+    private final long version;
+    private final List<Product> products;
+    private final Map<Long, Product> productsById;
+    private final ObjectMapper objectMapper;
+    private volatile Body body;
+
+    private record Body(String etag, byte[] json, byte[] gzip) {
+    }
+
+    private MenuSnapshot(long version, SortedMap<Long, Product> productsById, ObjectMapper objectMapper) {
+        this.version = version;
+        this.products = List.copyOf(productsById.values());
+        this.productsById = Collections.unmodifiableMap(productsById);
+        this.objectMapper = objectMapper;
+    }
+
+    // Cardapio inteiro, a partir dos produtos lidos do banco
+    static MenuSnapshot of(long version, Collection<Product> products, ObjectMapper objectMapper) {
+        SortedMap<Long, Product> byId = new TreeMap<>();
+        products.forEach(product -> byId.put(product.getId(), detach(product)));
+        return new MenuSnapshot(version, byId, objectMapper);
+    }
+
+    // Nova versao com o produto incluido ou substituido
+    MenuSnapshot with(long version, Product product) {
+        SortedMap<Long, Product> byId = new TreeMap<>(productsById);
+        byId.put(product.getId(), detach(product));
+        return new MenuSnapshot(version, byId, objectMapper);
+    }
+
+    // Nova versao sem o produto
+    MenuSnapshot without(long version, Long id) {
+        SortedMap<Long, Product> byId = new TreeMap<>(productsById);
+        byId.remove(id);
+        return new MenuSnapshot(version, byId, objectMapper);
+    }
+
+    // Copia campo a campo: a entidade recebida pode continuar presa a uma sessao (ou nas maos de quem chamou)
+    static Product detach(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setPrice(product.getPrice());
+        copy.setCategory(product.getCategory());
+        copy.setAvailability(product.isAvailability());
+        copy.setImage(product.getImage());
+        copy.setStock(product.getStock());
+        copy.setRowVersion(product.getRowVersion());
+        return copy;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public List<Product> products() {
+        return products;
+    }
+
+    public Map<Long, Product> productsById() {
+        return productsById;
+    }
+
+    public String etag() {
+        return body().etag();
+    }
+
+    public byte[] json() {
+        return body().json();
+    }
+
+    public byte[] gzip() {
+        return body().gzip();
+    }
+
+    // If-None-Match pode trazer varias tags ou "*"; a comparacao fraca (W/) e a permitida pela RFC 9110
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String etag = etag();
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Body body() {
+        Body current = body;
+        return current != null ? current : serialize();
+    }
+
+    // Uma vez por versao, na primeira leitura; escritas seguidas sem leitura no meio nao serializam nada
+    private synchronized Body serialize() {
+        if (body != null) {
+            return body;
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(products);
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write(json);
+            }
+            // ETag forte: versao + hash do conteudo, para nao colidir com tags antigas depois de um restart
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + version + "-" + HexFormat.of().formatHex(hash, 0, 8) + "\"";
+            body = new Body(etag, json, gzip.toByteArray());
+            return body;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not build menu snapshot", e);
+        }
+    }
+}
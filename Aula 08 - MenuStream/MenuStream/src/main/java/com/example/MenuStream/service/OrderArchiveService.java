@@ -0,0 +1,171 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.model.ArchivedOrder;
+import com.example.MenuStream.model.ArchivedOrderDetail;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.OrderDetail;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.ArchivedOrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Arquivamento de pedidos: os entregues ha mais de min-age saem de orders/order_details/payments para as
+// tabelas *_archive, para as tabelas quentes (e seus indices) ficarem do tamanho do movimento recente.
+// Cada lote de batch-size pedidos e uma transacao curta (copia + exclusao), entao nenhum lock fica preso e um
+// pedido nunca fica nas duas tabelas nem em nenhuma. Nao ha estado a retomar: o que ja foi movido saiu das
+// tabelas quentes, e a proxima rodada (ou um restart) continua do que sobrou. Entre os lotes o job espera
+// "pause" e para depois de max-batches, para nao competir com o movimento. Pedidos com pagamento PENDING ficam.
+// As leituras de um pedido (getOrderById/getOrderResponse) caem no arquivo quando ele nao esta mais em orders.
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${menustream.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${menustream.archive.min-age:P30D}")
+    private Duration minAge;
+
+    @Value("${menustream.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${menustream.archive.pause:PT0.2S}")
+    private Duration pause;
+
+    @Value("${menustream.archive.max-batches:200}")
+    private int maxBatches;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(fixedDelayString = "${menustream.archive.interval:PT1H}")
+    public void archive() {
+        if (enabled) {
+            archive(new Date(System.currentTimeMillis() - minAge.toMillis()));
+        }
+    }
+
+    // Move os pedidos entregues antes de "before"; devolve quantos foram movidos nesta rodada
+    public long archive(Date before) {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long moved = 0;
+            // Posicao no indice (fulfillmentDate, id); so avanca sobre os pedidos que ficaram (pagamento pendente)
+            Date afterDate = new Date(0);
+            long afterId = 0;
+            for (int batch = 0; batch < maxBatches; batch++) {
+                Date fromDate = afterDate;
+                long fromId = afterId;
+                List<Object[]> next = transactionTemplate.execute(status -> {
+                    List<Object[]> rows = archivedOrderRepository.findArchivable(before, fromDate, fromId,
+                            Limit.of(batchSize));
+                    if (!rows.isEmpty()) {
+                        move(rows.stream().map(row -> (Long) row[0]).toList());
+                    }
+                    return rows;
+                });
+                if (next.isEmpty()) {
+                    break;
+                }
+                moved += next.size();
+                Object[] last = next.get(next.size() - 1);
+                afterId = (Long) last[0];
+                afterDate = (Date) last[1];
+                if (next.size() < batchSize || !pause()) {
+                    break;
+                }
+            }
+            if (moved > 0) {
+                log.info("Archived {} orders fulfilled before {}", moved, before);
+            }
+            return moved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Filhos antes dos pais nas exclusoes (chaves estrangeiras de payments e order_details)
+    private void move(List<Long> ids) {
+        Date now = new Date();
+        archivedOrderRepository.copyOrders(ids, now);
+        archivedOrderRepository.copyOrderDetails(ids);
+        archivedOrderRepository.copyPayments(ids);
+        archivedOrderRepository.deletePayments(ids);
+        archivedOrderRepository.deleteOrderDetails(ids);
+        archivedOrderRepository.deleteOrders(ids);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public boolean isArchived(Long id) {
+        return archivedOrderRepository.existsById(id);
+    }
+
+    // Pedido arquivado como um Order desanexado, so para leitura (produtos do cardapio em memoria; do cliente
+    // so o id, como nas leituras de orders)
+    @Transactional(readOnly = true)
+    public Optional<Order> findArchivedOrder(Long id) {
+        return archivedOrderRepository.findWithItemsById(id).map(this::toOrder);
+    }
+
+    private Order toOrder(ArchivedOrder archived) {
+        Order order = new Order();
+        order.setId(archived.getId());
+        Customer customer = new Customer();
+        customer.setId(archived.getCustomerId());
+        order.setCustomer(customer);
+        order.setTotalAmount(archived.getTotalAmount());
+        order.setStatus(archived.getStatus());
+        order.setOrderDate(archived.getOrderDate());
+        order.setFulfillmentDate(archived.getFulfillmentDate());
+        for (ArchivedOrderDetail archivedDetail : archived.getOrderDetails()) {
+            OrderDetail detail = new OrderDetail();
+            detail.setId(archivedDetail.getId());
+            detail.setProduct(product(archivedDetail.getProductId()));
+            detail.setQuantity(archivedDetail.getQuantity());
+            order.addOrderDetail(detail);
+        }
+        return order;
+    }
+
+    // Produto excluido depois do arquivamento: so o id
+    private Product product(Long id) {
+        Product product = productService.getMenuProduct(id);
+        if (product == null) {
+            product = new Product();
+            product.setId(id);
+        }
+        return product;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.DTO.OrderExportDTO;
+import com.example.MenuStream.DTO.OrderExportRow;
+import com.example.MenuStream.repository.ArchivedOrderRepository;
+import com.example.MenuStream.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Exporta pedidos em NDJSON direto do cursor do banco: cada pedido e escrito assim que suas linhas
+// terminam de chegar, entao o uso de memoria nao depende da quantidade exportada.
+// Primeiro vem os pedidos das tabelas quentes e depois os do arquivo (orders_archive) no mesmo intervalo,
+// cada parte em ordem de (orderDate, id); os dois cursores rodam na mesma transacao de leitura.
+@Service
+public class OrderExportService {
+
+    // A cada quantos pedidos a saida e enviada ao cliente
+    private static final int FLUSH_EVERY = 100;
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportOrders(Date from, Date to, boolean includeArchived, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Cada pedido termina com '\n' (NDJSON) no lugar do separador padrao entre valores raiz
+        generator.setRootValueSeparator(null);
+
+        long written;
+        try (Stream<OrderExportRow> rows = orderRepository.streamForExport(from, to)) {
+            written = writeOrders(generator, rows, 0);
+        }
+        if (includeArchived) {
+            try (Stream<OrderExportRow> rows = archivedOrderRepository.streamForExport(from, to)) {
+                writeOrders(generator, rows, written);
+            }
+        }
+        generator.flush();
+    }
+
+    // Escreve os pedidos de um cursor; "written" conta os pedidos ja enviados, para espacar os flushes
+    private long writeOrders(JsonGenerator generator, Stream<OrderExportRow> rows, long written) throws IOException {
+        Iterator<OrderExportRow> iterator = rows.iterator();
+        OrderExportRow current = null;
+        List<OrderDetailDTO> details = new ArrayList<>();
+
+        while (iterator.hasNext()) {
+            OrderExportRow row = iterator.next();
+            // As linhas chegam ordenadas por pedido: ao mudar de pedido o anterior esta completo
+            if (current != null && !current.orderId().equals(row.orderId())) {
+                write(generator, current, details);
+                details = new ArrayList<>();
+                if (++written == 1 || written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            current = row;
+            if (row.productId() != null) {
+                OrderDetailDTO detail = new OrderDetailDTO();
+                detail.setProductId(row.productId());
+                detail.setQuantity(row.quantity());
+                details.add(detail);
+            }
+        }
+        if (current != null) {
+            write(generator, current, details);
+            written++;
+        }
+        return written;
+    }
+
+    private void write(JsonGenerator generator, OrderExportRow order, List<OrderDetailDTO> details) throws IOException {
+        generator.writeObject(new OrderExportDTO(order.orderId(), order.customerId(), order.status(), order.orderDate(),
+                order.fulfillmentDate(), order.totalAmount(), details));
+        generator.writeRaw('\n');
+    }
+}
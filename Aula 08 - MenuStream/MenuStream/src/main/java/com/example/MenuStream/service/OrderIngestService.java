@@ -0,0 +1,175 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.OrderBatchResponse;
+import com.example.MenuStream.DTO.OrderBatchResult;
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.event.OrderEvent;
+import com.example.MenuStream.event.SalesDelta;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Ingestao em massa de pedidos (POST /orders/batch): os terminais offline reenviam centenas de pedidos de uma vez.
+// O corpo e lido de forma incremental e cada bloco de chunk-size pedidos e validado com consultas por conjunto
+// e gravado em uma transacao propria, entao uma falha afeta no maximo o seu bloco e nunca o lote inteiro.
+@Service
+public class OrderIngestService {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private StockService stockService;
+
+    @Value("${menustream.orders.batch.chunk-size:500}")
+    private int chunkSize;
+
+    // Aceita um array JSON ou pedidos separados por quebra de linha (NDJSON). Um trecho mal formado encerra a
+    // leitura: os pedidos anteriores sao gravados normalmente e a posicao do erro volta recusada; o resto do corpo
+    // nao e lido, porque depois de um erro de sintaxe nao da para saber onde comeca o proximo pedido
+    public OrderBatchResponse ingest(InputStream body) throws IOException {
+        List<OrderBatchResult> results = new ArrayList<>();
+        List<OrderDTO> chunk = new ArrayList<>(chunkSize);
+        String malformed = null;
+        try (MappingIterator<OrderDTO> orders = objectMapper.readerFor(OrderDTO.class).readValues(body)) {
+            // hasNextValue/nextValue em vez de hasNext/next: estes embrulham erros de sintaxe (JSON truncado,
+            // "{]") em RuntimeException comum, e o bloco pendente se perderia
+            while (orders.hasNextValue()) {
+                chunk.add(orders.nextValue());
+                if (chunk.size() == chunkSize) {
+                    results.addAll(ingestChunk(chunk, results.size()));
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            malformed = "Malformed JSON";
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(ingestChunk(chunk, results.size()));
+        }
+        if (malformed != null) {
+            results.add(OrderBatchResult.rejected(results.size(), malformed));
+        }
+
+        int created = (int) results.stream().filter(result -> result.orderId() != null).count();
+        return new OrderBatchResponse(results.size(), created, results.size() - created, results);
+    }
+
+    private List<OrderBatchResult> ingestChunk(List<OrderDTO> chunk, int offset) {
+        Set<Long> customerIds = chunk.stream().map(OrderDTO::getCustomerId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> productIds = chunk.stream().filter(order -> order.getOrderDetails() != null)
+                .flatMap(order -> order.getOrderDetails().stream()).map(OrderDetailDTO::getProductId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+
+        Set<Long> customers = customerIds.isEmpty() ? Set.of() : customerRepository.findExistingIds(customerIds);
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        OrderBatchResult[] results = new OrderBatchResult[chunk.size()];
+        List<Integer> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String error = validate(chunk.get(i), customers, products);
+            if (error == null) {
+                valid.add(i);
+            } else {
+                results[i] = OrderBatchResult.rejected(offset + i, error);
+            }
+        }
+
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> persist(chunk, valid, products));
+            for (int i = 0; i < valid.size(); i++) {
+                results[valid.get(i)] = OrderBatchResult.created(offset + valid.get(i), ids.get(i));
+            }
+        } catch (RuntimeException e) {
+            // O bloco falhou inteiro (ex.: violacao de restricao): regrava um a um para isolar o pedido com problema
+            for (int i : valid) {
+                try {
+                    List<Long> ids = transactionTemplate.execute(status -> persist(chunk, List.of(i), products));
+                    results[i] = OrderBatchResult.created(offset + i, ids.get(0));
+                } catch (RuntimeException single) {
+                    results[i] = OrderBatchResult.failed(offset + i, single.getMessage());
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    private List<Long> persist(List<OrderDTO> chunk, List<Integer> indexes, Map<Long, Product> products) {
+        List<Order> orders = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            OrderDTO orderDTO = chunk.get(i);
+            Customer customer = entityManager.getReference(Customer.class, orderDTO.getCustomerId());
+            // Sem estoque: o bloco falha e e regravado pedido a pedido, isolando o pedido recusado
+            stockService.reserve(StockService.quantities(orderDTO.getOrderDetails()), products);
+            Order order = orderService.buildOrder(orderDTO, customer, products);
+            entityManager.persist(order);
+            orders.add(order);
+        }
+        // Grava o bloco em lotes JDBC e libera o contexto de persistencia para o proximo bloco
+        entityManager.flush();
+        // Entregues apenas se o bloco for confirmado
+        for (Order order : orders) {
+            eventPublisher.publishEvent(OrderEvent.of(OrderEvent.Type.ORDER_CREATED, order));
+            eventPublisher.publishEvent(SalesDelta.created(order));
+        }
+        entityManager.clear();
+        return orders.stream().map(Order::getId).toList();
+    }
+
+    // Motivo da recusa, ou null se o pedido e valido; tambem usado no aceite assincrono de POST /orders
+    static String validate(OrderDTO order, Set<Long> customers, Map<Long, Product> products) {
+        if (order.getCustomerId() == null || !customers.contains(order.getCustomerId())) {
+            return "Customer not found";
+        }
+        if (order.getStatus() == null || order.getOrderDate() == null) {
+            return "Status and order date are required";
+        }
+        if (order.getOrderDetails() == null || order.getOrderDetails().isEmpty()) {
+            return "Order has no items";
+        }
+        for (OrderDetailDTO detail : order.getOrderDetails()) {
+            if (detail.getProductId() == null || !products.containsKey(detail.getProductId())) {
+                return "Product not found";
+            }
+            if (detail.getQuantity() == null || detail.getQuantity() <= 0) {
+                return "Invalid quantity";
+            }
+        }
+        return null;
+    }
+}
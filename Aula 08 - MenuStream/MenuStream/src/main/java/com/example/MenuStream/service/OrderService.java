@@ -1,19 +1,39 @@
 package com.example.MenuStream.service;
 
+import com.example.MenuStream.DTO.CursorPage;
 import com.example.MenuStream.DTO.OrderDTO;
 import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.DTO.OrderResponseDTO;
+import com.example.MenuStream.event.OrderEvent;
+import com.example.MenuStream.event.SalesDelta;
 import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
 import com.example.MenuStream.model.Order;
 import com.example.MenuStream.model.OrderDetail;
 import com.example.MenuStream.model.Product;
 import com.example.MenuStream.repository.CustomerRepository;
 import com.example.MenuStream.repository.OrderRepository;
-import com.example.MenuStream.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.math.BigDecimal;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
@@ -23,12 +43,38 @@ public class OrderService {
     @Autowired
     private CustomerRepository customerRepository;
     @Autowired
-    private ProductRepository productRepository;
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+    @PersistenceContext
+    private EntityManager entityManager;
 
+    @Transactional
     public Order saveOrder(OrderDTO orderDTO) {
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        // Cliente vem do cache de segundo nivel (regiao "customers"); so o primeiro pedido dele vai ao banco.
+        // Conferido antes do flush para que outras violacoes de integridade nao virem "Customer not found"
         Customer customer = customerRepository.findById(orderDTO.getCustomerId())
-                .orElseThrow(() -> new RuntimeException("Customer not found"));
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found"));
+        // Quantidades conferidas (400) antes de qualquer leitura de produto ou reserva
+        Map<Long, Integer> quantities = StockService.quantities(orderDTO.getOrderDetails());
+        Map<Long, Product> products = findProducts(
+                orderDTO.getOrderDetails().stream().map(OrderDetailDTO::getProductId).collect(Collectors.toSet()));
+        // Baixa no estoque em memoria (sem lock de linha); volta sozinha se a transacao for desfeita
+        stockService.reserve(quantities, products);
+        Order order = buildOrder(orderDTO, customer, products);
+
+        // O pedido e seus itens vao para o banco em lotes (hibernate.jdbc.batch_size)
+        order = orderRepository.saveAndFlush(order);
+        eventPublisher.publishEvent(OrderEvent.of(OrderEvent.Type.ORDER_CREATED, order));
+        eventPublisher.publishEvent(SalesDelta.created(order));
+        return order;
+    }
+
+    // Monta o pedido a partir de produtos ja carregados, sem nenhum acesso ao banco
+    public Order buildOrder(OrderDTO orderDTO, Customer customer, Map<Long, Product> products) {
+        long subtotal = 0;
 
         Order order = new Order();
         order.setCustomer(customer);
@@ -37,63 +83,186 @@ public class OrderService {
         order.setFulfillmentDate(orderDTO.getFulfillmentDate());
 
         for (OrderDetailDTO detail : orderDTO.getOrderDetails()) {
-            Product product = productRepository.findById(detail.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            Product product = products.get(detail.getProductId());
 
             OrderDetail orderDetail = new OrderDetail();
             orderDetail.setProduct(product);
             orderDetail.setQuantity(detail.getQuantity());
             order.addOrderDetail(orderDetail);
 
-            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(detail.getQuantity()));
-            totalAmount = totalAmount.add(itemTotal);
+            subtotal = Math.addExact(subtotal, PricingEngine.lineCents(product.getPrice(), detail.getQuantity()));
         }
 
-        //Acrescentando aqueles 10%
-        order.setTotalAmount(totalAmount.multiply(BigDecimal.valueOf(1.1)));
+        //Acrescentando aqueles 10% (em centavos, arredondado pelo PricingEngine)
+        order.setTotalAmount(PricingEngine.orderTotal(subtotal));
+        return order;
+    }
 
-        return orderRepository.save(order);
+    // Busca os produtos do pedido primeiro no cache de segundo nivel; os que faltam vem em uma unica consulta (IN)
+    private Map<Long, Product> findProducts(Set<Long> ids) {
+        Map<Long, Product> products = entityManager.unwrap(Session.class).byMultipleIds(Product.class)
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(false)
+                .multiLoad(List.copyOf(ids)).stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (products.size() != ids.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        return products;
     }
 
+    // Pedidos antigos ja podem ter ido para o arquivo (OrderArchiveService): de la vem uma copia so de leitura
     public Order getOrderById(Long id) {
-        return orderRepository.findById(id).orElseThrow(() -> new RuntimeException("Order not found"));
+        return orderRepository.findById(id)
+                .or(() -> orderArchiveService.findArchivedOrder(id))
+                .orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    // Leitura para a API: uma consulta (pedido + itens + produtos); se nao esta em orders, procura no arquivo
+    @Transactional(readOnly = true)
+    public OrderResponseDTO getOrderResponse(Long id) {
+        return orderRepository.findWithItemsById(id)
+                .or(() -> orderArchiveService.findArchivedOrder(id))
+                .map(OrderResponseDTO::of)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
-    public Order updateOrder(Long id, OrderDTO orderDTO) {
+    // Pagina por (orderDate, id); filtros opcionais por status e intervalo [from, to).
+    // Duas consultas por pagina, qualquer que seja o tamanho: os pedidos da pagina e depois itens e produtos deles
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponseDTO> getOrders(String status, Date from, Date to, String cursor, Integer size) {
+        int pageSize = Cursors.pageSize(size);
+        Date afterDate = null;
+        Long afterId = null;
+        if (cursor != null) {
+            long[] after = Cursors.decode(cursor, 2);
+            afterDate = new Date(after[0]);
+            afterId = after[1];
+        }
+        List<Order> orders = orderRepository.findBy(OrderRepository.page(status, from, to, afterDate, afterId),
+                query -> query.sortBy(OrderRepository.PAGE_ORDER).limit(pageSize + 1).all());
+        List<Order> page = orders.size() <= pageSize ? orders : orders.subList(0, pageSize);
+        if (!page.isEmpty()) {
+            // Mesmo contexto de persistencia: inicializa itens e produtos dos pedidos ja carregados
+            orderRepository.findWithItemsByIdIn(page.stream().map(Order::getId).toList());
+        }
+        List<OrderResponseDTO> items = page.stream().map(OrderResponseDTO::of).toList();
+        if (orders.size() <= pageSize) {
+            return new CursorPage<>(items, null);
+        }
+        Order last = page.get(pageSize - 1);
+        return new CursorPage<>(items, Cursors.encode(last.getOrderDate().getTime(), last.getId()));
+    }
 
-        Order order = getOrderById(id);
-        Customer customer = customerRepository.findById(orderDTO.getCustomerId())
-                .orElseThrow(() -> new RuntimeException("Customer not found"));
+    // Atualizacao por diferenca: os itens recebidos sao casados por produto com os que o pedido ja tem. So as
+    // quantidades alteradas viram UPDATE; os itens retirados saem num lote de DELETE (orphanRemoval) e os novos
+    // entram num lote de INSERT, com os produtos novos buscados como no saveOrder. O total e recalculado em
+    // memoria durante a comparacao (o totalAmount do DTO e ignorado). Os comandos crescem com a diferenca, nao
+    // com o tamanho do pedido.
+    @Transactional
+    public Order updateOrder(Long id, OrderDTO orderDTO) {
 
-        order.setCustomer(customer);
-        order.setTotalAmount(orderDTO.getTotalAmount());
+        // Pedido, itens e produtos em uma consulta; so pedidos das tabelas quentes, os arquivados nao mudam mais
+        Order order = orderRepository.findWithItemsById(id).orElseThrow(() -> orderArchiveService.isArchived(id)
+                ? new ResponseStatusException(HttpStatus.CONFLICT, "Order is archived")
+                : new RuntimeException("Order not found"));
+        String previousStatus = order.getStatus();
+        // O que o pedido somava nos relatorios antes da alteracao
+        SalesDelta.Sale previousSale = SalesDelta.Sale.of(order);
+        Map<Long, Integer> previousQuantities = StockService.quantities(order);
+        if (!Objects.equals(order.getCustomer().getId(), orderDTO.getCustomerId())) {
+            order.setCustomer(customerRepository.findById(orderDTO.getCustomerId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found")));
+        }
         order.setStatus(orderDTO.getStatus());
         order.setOrderDate(orderDTO.getOrderDate());
         order.setFulfillmentDate(orderDTO.getFulfillmentDate());
 
-        // Limpar os detalhes de pedido existentes primeiro (se você deseja substituí-los)
-        order.getOrderDetails().clear();
+        // Quantidade final por produto (itens repetidos somados)
+        Map<Long, Integer> quantities = StockService.quantities(orderDTO.getOrderDetails());
+        Map<Long, Product> products = new HashMap<>();
+        long subtotal = 0;
+        for (Iterator<OrderDetail> it = order.getOrderDetails().iterator(); it.hasNext(); ) {
+            OrderDetail detail = it.next();
+            Product product = detail.getProduct();
+            Integer quantity = quantities.get(product.getId());
+            if (quantity == null || products.containsKey(product.getId())) {
+                // Retirado do pedido (ou segunda linha do mesmo produto): apagado no flush
+                it.remove();
+                continue;
+            }
+            products.put(product.getId(), product);
+            if (detail.getQuantity() != quantity) {
+                detail.setQuantity(quantity);
+            }
+            subtotal = Math.addExact(subtotal, PricingEngine.lineCents(product.getPrice(), quantity));
+        }
 
-        // Adicionar novos ou atualizados detalhes do pedido
+        // Produtos que o pedido ainda nao tinha, na ordem em que vieram
+        Set<Long> added = new LinkedHashSet<>();
         for (OrderDetailDTO detail : orderDTO.getOrderDetails()) {
-            Product product = productRepository.findById(detail.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            if (!products.containsKey(detail.getProductId())) {
+                added.add(detail.getProductId());
+            }
+        }
+        if (!added.isEmpty()) {
+            Map<Long, Product> found = findProducts(added);
+            for (Long productId : added) {
+                Product product = found.get(productId);
+                int quantity = quantities.get(productId);
+                products.put(productId, product);
 
-            OrderDetail orderDetail = new OrderDetail();
-            orderDetail.setOrder(order);  // Vincula o detalhe ao pedido
-            orderDetail.setProduct(product);
-            orderDetail.setQuantity(detail.getQuantity());
-            order.addOrderDetail(orderDetail);
+                OrderDetail orderDetail = new OrderDetail();
+                orderDetail.setProduct(product);
+                orderDetail.setQuantity(quantity);
+                order.addOrderDetail(orderDetail);
+                // Id da sequencia ja agora (pooled, sem ir ao banco); o INSERT vai no lote do flush
+                entityManager.persist(orderDetail);
+                subtotal = Math.addExact(subtotal, PricingEngine.lineCents(product.getPrice(), quantity));
+            }
+        }
+        Money total = PricingEngine.orderTotal(subtotal);
+        if (!total.equals(order.getTotalAmount())) {
+            order.setTotalAmount(total);
         }
 
-        return orderRepository.save(order);
+        // Estoque: reserva so o que aumentou; o que diminuiu volta depois do commit
+        Map<Long, Integer> increased = new HashMap<>();
+        Map<Long, Integer> decreased = new HashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            int delta = quantity - previousQuantities.getOrDefault(productId, 0);
+            if (delta > 0) {
+                increased.put(productId, delta);
+            } else if (delta < 0) {
+                decreased.put(productId, -delta);
+            }
+        });
+        previousQuantities.forEach((productId, quantity) -> {
+            if (!quantities.containsKey(productId)) {
+                decreased.put(productId, quantity);
+            }
+        });
+        stockService.reserve(increased, products);
+        stockService.returnAfterCommit(decreased);
+
+        // Entidade gerenciada: as diferencas vao para o banco no flush do commit
+        OrderEvent.Type type = Objects.equals(previousStatus, order.getStatus())
+                ? OrderEvent.Type.ORDER_UPDATED : OrderEvent.Type.STATUS_CHANGED;
+        eventPublisher.publishEvent(OrderEvent.of(type, order));
+        eventPublisher.publishEvent(SalesDelta.updated(previousSale, order));
+        return order;
     }
 
+    @Transactional
     public void deleteOrder(Long id) {
-        orderRepository.deleteById(id);
+        orderRepository.findById(id).ifPresent(order -> {
+            SalesDelta.Sale sale = SalesDelta.Sale.of(order);
+            stockService.returnAfterCommit(StockService.quantities(order));
+            orderRepository.delete(order);
+            eventPublisher.publishEvent(OrderEvent.deleted(id));
+            eventPublisher.publishEvent(SalesDelta.deleted(sale));
+        });
     }
 }
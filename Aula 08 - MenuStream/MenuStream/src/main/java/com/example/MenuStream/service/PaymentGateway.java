@@ -0,0 +1,24 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.model.Money;
+
+import java.util.concurrent.CompletableFuture;
+
+// Gateway de pagamento externo. A chamada nao deve prender a thread de quem chama: devolve um future que o
+// cliente HTTP do gateway completa quando a resposta chega. key e a chave de idempotencia da cobranca,
+// entao reenviar a mesma cobranca (depois de um timeout) nao cobra duas vezes.
+public interface PaymentGateway {
+
+    // Nome usado na configuracao (menustream.payments.gateways.<name>.*) e gravado em Payment.gateway
+    String name();
+
+    CompletableFuture<Result> charge(Charge charge);
+
+    record Charge(Long paymentId, String key, Money amount, String paymentMethod) {
+    }
+
+    // approved = false e uma recusa definitiva (cartao sem saldo etc.); erros de comunicacao completam o future
+    // com excecao e o pagamento continua PENDING para nova tentativa
+    record Result(boolean approved, String reference, String message) {
+    }
+}
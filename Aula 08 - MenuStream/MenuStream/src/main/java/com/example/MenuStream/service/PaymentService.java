@@ -0,0 +1,296 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.PaymentDTO;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Payment;
+import com.example.MenuStream.repository.OrderRepository;
+import com.example.MenuStream.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Pagamentos dos pedidos. POST /payments grava o pagamento como PENDING e responde na hora; a cobranca vai ao
+// gateway depois do commit, sem ocupar uma thread do Tomcat nem uma thread por cobranca: o gateway devolve um
+// future e cada gateway tem um limite de cobrancas em andamento (as demais esperam numa fila em memoria) e um
+// timeout. As respostas entram numa fila e um job grava o resultado de varios pagamentos por transacao.
+// Pagamentos PENDING sem resposta (timeout, erro, restart) sao reenviados com a mesma chave de idempotencia
+// ate max-attempts; depois ficam FAILED. Assim o numero de pagamentos em andamento depende do limite do
+// gateway, nao do tamanho de nenhum pool de threads.
+@Service
+public class PaymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private List<PaymentGateway> gateways;
+    @Autowired
+    private Environment environment;
+
+    @Value("${menustream.payments.default-gateway:local}")
+    private String defaultGateway;
+
+    @Value("${menustream.payments.max-in-flight:256}")
+    private int defaultMaxInFlight;
+
+    @Value("${menustream.payments.timeout:PT10S}")
+    private Duration defaultTimeout;
+
+    @Value("${menustream.payments.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${menustream.payments.settle-batch:500}")
+    private int settleBatch;
+
+    @Value("${menustream.payments.retry-after:PT1M}")
+    private Duration retryAfter;
+
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private final Queue<Settlement> settlements = new ConcurrentLinkedQueue<>();
+    // Pagamentos com cobranca na fila ou no gateway: o job de reenvio nao os pega de novo
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private record Settlement(Long paymentId, PaymentGateway.Result result, Throwable error) {
+    }
+
+    // Fila e limite de um gateway (menustream.payments.gateways.<name>.max-in-flight / timeout)
+    private final class Lane {
+        private final PaymentGateway gateway;
+        private final Semaphore permits;
+        private final long timeoutMillis;
+        private final Queue<PaymentGateway.Charge> waiting = new ConcurrentLinkedQueue<>();
+        // Pedidos de pump ainda nao atendidos; quem chega com outro em andamento so incrementa e sai
+        private final AtomicInteger pumpRequests = new AtomicInteger();
+
+        private Lane(PaymentGateway gateway, int maxInFlight, Duration timeout) {
+            this.gateway = gateway;
+            this.permits = new Semaphore(maxInFlight);
+            this.timeoutMillis = timeout.toMillis();
+        }
+
+        private void submit(PaymentGateway.Charge charge) {
+            waiting.add(charge);
+            pump();
+        }
+
+        // Inicia cobrancas enquanto houver vaga; cada resposta libera a vaga e puxa a proxima da fila.
+        // Uma resposta que ja chega pronta roda o whenComplete dentro deste laco: o pump() dela so registra o
+        // pedido e o laco de fora da mais uma volta, em vez de empilhar uma chamada por cobranca
+        private void pump() {
+            if (pumpRequests.getAndIncrement() != 0) {
+                return;
+            }
+            int requests = 1;
+            do {
+                startWaiting();
+                requests = pumpRequests.addAndGet(-requests);
+            } while (requests != 0);
+        }
+
+        private void startWaiting() {
+            while (!waiting.isEmpty() && permits.tryAcquire()) {
+                PaymentGateway.Charge charge = waiting.poll();
+                if (charge == null) {
+                    permits.release();
+                    continue;
+                }
+                CompletableFuture<PaymentGateway.Result> call;
+                try {
+                    call = gateway.charge(charge);
+                } catch (RuntimeException e) {
+                    call = CompletableFuture.failedFuture(e);
+                }
+                call.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((result, error) -> {
+                    permits.release();
+                    settlements.add(new Settlement(charge.paymentId(), result, error));
+                    pump();
+                });
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        for (PaymentGateway gateway : gateways) {
+            String prefix = "menustream.payments.gateways." + gateway.name() + ".";
+            lanes.put(gateway.name(), new Lane(gateway,
+                    environment.getProperty(prefix + "max-in-flight", Integer.class, defaultMaxInFlight),
+                    environment.getProperty(prefix + "timeout", Duration.class, defaultTimeout)));
+        }
+    }
+
+    @Transactional
+    public PaymentDTO submit(Long orderId, String paymentMethod) {
+        if (orderId == null || paymentMethod == null || paymentMethod.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order and payment method are required");
+        }
+        String gateway = environment.getProperty(
+                "menustream.payments.routes." + paymentMethod.toLowerCase(Locale.ROOT), defaultGateway);
+        if (!lanes.containsKey(gateway)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported payment method: " + paymentMethod);
+        }
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+
+        Payment payment = paymentRepository.findByOrderId(orderId).orElse(null);
+        if (payment != null) {
+            if (Payment.APPROVED.equals(payment.getPaymentStatus())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Order already paid");
+            }
+            if (Payment.PENDING.equals(payment.getPaymentStatus())) {
+                return PaymentDTO.of(payment);
+            }
+        } else {
+            payment = new Payment();
+            payment.setOrder(order);
+        }
+        // Novo envio (inclusive depois de uma recusa): nova chave de idempotencia no gateway
+        payment.setPaymentMethod(paymentMethod);
+        payment.setTransactionAmount(order.getTotalAmount());
+        payment.setPaymentStatus(Payment.PENDING);
+        payment.setGateway(gateway);
+        payment.setChargeKey(UUID.randomUUID().toString());
+        payment.setGatewayReference(null);
+        payment.setFailureReason(null);
+        payment.setAttempts(0);
+        payment.setUpdatedAt(new Date());
+        payment = paymentRepository.save(payment);
+
+        PaymentGateway.Charge charge = charge(payment);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(gateway, charge);
+            }
+        });
+        return PaymentDTO.of(payment);
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentDTO getPayment(Long id) {
+        return paymentRepository.findById(id).map(PaymentDTO::of)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Payment not found"));
+    }
+
+    private static PaymentGateway.Charge charge(Payment payment) {
+        return new PaymentGateway.Charge(payment.getId(), payment.getChargeKey(), payment.getTransactionAmount(),
+                payment.getPaymentMethod());
+    }
+
+    private void dispatch(String gateway, PaymentGateway.Charge charge) {
+        if (inFlight.add(charge.paymentId())) {
+            lanes.get(gateway).submit(charge);
+        }
+    }
+
+    // Grava as respostas recebidas, settle-batch pagamentos por transacao (UPDATEs em lote JDBC)
+    @Scheduled(fixedDelayString = "${menustream.payments.settle-interval:PT1S}")
+    public synchronized void settle() {
+        List<Settlement> batch = new ArrayList<>(settleBatch);
+        for (Settlement settlement; (settlement = settlements.poll()) != null; ) {
+            batch.add(settlement);
+            if (batch.size() == settleBatch) {
+                apply(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            apply(batch);
+        }
+    }
+
+    private void apply(List<Settlement> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Payment> payments = paymentRepository.findAllById(
+                                batch.stream().map(Settlement::paymentId).toList()).stream()
+                        .collect(Collectors.toMap(Payment::getId, Function.identity()));
+                Date now = new Date();
+                for (Settlement settlement : batch) {
+                    Payment payment = payments.get(settlement.paymentId());
+                    // Resposta atrasada de uma cobranca que ja foi resolvida
+                    if (payment == null || !Payment.PENDING.equals(payment.getPaymentStatus())) {
+                        continue;
+                    }
+                    if (settlement.error() != null) {
+                        payment.setAttempts(payment.getAttempts() + 1);
+                        payment.setFailureReason(String.valueOf(settlement.error()));
+                        if (payment.getAttempts() >= maxAttempts) {
+                            payment.setPaymentStatus(Payment.FAILED);
+                        }
+                    } else {
+                        payment.setPaymentStatus(settlement.result().approved() ? Payment.APPROVED : Payment.DECLINED);
+                        payment.setGatewayReference(settlement.result().reference());
+                        payment.setFailureReason(settlement.result().message());
+                    }
+                    payment.setUpdatedAt(now);
+                }
+            });
+            batch.forEach(settlement -> inFlight.remove(settlement.paymentId()));
+        } catch (RuntimeException e) {
+            // Ficam na fila para a proxima rodada
+            log.warn("Could not record {} payment results", batch.size(), e);
+            settlements.addAll(batch);
+        }
+    }
+
+    // Respostas recebidas e ainda nao gravadas (usado nos testes)
+    int pendingSettlements() {
+        return settlements.size();
+    }
+
+    // Reenvia pendentes sem resposta ha retry-after (a resposta nao veio, deu erro ou a aplicacao reiniciou)
+    @Scheduled(fixedDelayString = "${menustream.payments.retry-interval:PT30S}")
+    public void retryPending() {
+        retryPending(retryAfter);
+    }
+
+    int retryPending(Duration staleAfter) {
+        List<Payment> stale = paymentRepository.findStalePending(
+                new Date(System.currentTimeMillis() - staleAfter.toMillis()), Limit.of(settleBatch));
+        int resent = 0;
+        for (Payment payment : stale) {
+            if (lanes.containsKey(payment.getGateway()) && !inFlight.contains(payment.getId())) {
+                dispatch(payment.getGateway(), charge(payment));
+                resent++;
+            }
+        }
+        return resent;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.model.Money;
+
+// Regras de preco dos pedidos, em centavos (long): subtotal dos itens + taxa de servico de 10%.
+// A taxa e arredondada explicitamente para o centavo mais proximo (meio centavo sobe, HALF_UP).
+public final class PricingEngine {
+
+    public static final int SERVICE_CHARGE_PERCENT = 10;
+
+    private PricingEngine() {
+    }
+
+    public static long lineCents(Money price, int quantity) {
+        return Math.multiplyExact(price.cents(), quantity);
+    }
+
+    public static long serviceChargeCents(long subtotalCents) {
+        long scaled = Math.multiplyExact(subtotalCents, SERVICE_CHARGE_PERCENT);
+        // Divisao com arredondamento HALF_UP (subtotal negativo so em ajustes manuais: arredonda pelo modulo)
+        return scaled >= 0 ? (scaled + 50) / 100 : -((-scaled + 50) / 100);
+    }
+
+    public static Money orderTotal(long subtotalCents) {
+        return Money.ofCents(Math.addExact(subtotalCents, serviceChargeCents(subtotalCents)));
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.ProductSearchPage;
+import com.example.MenuStream.model.Product;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Indice invertido em memoria sobre nome, descricao e categoria dos produtos.
+// Os termos sao normalizados sem acento ("feijão" -> "feijao") e ficam ordenados, entao a busca por prefixo
+// e um intervalo do TreeMap. Atualizado produto a produto pelo ProductService.
+public class ProductSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    // Peso de cada campo no ranking; um termo igual ao da consulta vale o dobro de um termo que so comeca com ela
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Product> products = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> termsByProduct = new HashMap<>();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private volatile boolean loaded;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void reload(Collection<Product> all) {
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            termsByProduct.clear();
+            postings.clear();
+            all.forEach(this::add);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            delete(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Todos os termos da consulta precisam casar (como prefixo) com algum termo do produto
+    public ProductSearchPage search(String query, String category, Boolean available, int page, int size) {
+        List<String> queryTerms = tokenize(query);
+        String categoryFilter = category == null ? null : normalize(category);
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = queryTerms.isEmpty() ? allProducts() : match(queryTerms);
+            List<Map.Entry<Long, Integer>> hits = new ArrayList<>(scores.size());
+            for (Map.Entry<Long, Integer> hit : scores.entrySet()) {
+                Product product = products.get(hit.getKey());
+                if (available != null && product.isAvailability() != available) {
+                    continue;
+                }
+                if (categoryFilter != null && !categoryFilter.equals(normalize(product.getCategory()))) {
+                    continue;
+                }
+                hits.add(hit);
+            }
+            hits.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                    .thenComparing(hit -> products.get(hit.getKey()).getName(), Comparator.nullsLast(String::compareTo)));
+
+            // Em long: ?page= muito grande estouraria o int e daria um from negativo
+            int from = (int) Math.min((long) page * size, hits.size());
+            int to = Math.min(from + size, hits.size());
+            List<Product> items = new ArrayList<>(to - from);
+            for (Map.Entry<Long, Integer> hit : hits.subList(from, to)) {
+                items.add(products.get(hit.getKey()));
+            }
+            return new ProductSearchPage(items, page, size, hits.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> match(List<String> queryTerms) {
+        Map<Long, Integer> scores = null;
+        for (String term : queryTerms) {
+            Map<Long, Integer> termScores = new HashMap<>();
+            NavigableMap<String, Map<Long, Integer>> prefixed = postings.subMap(term, true, term + Character.MAX_VALUE, false);
+            for (Map.Entry<String, Map<Long, Integer>> posting : prefixed.entrySet()) {
+                int exact = posting.getKey().length() == term.length() ? 2 : 1;
+                posting.getValue().forEach((id, weight) -> termScores.merge(id, weight * exact, Math::max));
+            }
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private Map<Long, Integer> allProducts() {
+        Map<Long, Integer> all = new HashMap<>();
+        products.keySet().forEach(id -> all.put(id, 0));
+        return all;
+    }
+
+    private void add(Product product) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, product.getName(), NAME_WEIGHT);
+        addTerms(terms, product.getCategory(), CATEGORY_WEIGHT);
+        addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        products.put(product.getId(), product);
+        termsByProduct.put(product.getId(), terms);
+        terms.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(product.getId(), weight));
+    }
+
+    private void delete(Long id) {
+        products.remove(id);
+        Map<String, Integer> terms = termsByProduct.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Integer> ids = postings.get(term);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Math::max);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : SEPARATORS.split(normalize(text))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
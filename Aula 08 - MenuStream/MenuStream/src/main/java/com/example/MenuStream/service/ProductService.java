@@ -1,19 +1,67 @@
 package com.example.MenuStream.service;
 
+import com.example.MenuStream.DTO.CursorPage;
+import com.example.MenuStream.DTO.ProductChangesDTO;
+import com.example.MenuStream.DTO.ProductSearchPage;
 import com.example.MenuStream.model.Product;
+import com.example.MenuStream.model.ProductTombstone;
 import com.example.MenuStream.repository.ProductRepository;
+import com.example.MenuStream.repository.ProductTombstoneRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ProductService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProductService.class);
+
     @Autowired
     private ProductRepository productRepository;
 
-    public Product saveProduct(Product product) {
-        return productRepository.save(product);
+    @Autowired
+    private ProductTombstoneRepository productTombstoneRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${menustream.products.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
+
+    // Cardapio em memoria: lido do banco uma vez e depois atualizado so com o produto de cada escrita
+    private volatile MenuSnapshot menuSnapshot;
+
+    // Ultima versao de alteracao ja confirmada no banco (-1 enquanto nao foi lida); so muda dentro das escritas
+    private volatile long committedVersion = -1;
+
+    // Busca textual do cardapio, mantida em sincronia com as escritas abaixo
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+
+    // As escritas sao raras e serializadas: assim snapshot e indice sao atualizados na mesma ordem dos commits
+    public synchronized Product saveProduct(Product product) {
+        long version = nextVersion();
+        product.setRowVersion(version);
+        Product saved = productRepository.save(product);
+        committedVersion = version;
+        publish(saved);
+        return saved;
     }
 
     public Product getProductById(Long id) {
@@ -21,10 +69,47 @@ public class ProductService {
     }
 
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return getMenuSnapshot().products();
+    }
+
+    // Produto do cardapio em memoria (null se nao existe); nao consulta o banco
+    public Product getMenuProduct(Long id) {
+        return getMenuSnapshot().productsById().get(id);
+    }
+
+    public MenuSnapshot getMenuSnapshot() {
+        MenuSnapshot snapshot = menuSnapshot;
+        return snapshot != null ? snapshot : loadMenuSnapshot();
+    }
+
+    public CursorPage<Product> getProducts(String category, String cursor, Integer size) {
+        int pageSize = Cursors.pageSize(size);
+        long afterId = cursor == null ? 0L : Cursors.decode(cursor, 1)[0];
+        Limit limit = Limit.of(pageSize + 1);
+        List<Product> products = category == null
+                ? productRepository.findByIdGreaterThanOrderByIdAsc(afterId, limit)
+                : productRepository.findByCategoryAndIdGreaterThanOrderByIdAsc(category, afterId, limit);
+        if (products.size() <= pageSize) {
+            return new CursorPage<>(products, null);
+        }
+        List<Product> page = products.subList(0, pageSize);
+        return new CursorPage<>(page, Cursors.encode(page.get(pageSize - 1).getId()));
+    }
+
+    public ProductSearchPage searchProducts(String query, String category, Boolean available, int page, int size) {
+        if (!searchIndex.isLoaded()) {
+            loadSearchIndex();
+        }
+        return searchIndex.search(query, category, available, Math.max(page, 0), Cursors.pageSize(size));
+    }
+
+    private synchronized void loadSearchIndex() {
+        if (!searchIndex.isLoaded()) {
+            searchIndex.reload(getMenuSnapshot().products());
+        }
     }
 
-    public Product updateProduct(Long id, Product productDetails) {
+    public synchronized Product updateProduct(Long id, Product productDetails) {
         Product product = getProductById(id);
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
@@ -32,10 +117,139 @@ public class ProductService {
         product.setCategory(productDetails.getCategory());
         product.setAvailability(productDetails.isAvailability());
         product.setImage(productDetails.getImage());
-        return productRepository.save(product);
+        long version = nextVersion();
+        product.setRowVersion(version);
+        Product saved = productRepository.save(product);
+        committedVersion = version;
+        publish(saved);
+        return saved;
+    }
+
+    // Id inexistente: 404 sem gastar versao nem gravar exclusao, para nao forcar os quiosques a sincronizar
+    public synchronized void deleteProduct(Long id) {
+        long version = nextVersion();
+        transactionTemplate.executeWithoutResult(status -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+            productRepository.delete(product);
+            productTombstoneRepository.save(new ProductTombstone(id, version));
+        });
+        committedVersion = version;
+        searchIndex.remove(id);
+        MenuSnapshot snapshot = menuSnapshot;
+        if (snapshot != null) {
+            menuSnapshot = snapshot.without(version, id);
+        }
+    }
+
+    // Grava o estoque informado pelo StockService (nulo = deixa de controlar). Quando a disponibilidade muda
+    // (estoque zerou ou voltou) ou o produto passa a controlar estoque (ou deixa de), ele ganha nova versao e o
+    // cardapio em memoria e refeito; as demais mudancas de quantidade so vao para o banco.
+    public synchronized void applyStock(Map<Long, Integer> stock) {
+        long version = nextVersion();
+        List<Product> flipped = transactionTemplate.execute(status -> {
+            List<Product> changed = new ArrayList<>();
+            for (Product product : productRepository.findAllById(stock.keySet())) {
+                Integer value = stock.get(product.getId());
+                boolean tracking = (product.getStock() == null) != (value == null);
+                boolean availability = value != null && product.isAvailability() != value > 0;
+                product.setStock(value);
+                if (availability) {
+                    product.setAvailability(value > 0);
+                }
+                if (tracking || availability) {
+                    product.setRowVersion(version);
+                    changed.add(product);
+                }
+            }
+            return changed;
+        });
+        if (!flipped.isEmpty()) {
+            committedVersion = version;
+            flipped.forEach(this::publish);
+        }
+    }
+
+    // Produtos criados/alterados e ids excluidos depois de "since". Como as escritas sao serializadas e
+    // committedVersion so avanca apos o commit, nenhuma versao <= version pode aparecer depois desta leitura.
+    // Sem como montar o delta (primeira carga, exclusoes ja expurgadas, versao que este banco nunca teve),
+    // devolve o cardapio inteiro com full = true.
+    public ProductChangesDTO getChangesSince(long since) {
+        long version = currentVersion();
+        if (since <= 0 || since > version) {
+            return fullSync();
+        }
+        if (since == version) {
+            return new ProductChangesDTO(version, false, List.of(), List.of());
+        }
+        List<Product> changed = productRepository
+                .findByRowVersionGreaterThanAndRowVersionLessThanEqualOrderByRowVersionAsc(since, version);
+        List<Long> deleted = productTombstoneRepository
+                .findByRowVersionGreaterThanAndRowVersionLessThanEqual(since, version).stream()
+                .map(ProductTombstone::getProductId)
+                .toList();
+        // Conferido depois da leitura: um expurgo no meio dela tambem cai aqui
+        if (since + 1 < productTombstoneRepository.findMinRowVersionDeletedBefore(retentionStart())) {
+            return fullSync();
+        }
+        return new ProductChangesDTO(version, false, changed, deleted);
+    }
+
+    private ProductChangesDTO fullSync() {
+        MenuSnapshot snapshot = getMenuSnapshot();
+        return new ProductChangesDTO(snapshot.version(), true, snapshot.products(), List.of());
+    }
+
+    // Apaga as exclusoes mais velhas que a retencao, menos a mais nova delas: ela fica como marco de onde o
+    // historico comeca. Quem pede alteracoes a partir de uma versao anterior a exclusao expirada mais antiga
+    // recebe o cardapio inteiro (antes do primeiro expurgo, no maximo um recomeco a mais).
+    @Scheduled(fixedDelayString = "${menustream.products.tombstone-purge-interval:PT1H}")
+    public void purgeTombstones() {
+        long oldestKept = productTombstoneRepository.findMaxRowVersionDeletedBefore(retentionStart());
+        int deleted = oldestKept == 0 ? 0 : productTombstoneRepository.deleteOlderThan(oldestKept);
+        if (deleted > 0) {
+            log.info("Purged {} product tombstones older than version {}", deleted, oldestKept);
+        }
+    }
+
+    private Date retentionStart() {
+        return new Date(System.currentTimeMillis() - tombstoneRetention.toMillis());
+    }
+
+    private long currentVersion() {
+        long version = committedVersion;
+        return version >= 0 ? version : loadVersion();
+    }
+
+    private synchronized long loadVersion() {
+        if (committedVersion < 0) {
+            committedVersion = Math.max(productRepository.findMaxRowVersion(),
+                    productTombstoneRepository.findMaxRowVersion());
+        }
+        return committedVersion;
+    }
+
+    // Sempre chamado com o lock das escritas
+    private long nextVersion() {
+        return currentVersion() + 1;
+    }
+
+    // Chamado depois do commit de cada escrita, com o lock das escritas. Cardapio e indice guardam a mesma copia
+    // do produto, nunca a entidade gravada; antes da primeira leitura do cardapio nao ha nada para atualizar.
+    private void publish(Product saved) {
+        Product product = MenuSnapshot.detach(saved);
+        searchIndex.put(product);
+        MenuSnapshot snapshot = menuSnapshot;
+        if (snapshot != null) {
+            menuSnapshot = snapshot.with(committedVersion, product);
+        }
     }
 
-    public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+    // Primeira leitura: o cardapio inteiro do banco, uma vez so
+    private synchronized MenuSnapshot loadMenuSnapshot() {
+        if (menuSnapshot == null) {
+            menuSnapshot = MenuSnapshot.of(currentVersion(), productRepository.findAll(), objectMapper);
+        }
+        return menuSnapshot;
     }
 }
@@ -0,0 +1,285 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.HourlySalesDTO;
+import com.example.MenuStream.DTO.SalesRow;
+import com.example.MenuStream.DTO.SalesTotalDTO;
+import com.example.MenuStream.event.SalesDelta;
+import com.example.MenuStream.model.SalesRollup;
+import com.example.MenuStream.model.SalesRollupId;
+import com.example.MenuStream.repository.ArchivedOrderRepository;
+import com.example.MenuStream.repository.OrderRepository;
+import com.example.MenuStream.repository.SalesRollupRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Relatorios de vendas por hora, produto e categoria sem varrer orders/order_details.
+// Cada pedido confirmado vira um delta somado em contadores em memoria; um flush periodico soma esses
+// contadores na tabela sales_rollups. As consultas leem a tabela mais o que ainda nao foi gravado, entao o
+// custo depende do numero de horas e produtos do periodo, nao do numero de pedidos.
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final int WRITE_BATCH = 500;
+    private static final String ALL = "";
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Deltas ainda nao gravados. Os valores sao imutaveis e so mudam por merge(), atomico por chave:
+    // o flush remove a chave e grava o valor removido sem disputar com quem esta somando
+    private final Map<Key, Counter> pending = new ConcurrentHashMap<>();
+
+    private record Key(SalesRollup.Dimension dimension, long hourStart, String value) {
+    }
+
+    private record Counter(long orders, long quantity, long cents) {
+        Counter plus(Counter other) {
+            return new Counter(orders + other.orders, quantity + other.quantity, cents + other.cents);
+        }
+
+        Counter negate() {
+            return new Counter(-orders, -quantity, -cents);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSalesDelta(SalesDelta delta) {
+        if (delta.removed() != null) {
+            contributions(delta.removed()).forEach((key, counter) -> pending.merge(key, counter.negate(), Counter::plus));
+        }
+        if (delta.added() != null) {
+            contributions(delta.added()).forEach((key, counter) -> pending.merge(key, counter, Counter::plus));
+        }
+    }
+
+    // Grava os deltas acumulados; se o banco falhar eles voltam para a memoria e entram no proximo flush
+    @Scheduled(fixedDelayString = "${menustream.rollups.flush-interval:PT5S}")
+    @PreDestroy
+    public synchronized void flush() {
+        Map<Key, Counter> batch = new HashMap<>();
+        for (Key key : pending.keySet()) {
+            Counter counter = pending.remove(key);
+            if (counter != null) {
+                batch.put(key, counter);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+        } catch (RuntimeException e) {
+            log.warn("Sales rollup flush failed, keeping {} counters for the next attempt", batch.size(), e);
+            batch.forEach((key, counter) -> pending.merge(key, counter, Counter::plus));
+        }
+    }
+
+    private void write(Map<Key, Counter> batch) {
+        Set<Date> hours = new HashSet<>();
+        batch.keySet().forEach(key -> hours.add(new Date(key.hourStart())));
+        Map<SalesRollupId, SalesRollup> existing = new HashMap<>();
+        for (SalesRollup rollup : salesRollupRepository.findByHours(hours)) {
+            existing.put(rollup.getId(), rollup);
+        }
+        batch.forEach((key, counter) -> {
+            SalesRollupId id = new SalesRollupId(key.dimension(), new Date(key.hourStart()), key.value());
+            SalesRollup rollup = existing.get(id);
+            if (rollup == null) {
+                rollup = new SalesRollup(id);
+                entityManager.persist(rollup);
+            }
+            add(rollup, counter);
+        });
+    }
+
+    // Reconstroi a tabela a partir dos pedidos, quentes e arquivados (para corrigir desvios, ex.: depois de mudar precos
+    // ou categorias de produtos). Varre todos os pedidos: rodar fora do horario de pico. Os pedidos continuam
+    // sendo aceitos durante a varredura; os deltas que chegam nesse meio tempo ficam em memoria e sao somados
+    // por cima no proximo flush. Um pedido confirmado no instante entre o inicio e a primeira leitura pode
+    // ser contado duas vezes. Retorna o numero de pedidos lidos.
+    public synchronized long rebuild() {
+        // Ja confirmados: a varredura vai encontra-los no banco
+        pending.clear();
+        return transactionTemplate.execute(status -> {
+            Map<Key, Counter> totals = new HashMap<>();
+            // Pedidos das tabelas quentes e os ja arquivados; na mesma transacao (no MySQL, REPEATABLE READ le
+            // as duas de um mesmo snapshot), entao um pedido movido durante a varredura conta uma vez so
+            long orders;
+            try (Stream<SalesRow> rows = orderRepository.streamForSalesRollup()) {
+                orders = scan(rows, totals);
+            }
+            try (Stream<SalesRow> rows = archivedOrderRepository.streamForSalesRollup()) {
+                orders += scan(rows, totals);
+            }
+
+            salesRollupRepository.deleteAllInBatch();
+            int written = 0;
+            for (Map.Entry<Key, Counter> entry : totals.entrySet()) {
+                Key key = entry.getKey();
+                SalesRollup rollup = new SalesRollup(
+                        new SalesRollupId(key.dimension(), new Date(key.hourStart()), key.value()));
+                add(rollup, entry.getValue());
+                entityManager.persist(rollup);
+                if (++written % WRITE_BATCH == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            log.info("Sales rollups rebuilt from {} orders ({} rows)", orders, totals.size());
+            return orders;
+        });
+    }
+
+    // Agrupa as linhas (ordenadas por pedido) e soma a contribuicao de cada pedido; devolve quantos pedidos leu
+    private long scan(Stream<SalesRow> rows, Map<Key, Counter> totals) {
+        long orders = 0;
+        Long orderId = null;
+        SalesRow first = null;
+        List<SalesDelta.Line> lines = new ArrayList<>();
+        for (SalesRow row : (Iterable<SalesRow>) rows::iterator) {
+            if (!row.orderId().equals(orderId)) {
+                if (first != null) {
+                    accumulate(totals, first, lines);
+                    orders++;
+                }
+                orderId = row.orderId();
+                first = row;
+                lines.clear();
+            }
+            if (row.productId() != null) {
+                lines.add(new SalesDelta.Line(row.productId(), row.category(), row.price(), row.quantity()));
+            }
+        }
+        if (first != null) {
+            accumulate(totals, first, lines);
+            orders++;
+        }
+        return orders;
+    }
+
+    private void accumulate(Map<Key, Counter> totals, SalesRow order, List<SalesDelta.Line> lines) {
+        SalesDelta.Sale sale = SalesDelta.Sale.of(order.orderDate(), order.totalAmount(), lines);
+        contributions(sale).forEach((key, counter) -> totals.merge(key, counter, Counter::plus));
+    }
+
+    public List<HourlySalesDTO> getHourlySales(Date from, Date to) {
+        Map<String, Counter> hours = read(SalesRollup.Dimension.HOUR, from, to, true);
+        List<HourlySalesDTO> result = new ArrayList<>(hours.size());
+        hours.forEach((hour, counter) -> result.add(new HourlySalesDTO(new Date(Long.parseLong(hour)),
+                counter.orders(), counter.quantity(), toAmount(counter.cents()))));
+        result.sort(Comparator.comparing(HourlySalesDTO::hour));
+        return result;
+    }
+
+    public List<SalesTotalDTO> getProductSales(Date from, Date to, int limit) {
+        return totals(SalesRollup.Dimension.PRODUCT, from, to, limit);
+    }
+
+    public List<SalesTotalDTO> getCategorySales(Date from, Date to) {
+        return totals(SalesRollup.Dimension.CATEGORY, from, to, Integer.MAX_VALUE);
+    }
+
+    // Ordenado por faturamento, maior primeiro
+    private List<SalesTotalDTO> totals(SalesRollup.Dimension dimension, Date from, Date to, int limit) {
+        return read(dimension, from, to, false).entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Counter> entry) -> entry.getValue().cents())
+                        .reversed().thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(entry -> new SalesTotalDTO(entry.getKey(), entry.getValue().orders(),
+                        entry.getValue().quantity(), toAmount(entry.getValue().cents())))
+                .toList();
+    }
+
+    // Soma as linhas gravadas com os deltas pendentes das horas [from, to); agrupa por hora ou por chave
+    private Map<String, Counter> read(SalesRollup.Dimension dimension, Date from, Date to, boolean byHour) {
+        long start = hourStart(from.getTime());
+        long end = hourStart(to.getTime() + HOUR_MILLIS - 1);
+        Map<String, Counter> result = new HashMap<>();
+        for (SalesRollup rollup : salesRollupRepository.findRange(dimension, new Date(start), new Date(end))) {
+            String group = byHour ? String.valueOf(rollup.getId().getHourStart().getTime())
+                    : rollup.getId().getDimensionKey();
+            Counter counter = new Counter(rollup.getOrders(), rollup.getQuantity(),
+                    rollup.getAmount().movePointRight(2).longValueExact());
+            result.merge(group, counter, Counter::plus);
+        }
+        pending.forEach((key, counter) -> {
+            if (key.dimension() == dimension && key.hourStart() >= start && key.hourStart() < end) {
+                result.merge(byHour ? String.valueOf(key.hourStart()) : key.value(), counter, Counter::plus);
+            }
+        });
+        // Chaves que ficaram zeradas (pedidos alterados ou excluidos) nao aparecem no relatorio
+        result.values().removeIf(counter -> counter.orders() == 0 && counter.quantity() == 0 && counter.cents() == 0);
+        return result;
+    }
+
+    // Um pedido conta uma vez em cada chave que toca, mesmo com varios itens do mesmo produto ou categoria
+    private static Map<Key, Counter> contributions(SalesDelta.Sale sale) {
+        long hour = hourStart(sale.orderDate().getTime());
+        Map<Key, long[]> sums = new HashMap<>();
+        long quantity = 0;
+        for (SalesDelta.Item item : sale.items()) {
+            quantity += item.quantity();
+            add(sums, new Key(SalesRollup.Dimension.PRODUCT, hour, String.valueOf(item.productId())), item);
+            add(sums, new Key(SalesRollup.Dimension.CATEGORY, hour, item.category()), item);
+        }
+        Map<Key, Counter> contributions = new HashMap<>();
+        contributions.put(new Key(SalesRollup.Dimension.HOUR, hour, ALL), new Counter(1, quantity, sale.amountCents()));
+        sums.forEach((key, sum) -> contributions.put(key, new Counter(1, sum[0], sum[1])));
+        return contributions;
+    }
+
+    private static void add(Map<Key, long[]> sums, Key key, SalesDelta.Item item) {
+        long[] sum = sums.computeIfAbsent(key, k -> new long[2]);
+        sum[0] += item.quantity();
+        sum[1] += item.amountCents();
+    }
+
+    private static void add(SalesRollup rollup, Counter counter) {
+        rollup.setOrders(rollup.getOrders() + counter.orders());
+        rollup.setQuantity(rollup.getQuantity() + counter.quantity());
+        rollup.setAmount(rollup.getAmount().add(toAmount(counter.cents())));
+    }
+
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static long hourStart(long millis) {
+        return Math.floorDiv(millis, HOUR_MILLIS) * HOUR_MILLIS;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.DTO.StockDTO;
+import com.example.MenuStream.event.StockChange;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.OrderDetail;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Estoque dos produtos com controle de quantidade. As reservas dos pedidos sao um compareAndSet em um contador
+// em memoria por produto, entao compras simultaneas do mesmo item nao esperam pelo lock da linha no MySQL e
+// nunca deixam o contador negativo. Um reconciliador grava os contadores alterados em products.stock (e a
+// disponibilidade, que acompanha o estoque) a cada poucos segundos.
+// Os contadores sao a fonte da verdade enquanto a aplicacao roda: supoe uma unica instancia, e uma queda entre
+// duas reconciliacoes perde as baixas desse intervalo (o banco fica com estoque a mais).
+@Service
+public class StockService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockService.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+    // Produtos com contador diferente do valor gravado
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // Reserva tudo ou nada; chamado dentro da transacao do pedido, com os produtos ja carregados.
+    // Se a transacao for desfeita, as quantidades voltam para os contadores.
+    public void reserve(Map<Long, Integer> quantities, Map<Long, Product> products) {
+        // Quantidade negativa devolveria estoque ao contador (e a linha, na reconciliacao)
+        quantities.values().forEach(StockService::requirePositive);
+        Map<Long, Integer> taken = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            if (product.getStock() == null) {
+                continue;
+            }
+            AtomicInteger counter = counters.computeIfAbsent(product.getId(), id -> new AtomicInteger(product.getStock()));
+            if (!take(counter, entry.getValue())) {
+                taken.forEach(this::give);
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Out of stock: " + product.getName());
+            }
+            taken.put(product.getId(), entry.getValue());
+            dirty.add(product.getId());
+        }
+        if (!taken.isEmpty()) {
+            eventPublisher.publishEvent(StockChange.reserved(taken));
+        }
+    }
+
+    // Quantidade por produto (itens repetidos somados); 400 para item sem quantidade positiva, como no
+    // OrderIngestService.validate
+    public static Map<Long, Integer> quantities(List<OrderDetailDTO> details) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderDetailDTO detail : details) {
+            quantities.merge(detail.getProductId(), requirePositive(detail.getQuantity()), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static int requirePositive(Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid quantity");
+        }
+        return quantity;
+    }
+
+    public static Map<Long, Integer> quantities(Order order) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderDetail detail : order.getOrderDetails()) {
+            quantities.merge(detail.getProduct().getId(), detail.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // Quantidades que voltam ao estoque quando a transacao atual for confirmada
+    public void returnAfterCommit(Map<Long, Integer> quantities) {
+        if (!quantities.isEmpty()) {
+            eventPublisher.publishEvent(StockChange.returned(quantities));
+        }
+    }
+
+    // Devolve na hora, sem transacao: reserva de um pedido aceito que nao chegou a ser gravado
+    public void release(Map<Long, Integer> quantities) {
+        quantities.forEach(this::give);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onRollback(StockChange change) {
+        change.reserved().forEach(this::give);
+    }
+
+    @TransactionalEventListener
+    public void onCommit(StockChange change) {
+        change.returned().forEach(this::give);
+    }
+
+    private static boolean take(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private void give(Long productId, Integer quantity) {
+        AtomicInteger counter = counter(productId);
+        if (counter != null) {
+            counter.addAndGet(quantity);
+            dirty.add(productId);
+        }
+    }
+
+    // Contador do produto, carregado do banco na primeira vez; null se o produto nao controla estoque
+    private AtomicInteger counter(Long productId) {
+        return counters.computeIfAbsent(productId, id -> productRepository.findById(id)
+                .map(Product::getStock)
+                .map(AtomicInteger::new)
+                .orElse(null));
+    }
+
+    public StockDTO getStock(Long productId) {
+        productService.getProductById(productId);
+        AtomicInteger counter = counter(productId);
+        return new StockDTO(productId, counter == null ? null : counter.get());
+    }
+
+    // Reposicao pelo gerente: substitui a quantidade e grava na hora (nulo desliga o controle de estoque)
+    public synchronized StockDTO setStock(Long productId, Integer stock) {
+        if (stock != null && stock < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stock must not be negative");
+        }
+        productService.getProductById(productId);
+        if (stock == null) {
+            counters.remove(productId);
+            dirty.remove(productId);
+            Map<Long, Integer> untracked = new HashMap<>();
+            untracked.put(productId, null);
+            productService.applyStock(untracked);
+        } else {
+            counters.computeIfAbsent(productId, id -> new AtomicInteger()).set(stock);
+            dirty.add(productId);
+            reconcile();
+        }
+        return getStock(productId);
+    }
+
+    // Grava os contadores alterados; se o banco falhar eles continuam pendentes para a proxima rodada
+    @Scheduled(fixedDelayString = "${menustream.stock.reconcile-interval:PT2S}")
+    @PreDestroy
+    public synchronized void reconcile() {
+        List<Long> pending = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            pending.add(it.next());
+            it.remove();
+        }
+        Map<Long, Integer> values = new HashMap<>();
+        for (Long productId : pending) {
+            AtomicInteger counter = counters.get(productId);
+            if (counter != null) {
+                values.put(productId, counter.get());
+            }
+        }
+        if (values.isEmpty()) {
+            return;
+        }
+        try {
+            productService.applyStock(values);
+        } catch (RuntimeException e) {
+            log.warn("Stock reconciliation failed, keeping {} products pending", values.size(), e);
+            dirty.addAll(values.keySet());
+        }
+    }
+}
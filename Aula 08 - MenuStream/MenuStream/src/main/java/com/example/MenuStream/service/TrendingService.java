@@ -0,0 +1,97 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.TrendingProductDTO;
+import com.example.MenuStream.event.OrderEvent;
+import com.example.MenuStream.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Faixa "mais pedidos agora" do cardapio (GET /products/trending). Cada item de pedido confirmado soma a
+// quantidade nos sketches das tres janelas; nenhuma leitura passa pelo banco.
+@Service
+public class TrendingService {
+
+    private static final long MINUTE = 60_000L;
+    // Count-Min de 4 x 1024 contadores por balde: ~1,7 MB para as tres janelas, qualquer que seja o movimento
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1024;
+    private static final int CANDIDATES = 64;
+    private static final int MAX_LIMIT = 50;
+
+    public enum Window {
+        // 15 baldes de 1 minuto, 12 de 5 minutos, 24 de 1 hora
+        LAST_15_MINUTES("15m", MINUTE, 15),
+        LAST_HOUR("1h", 5 * MINUTE, 12),
+        LAST_24_HOURS("24h", 60 * MINUTE, 24);
+
+        private final String label;
+        private final long bucketMillis;
+        private final int buckets;
+
+        Window(String label, long bucketMillis, int buckets) {
+            this.label = label;
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+        }
+
+        public static Window of(String label) {
+            for (Window window : values()) {
+                if (window.label.equals(label)) {
+                    return window;
+                }
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid window, use 15m, 1h or 24h");
+        }
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    private final Map<Window, TrendingSketch> sketches = new EnumMap<>(Window.class);
+
+    public TrendingService() {
+        for (Window window : Window.values()) {
+            sketches.put(window, new TrendingSketch(window.bucketMillis, window.buckets, DEPTH, WIDTH, CANDIDATES));
+        }
+    }
+
+    // Conta pelo momento da confirmacao do pedido, nao pelo orderDate informado pelo cliente
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        if (event.type() != OrderEvent.Type.ORDER_CREATED) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (OrderEvent.Line line : event.lines()) {
+            for (TrendingSketch sketch : sketches.values()) {
+                sketch.add(line.productId(), line.quantity(), now);
+            }
+        }
+    }
+
+    // Produtos excluidos ou indisponiveis saem da faixa
+    public List<TrendingProductDTO> getTrending(String window, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<TrendingProductDTO> result = new ArrayList<>(size);
+        for (TrendingSketch.Entry entry : sketches.get(Window.of(window)).top(CANDIDATES, System.currentTimeMillis())) {
+            Product product = productService.getMenuProduct(entry.key());
+            if (product == null || !product.isAvailability()) {
+                continue;
+            }
+            result.add(new TrendingProductDTO(product.getId(), product.getName(), product.getCategory(),
+                    product.getImage(), entry.count()));
+            if (result.size() == size) {
+                break;
+            }
+        }
+        return result;
+    }
+}
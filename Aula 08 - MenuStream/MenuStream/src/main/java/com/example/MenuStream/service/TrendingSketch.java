@@ -0,0 +1,167 @@
+package com.example.MenuStream.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Itens mais frequentes em uma janela deslizante, com memoria fixa.
+// A janela e dividida em "buckets" baldes de tempo, guardados em um anel. Cada balde tem um Count-Min sketch
+// (depth linhas x width contadores) e um conjunto pequeno de candidatos a mais frequentes.
+// A contagem estimada nunca fica abaixo da real; o excesso e no maximo ~2 * total / width com alta probabilidade.
+// A janela desliza de balde em balde: cobre entre (buckets - 1) e buckets baldes inteiros.
+public class TrendingSketch {
+
+    private final long bucketMillis;
+    private final int depth;
+    private final int width;
+    private final int candidates;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    public record Entry(long key, long count) {
+    }
+
+    public TrendingSketch(long bucketMillis, int buckets, int depth, int width, int candidates) {
+        this.bucketMillis = bucketMillis;
+        this.depth = depth;
+        this.width = width;
+        this.candidates = candidates;
+        this.ring = new AtomicReferenceArray<>(buckets);
+    }
+
+    // Chamado por varias threads de requisicao ao mesmo tempo: os contadores sao atomicos e so a entrada
+    // de uma chave nova no conjunto de candidatos de um balde passa por um lock
+    public void add(long key, long count, long nowMillis) {
+        Bucket bucket = bucketFor(nowMillis / bucketMillis);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, bucket.counts.addAndGet(index(row, key), count));
+        }
+        bucket.offer(key, estimate);
+    }
+
+    // As "limit" chaves mais frequentes da janela terminada em nowMillis, da maior para a menor contagem
+    public List<Entry> top(int limit, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        List<Bucket> live = new ArrayList<>(ring.length());
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && bucket.epoch > epoch - ring.length() && bucket.epoch <= epoch) {
+                live.add(bucket);
+                keys.addAll(bucket.candidates.keySet());
+            }
+        }
+        List<Entry> entries = new ArrayList<>(keys.size());
+        for (long key : keys) {
+            entries.add(new Entry(key, estimate(live, key)));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparingLong(Entry::key));
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    // Estimativa de uma chave na janela: soma cada linha em todos os baldes e fica com a menor soma
+    public long estimate(long key, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        List<Bucket> live = new ArrayList<>(ring.length());
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket != null && bucket.epoch > epoch - ring.length() && bucket.epoch <= epoch) {
+                live.add(bucket);
+            }
+        }
+        return estimate(live, key);
+    }
+
+    private long estimate(List<Bucket> buckets, long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, key);
+            long sum = 0;
+            for (Bucket bucket : buckets) {
+                sum += bucket.counts.get(index);
+            }
+            estimate = Math.min(estimate, sum);
+        }
+        return buckets.isEmpty() ? 0 : estimate;
+    }
+
+    // Troca o balde vencido da posicao por um novo; quem perder a corrida usa o balde do vencedor
+    private Bucket bucketFor(long epoch) {
+        int slot = (int) (epoch % ring.length());
+        while (true) {
+            Bucket bucket = ring.get(slot);
+            if (bucket != null && bucket.epoch == epoch) {
+                return bucket;
+            }
+            if (bucket != null && bucket.epoch > epoch) {
+                // Relogio de uma thread atrasada: conta no balde mais novo
+                return bucket;
+            }
+            Bucket fresh = new Bucket(epoch, depth * width, candidates);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int index(int row, long key) {
+        return row * width + (int) Long.remainderUnsigned(mix(key + row * 0x9E3779B97F4A7C15L), width);
+    }
+
+    // Finalizador do SplitMix64: espalha ids sequenciais pelos contadores
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final AtomicLongArray counts;
+        private final int capacity;
+        // Chave -> ultima estimativa vista no balde
+        private final Map<Long, Long> candidates = new ConcurrentHashMap<>();
+        // Menor estimativa entre os candidatos quando o conjunto esta cheio: abaixo disso nem tenta o lock
+        private volatile long floor;
+
+        private Bucket(long epoch, int counters, int capacity) {
+            this.epoch = epoch;
+            this.counts = new AtomicLongArray(counters);
+            this.capacity = capacity;
+        }
+
+        private void offer(long key, long estimate) {
+            if (candidates.replace(key, estimate) != null || estimate <= floor) {
+                return;
+            }
+            synchronized (this) {
+                if (candidates.containsKey(key)) {
+                    candidates.put(key, estimate);
+                    return;
+                }
+                if (candidates.size() >= capacity) {
+                    Map.Entry<Long, Long> min = minimum();
+                    if (min.getValue() >= estimate) {
+                        floor = min.getValue();
+                        return;
+                    }
+                    candidates.remove(min.getKey());
+                }
+                candidates.put(key, estimate);
+                if (candidates.size() >= capacity) {
+                    floor = minimum().getValue();
+                }
+            }
+        }
+
+        private Map.Entry<Long, Long> minimum() {
+            return candidates.entrySet().stream().min(Map.Entry.comparingByValue()).orElseThrow();
+        }
+    }
+}
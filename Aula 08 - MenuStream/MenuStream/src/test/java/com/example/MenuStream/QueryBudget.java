@@ -0,0 +1,61 @@
+package com.example.MenuStream;
+
+import com.example.MenuStream.monitoring.SqlTimingFilter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Orcamento de SQL nos testes de controller: le o cabecalho Server-Timing gravado pelo SqlTimingFilter.
+//   mockMvc.perform(get("/orders/1")).andExpect(QueryBudget.atMost(1));
+public final class QueryBudget {
+
+    private static final Pattern DESC = Pattern.compile("statements=(\\d+) repeated=(\\d+)");
+
+    private QueryBudget() {
+    }
+
+    // MockMvc do contexto compartilhado com o filtro de contagem (o webAppContextSetup nao inclui filtros)
+    public static MockMvc mockMvc(WebApplicationContext context) {
+        return MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean(SqlTimingFilter.class))
+                .build();
+    }
+
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            int executed = statements(result);
+            assertTrue(executed <= statements, () -> describe(result) + ": " + executed
+                    + " statements, budget is " + statements);
+        };
+    }
+
+    // Nenhum formato de comando repetido ate o limite do filtro (menustream.sql.repeat-threshold)
+    public static ResultMatcher noRepeatedStatements() {
+        return result -> assertEquals(0, group(result, 2), () -> describe(result) + ": repeated statements (N+1?)");
+    }
+
+    public static int statements(MvcResult result) {
+        return group(result, 1);
+    }
+
+    private static int group(MvcResult result, int group) {
+        String header = result.getResponse().getHeader(SqlTimingFilter.HEADER);
+        assertNotNull(header, () -> describe(result) + ": no " + SqlTimingFilter.HEADER + " header");
+        Matcher matcher = DESC.matcher(header);
+        assertTrue(matcher.find(), header);
+        return Integer.parseInt(matcher.group(group));
+    }
+
+    private static String describe(MvcResult result) {
+        return result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+    }
+}
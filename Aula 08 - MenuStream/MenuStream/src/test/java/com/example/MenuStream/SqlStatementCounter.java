@@ -0,0 +1,37 @@
+package com.example.MenuStream;
+
+import com.example.MenuStream.monitoring.SqlStatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Registrado em application-test.properties no lugar do SqlStatementInspector (que continua contando por
+// requisicao): guarda todo SQL preparado pelo Hibernate. Um lote JDBC (batch) e preparado uma unica vez, entao
+// conta como um comando.
+public class SqlStatementCounter extends SqlStatementInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return super.inspect(sql);
+    }
+
+    public static void reset() {
+        synchronized (statements) {
+            statements.clear();
+        }
+    }
+
+    // Ignora as chamadas de sequencia, que acontecem uma vez a cada bloco de ids
+    public static List<String> statements() {
+        synchronized (statements) {
+            return statements.stream()
+                    .filter(sql -> !sql.toLowerCase().contains("next value for"))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.MenuStream.bench;
+
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Perfil bench em escala pequena (100 clientes, 10 produtos, 1.000 pedidos), no banco H2 do proprio perfil
+@SpringBootTest(properties = "menustream.bench.scale=0.01")
+@ActiveProfiles({"test", "bench"})
+class BenchDataGeneratorTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void generatesTheScaledRowsWithConsistentTotals() {
+        assertEquals(100, count("select count(*) from customers where id <= 100"));
+        assertEquals(10, count("select count(*) from products where id <= 10"));
+        assertEquals(1000, count("select count(*) from orders where id <= 1000"));
+        long lines = count("select count(*) from order_details where order_id <= 1000");
+        assertTrue(lines >= 1000 && lines <= 6000, () -> lines + " lines");
+
+        // Total = soma dos itens + 10% de taxa de servico (PricingEngine), em todos os pedidos gerados
+        assertEquals(0, count("select count(*) from orders o where o.id <= 1000 and o.total_amount <> "
+                + "(select round(sum(p.price * d.quantity) * 1.1, 2) from order_details d "
+                + "join products p on p.id = d.product_id where d.order_id = o.id)"));
+        assertEquals(0, count("select count(*) from orders where status = 'DELIVERED' and fulfillment_date is null"));
+        // Produto esgotado nunca aparece como disponivel
+        assertEquals(0, count("select count(*) from products where id <= 10 and stock = 0 and availability"));
+    }
+
+    @Test
+    void applicationWritesContinueAfterTheGeneratedIds() {
+        Customer customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail("bench" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua B, 1");
+        assertTrue(customerRepository.save(customer).getId() > 100);
+
+        Long productId = jdbcTemplate.queryForObject(
+                "select min(id) from products where availability and stock is null", Long.class);
+        OrderDetailDTO detail = new OrderDetailDTO();
+        detail.setProductId(productId);
+        detail.setQuantity(1);
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customer.getId());
+        orderDTO.setStatus("NEW");
+        orderDTO.setOrderDate(new Date());
+        orderDTO.setOrderDetails(new ArrayList<>(List.of(detail)));
+        Order order = orderService.saveOrder(orderDTO);
+
+        assertTrue(order.getId() > 1000, () -> "order id " + order.getId());
+        assertTrue(order.getOrderDetails().get(0).getId() > lastGeneratedLine());
+    }
+
+    private long lastGeneratedLine() {
+        return count("select max(id) from order_details where order_id <= 1000");
+    }
+
+    private long count(String sql) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.MenuStream.controller;
+
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.QueryBudget;
+import com.example.MenuStream.SqlStatementCounter;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.ProductRepository;
+import com.example.MenuStream.service.OrderService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Quantidade de comandos SQL de cada leitura de /orders: fixa, nao importa quantos pedidos e itens a pagina tem
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderControllerTests {
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+    private String status;
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = QueryBudget.mockMvc(context);
+        status = "READ-" + System.nanoTime();
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Product product = new Product();
+            product.setName("Prato " + i);
+            product.setPrice(Money.ofCents(1000 + i * 100L));
+            product.setCategory("Leitura");
+            product.setAvailability(true);
+            products.add(productRepository.save(product));
+        }
+        orders.clear();
+        for (int i = 0; i < 120; i++) {
+            Customer customer = new Customer();
+            customer.setName("Cliente " + i);
+            customer.setEmail("read" + i + "-" + System.nanoTime() + "@menustream.com");
+            customer.setDeliveryAddress("Rua H, " + i);
+            customer = customerRepository.save(customer);
+
+            OrderDTO orderDTO = new OrderDTO();
+            orderDTO.setCustomerId(customer.getId());
+            orderDTO.setStatus(status);
+            orderDTO.setOrderDate(new Date(1_700_000_000_000L + i * 1000L));
+            List<OrderDetailDTO> details = new ArrayList<>();
+            for (int line = 0; line <= i % 5; line++) {
+                OrderDetailDTO detail = new OrderDetailDTO();
+                detail.setProductId(products.get(line).getId());
+                detail.setQuantity(line + 1);
+                details.add(detail);
+            }
+            orderDTO.setOrderDetails(details);
+            orders.add(orderService.saveOrder(orderDTO));
+        }
+    }
+
+    @Test
+    void orderPageLoadsInTwoStatements() throws Exception {
+        SqlStatementCounter.reset();
+        JsonNode page = read("/orders?status=" + status + "&size=100", 2);
+        // pedidos da pagina + itens/produtos desses pedidos
+        assertEquals(2, SqlStatementCounter.statements().size(), () -> SqlStatementCounter.statements().toString());
+
+        assertEquals(100, page.get("items").size());
+        JsonNode first = page.get("items").get(0);
+        assertEquals(orders.get(0).getId(), first.get("id").asLong());
+        assertEquals(orders.get(0).getCustomer().getId(), first.get("customerId").asLong());
+        assertEquals(1, first.get("orderDetails").size());
+        assertEquals("Prato 0", first.get("orderDetails").get(0).get("productName").asText());
+        assertEquals(5, page.get("items").get(4).get("orderDetails").size());
+
+        SqlStatementCounter.reset();
+        JsonNode last = read("/orders?status=" + status + "&size=100&cursor=" + page.get("nextCursor").asText(), 2);
+        assertEquals(2, SqlStatementCounter.statements().size(), () -> SqlStatementCounter.statements().toString());
+        assertEquals(20, last.get("items").size());
+        assertTrue(last.get("nextCursor").isNull());
+    }
+
+    @Test
+    void singleOrderLoadsInOneStatement() throws Exception {
+        Order order = orders.get(4);
+        SqlStatementCounter.reset();
+        JsonNode body = read("/orders/" + order.getId(), 1);
+        assertEquals(1, SqlStatementCounter.statements().size(), () -> SqlStatementCounter.statements().toString());
+
+        assertEquals(order.getId(), body.get("id").asLong());
+        assertEquals(5, body.get("orderDetails").size());
+        assertEquals(order.getTotalAmount(), objectMapper.treeToValue(body.get("totalAmount"), Money.class));
+    }
+
+    @Test
+    void everyResponseCarriesItsSqlBudget() throws Exception {
+        mockMvc.perform(get("/orders/" + orders.get(0).getId()))
+                .andExpect(header().string("Server-Timing", matchesPattern(
+                        "db;dur=\\d+\\.\\d{3};desc=\"statements=1 repeated=0\"")));
+        mockMvc.perform(delete("/orders/" + orders.get(1).getId()))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(QueryBudget.atMost(6));
+    }
+
+    @Test
+    void cursorWalksEveryOrderOnceInOrder() throws Exception {
+        assertEquals(ids(orders), walk("/orders?status=" + status + "&size=25", null));
+
+        // Intervalo [from, to): do pedido 10 ao 49
+        String range = "&from=" + orders.get(10).getOrderDate().toInstant()
+                + "&to=" + orders.get(50).getOrderDate().toInstant();
+        assertEquals(ids(orders.subList(10, 50)), walk("/orders?status=" + status + "&size=7" + range, null));
+    }
+
+    @Test
+    void pagingIsStableUnderConcurrentInserts() throws Exception {
+        JsonNode first = read("/orders?status=" + status + "&size=50", 2);
+        List<Long> seen = new ArrayList<>();
+        first.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+        assertEquals(ids(orders.subList(0, 50)), seen);
+
+        // Gravados entre uma pagina e outra: antes do cursor (nao aparece), empatado com a ultima linha lida
+        // (id maior, vem logo em seguida) e depois de todos (vem no fim)
+        orderService.saveOrder(order(orders.get(10).getOrderDate()));
+        Order tie = orderService.saveOrder(order(orders.get(49).getOrderDate()));
+        Order late = orderService.saveOrder(order(new Date(orders.get(119).getOrderDate().getTime() + 1000)));
+
+        List<Long> rest = walk("/orders?status=" + status + "&size=50", first.get("nextCursor").asText());
+        List<Long> expected = new ArrayList<>();
+        expected.add(tie.getId());
+        expected.addAll(ids(orders.subList(50, 120)));
+        expected.add(late.getId());
+        assertEquals(expected, rest);
+    }
+
+    @Test
+    void pageSizeIsCappedAt200() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            orderService.saveOrder(order(new Date(1_800_000_000_000L + i * 1000L)));
+        }
+
+        JsonNode page = read("/orders?status=" + status + "&size=500", 2);
+        assertEquals(200, page.get("items").size());
+        assertTrue(page.get("nextCursor").isTextual());
+        assertEquals(20, read("/orders?status=" + status + "&size=500&cursor=" + page.get("nextCursor").asText(), 2)
+                .get("items").size());
+    }
+
+    @Test
+    void invalidCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/orders?cursor=not-a-cursor!")).andExpect(status().isBadRequest());
+        // Base64 valido, mas com uma chave so (o cursor de /products)
+        mockMvc.perform(get("/orders?cursor=MTIz")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/orders?cursor=YWJjOjE")).andExpect(status().isBadRequest());
+    }
+
+    // Percorre as paginas de uri a partir do cursor (null: do inicio) e devolve os ids na ordem recebida
+    private List<Long> walk(String uri, String cursor) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        do {
+            JsonNode page = read(cursor == null ? uri : uri + "&cursor=" + cursor, 2);
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).toList();
+    }
+
+    private OrderDTO order(Date orderDate) {
+        OrderDetailDTO detail = new OrderDetailDTO();
+        detail.setProductId(orders.get(0).getOrderDetails().get(0).getProduct().getId());
+        detail.setQuantity(1);
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(orders.get(0).getCustomer().getId());
+        orderDTO.setStatus(status);
+        orderDTO.setOrderDate(orderDate);
+        orderDTO.setOrderDetails(new ArrayList<>(List.of(detail)));
+        return orderDTO;
+    }
+
+    private JsonNode read(String uri, int budget) throws Exception {
+        String json = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(budget))
+                .andExpect(QueryBudget.noRepeatedStatements())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(json);
+    }
+}
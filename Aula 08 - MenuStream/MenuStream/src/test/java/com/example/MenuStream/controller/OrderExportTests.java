@@ -0,0 +1,161 @@
+package com.example.MenuStream.controller;
+
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.ProductRepository;
+import com.example.MenuStream.service.OrderArchiveService;
+import com.example.MenuStream.service.OrderService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// GET /orders/export: mais pedidos que o fetch size do cursor (500), parte deles ja no arquivo
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderExportTests {
+
+    private static final long DAY = Duration.ofDays(1).toMillis();
+    private static final int IN_RANGE = 520;
+    private static final int ARCHIVED = 10;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+    // Faixa de datas so deste teste, longe dos pedidos das outras classes
+    private final Instant from = Instant.parse("2001-03-01T00:00:00Z");
+    private final Instant to = from.plusSeconds(IN_RANGE);
+    private final Set<Long> hot = new HashSet<>();
+    private final Set<Long> archived = new HashSet<>();
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        Customer customer = new Customer();
+        customer.setName("Contabilidade");
+        customer.setEmail("export" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua E, 1");
+        Long customerId = customerRepository.save(customer).getId();
+        Product product = new Product();
+        product.setName("Prato exportado");
+        product.setPrice(Money.of("20.00"));
+        product.setCategory("Exportacao");
+        product.setAvailability(true);
+        productId = productRepository.save(product).getId();
+
+        // Um pedido por segundo em [from, to); os primeiros ja entregues (e depois arquivados)
+        for (int i = 0; i < IN_RANGE; i++) {
+            Date fulfilled = i < ARCHIVED ? new Date(from.toEpochMilli() - DAY) : null;
+            Long id = orderService.saveOrder(order(customerId, from.plusSeconds(i), fulfilled)).getId();
+            (i < ARCHIVED ? archived : hot).add(id);
+        }
+        // Fora do intervalo: um segundo antes de from e exatamente em to (fim exclusivo)
+        orderService.saveOrder(order(customerId, from.minusSeconds(1), null));
+        orderService.saveOrder(order(customerId, to, null));
+
+        orderArchiveService.archive(new Date(from.toEpochMilli()));
+    }
+
+    @Test
+    void exportStreamsOneOrderPerLineIncludingTheArchive() throws Exception {
+        List<JsonNode> lines = export("");
+
+        assertEquals(IN_RANGE, lines.size());
+        Set<Long> ids = new HashSet<>();
+        for (JsonNode line : lines) {
+            ids.add(line.get("id").asLong());
+            Instant orderDate = Instant.ofEpochMilli(objectMapper.convertValue(line.get("orderDate"), Date.class).getTime());
+            assertTrue(!orderDate.isBefore(from) && orderDate.isBefore(to), () -> "out of range: " + line);
+            assertEquals(productId, line.get("orderDetails").get(0).get("productId").asLong());
+            assertEquals(2, line.get("orderDetails").get(0).get("quantity").asInt());
+        }
+        Set<Long> expected = new HashSet<>(hot);
+        expected.addAll(archived);
+        assertEquals(expected, ids);
+
+        // As tabelas quentes primeiro, o arquivo no fim
+        Set<Long> tail = new HashSet<>();
+        lines.subList(IN_RANGE - ARCHIVED, IN_RANGE).forEach(line -> tail.add(line.get("id").asLong()));
+        assertEquals(archived, tail);
+
+        // Sem o arquivo, so os pedidos das tabelas quentes
+        List<JsonNode> hotLines = export("&includeArchived=false");
+        Set<Long> hotIds = new HashSet<>();
+        hotLines.forEach(line -> hotIds.add(line.get("id").asLong()));
+        assertEquals(IN_RANGE - ARCHIVED, hotLines.size());
+        assertEquals(hot, hotIds);
+    }
+
+    private List<JsonNode> export(String params) throws Exception {
+        MvcResult started = mockMvc.perform(get("/orders/export?from=" + from + "&to=" + to + params))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(body.endsWith("\n"));
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            // Um objeto JSON completo por linha
+            JsonNode node = objectMapper.readTree(line);
+            assertTrue(node.isObject(), line);
+            lines.add(node);
+        }
+        return lines;
+    }
+
+    private OrderDTO order(Long customerId, Instant orderDate, Date fulfillmentDate) {
+        OrderDetailDTO detail = new OrderDetailDTO();
+        detail.setProductId(productId);
+        detail.setQuantity(2);
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customerId);
+        orderDTO.setStatus(fulfillmentDate == null ? "PENDING" : "DELIVERED");
+        orderDTO.setOrderDate(Date.from(orderDate));
+        orderDTO.setFulfillmentDate(fulfillmentDate);
+        orderDTO.setOrderDetails(new ArrayList<>(List.of(detail)));
+        return orderDTO;
+    }
+}
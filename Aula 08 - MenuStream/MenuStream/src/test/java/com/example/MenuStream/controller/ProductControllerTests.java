@@ -0,0 +1,313 @@
+package com.example.MenuStream.controller;
+
+import com.example.MenuStream.QueryBudget;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.model.ProductTombstone;
+import com.example.MenuStream.repository.ProductTombstoneRepository;
+import com.example.MenuStream.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// GET /products: cardapio servido da memoria, com ETag estavel entre leituras e nova a cada alteracao.
+// GET /products/search: indice em memoria atualizado pelas escritas do ProductService.
+// GET /products/changes: delta desde a versao do cliente, ou o cardapio inteiro quando nao ha como montar o delta
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductControllerTests {
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductTombstoneRepository productTombstoneRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = QueryBudget.mockMvc(context);
+        product = new Product();
+        product.setName("Moqueca " + System.nanoTime());
+        product.setPrice(Money.of("42.00"));
+        product.setCategory("Cardapio");
+        product.setAvailability(true);
+        product = productService.saveProduct(product);
+    }
+
+    @Test
+    void etagIsStableAcrossReadsAndMatchingIfNoneMatchGets304() throws Exception {
+        MvcResult first = mockMvc.perform(get("/products")).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Leituras seguintes nao tocam no banco e devolvem os mesmos bytes com a mesma tag
+        MvcResult second = mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(QueryBudget.atMost(0))
+                .andReturn();
+        assertArrayEquals(first.getResponse().getContentAsByteArray(), second.getResponse().getContentAsByteArray());
+        assertTrue(names(second).contains(product.getName()));
+
+        // gzip e o mesmo JSON
+        MvcResult gzip = mockMvc.perform(get("/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getResponse().getContentAsByteArray()))) {
+            assertArrayEquals(first.getResponse().getContentAsByteArray(), in.readAllBytes());
+        }
+
+        for (String ifNoneMatch : new String[]{etag, "W/" + etag, "\"0-old\", " + etag}) {
+            MvcResult notModified = mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(QueryBudget.atMost(0))
+                    .andReturn();
+            assertEquals(0, notModified.getResponse().getContentAsByteArray().length);
+        }
+    }
+
+    @Test
+    void updateChangesTheVersionAndTheEtag() throws Exception {
+        String before = mockMvc.perform(get("/products")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        long version = productService.getMenuSnapshot().version();
+
+        Product details = new Product();
+        details.setName(product.getName() + " baiana");
+        details.setPrice(product.getPrice());
+        details.setCategory(product.getCategory());
+        details.setAvailability(true);
+        mockMvc.perform(put("/products/" + product.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(details)))
+                .andExpect(status().isOk());
+
+        assertEquals(version + 1, productService.getMenuSnapshot().version());
+        // A tag antiga nao vale mais: o cliente recebe o cardapio novo com a tag nova
+        MvcResult after = mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = after.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(before, etag);
+        assertTrue(etag.startsWith("\"" + (version + 1) + "-"), etag);
+        assertTrue(names(after).contains(details.getName()));
+        assertFalse(names(after).contains(product.getName()));
+    }
+
+    @Test
+    void menuKeepsItsOwnCopyOfEachProduct() {
+        // Mexer na entidade devolvida pela escrita nao altera o cardapio publicado
+        product.setName("Alterado fora do servico");
+        product.setAvailability(false);
+
+        Product menu = productService.getMenuProduct(product.getId());
+        assertNotEquals(product.getName(), menu.getName());
+        assertTrue(menu.isAvailability());
+    }
+
+    @Test
+    void searchFollowsCreateUpdateAndDelete() throws Exception {
+        long run = System.nanoTime();
+        Product created = new Product();
+        created.setName("Tapioca" + run + " de Coco");
+        created.setPrice(Money.of("12.00"));
+        created.setCategory("Lanches");
+        created.setAvailability(true);
+        Long id = productService.saveProduct(created).getId();
+        assertEquals(List.of(id), searchIds("tapioca" + run));
+
+        // Renomeado: some da busca pelo nome antigo e aparece pelo novo
+        created.setName("Cuscuz Nordestino " + run);
+        productService.updateProduct(id, created);
+        assertEquals(List.of(), searchIds("tapioca" + run));
+        assertEquals(List.of(id), searchIds("cuscuz " + run));
+
+        productService.deleteProduct(id);
+        assertEquals(List.of(), searchIds("cuscuz " + run));
+    }
+
+    @Test
+    void searchPagesAreCappedAt200() throws Exception {
+        String token = "Coxinha" + System.nanoTime();
+        for (int i = 0; i < 201; i++) {
+            Product coxinha = new Product();
+            coxinha.setName(token + " " + i);
+            coxinha.setPrice(Money.of("6.00"));
+            coxinha.setCategory("Salgados");
+            coxinha.setAvailability(true);
+            productService.saveProduct(coxinha);
+        }
+
+        JsonNode page = search("q=" + token + "&size=1000");
+        assertEquals(200, page.get("items").size());
+        assertEquals(200, page.get("size").asInt());
+        assertEquals(201, page.get("total").asInt());
+        assertEquals(1, search("q=" + token + "&size=1000&page=1").get("items").size());
+    }
+
+    @Test
+    void changesListUpdatesAndTombstonesAfterSince() throws Exception {
+        long since = changes(0).get("version").asLong();
+        Long created = save("Acaraje").getId();
+        Product details = new Product();
+        details.setName(product.getName());
+        details.setPrice(Money.of("45.00"));
+        details.setCategory(product.getCategory());
+        details.setAvailability(true);
+        productService.updateProduct(product.getId(), details);
+        Long deleted = save("Vatapa").getId();
+        productService.deleteProduct(deleted);
+
+        JsonNode delta = changes(since);
+        assertFalse(delta.get("full").asBoolean());
+        assertEquals(since + 4, delta.get("version").asLong());
+        // Em ordem de versao; o produto criado e excluido no intervalo so aparece como exclusao
+        assertEquals(List.of(created, product.getId()), ids(delta.get("changed")));
+        assertEquals(45.0, delta.get("changed").get(1).get("price").asDouble());
+        assertEquals(List.of(deleted), ids(delta.get("deleted")));
+
+        // Em dia: nada a enviar
+        JsonNode current = changes(since + 4);
+        assertFalse(current.get("full").asBoolean());
+        assertEquals(since + 4, current.get("version").asLong());
+        assertTrue(current.get("changed").isEmpty());
+        assertTrue(current.get("deleted").isEmpty());
+    }
+
+    @Test
+    void sinceNewerThanTheCurrentVersionGetsTheFullMenu() throws Exception {
+        long version = changes(0).get("version").asLong();
+
+        // Versao que este banco nunca teve (por exemplo, de antes de recriar a base)
+        JsonNode resync = changes(version + 1000);
+        assertTrue(resync.get("full").asBoolean());
+        assertEquals(version, resync.get("version").asLong());
+        assertEquals(productService.getMenuSnapshot().products().size(), resync.get("changed").size());
+        assertTrue(ids(resync.get("changed")).contains(product.getId()));
+        assertTrue(resync.get("deleted").isEmpty());
+    }
+
+    @Test
+    void sinceOlderThanTheRetainedTombstonesGetsTheFullMenu() throws Exception {
+        long since = changes(0).get("version").asLong();
+        Long first = save("Bobo").getId();
+        Long second = save("Caruru").getId();
+        productService.deleteProduct(first);
+        productService.deleteProduct(second);
+
+        // Exclusoes de 31 dias atras: o expurgo apaga a primeira e guarda a segunda como marco
+        for (Long id : List.of(first, second)) {
+            ProductTombstone tombstone = productTombstoneRepository.findById(id).orElseThrow();
+            tombstone.setDeletedAt(new Date(System.currentTimeMillis() - Duration.ofDays(31).toMillis()));
+            productTombstoneRepository.save(tombstone);
+        }
+        productService.purgeTombstones();
+        assertFalse(productTombstoneRepository.existsById(first));
+        assertTrue(productTombstoneRepository.existsById(second));
+
+        // A exclusao de "first" ja nao pode ser informada: cardapio inteiro, sem os dois produtos
+        JsonNode resync = changes(since);
+        assertTrue(resync.get("full").asBoolean());
+        assertEquals(since + 4, resync.get("version").asLong());
+        List<Long> menu = ids(resync.get("changed"));
+        assertTrue(menu.contains(product.getId()));
+        assertFalse(menu.contains(first) || menu.contains(second));
+        assertTrue(resync.get("deleted").isEmpty());
+
+        // Quem ja tinha visto a primeira exclusao continua no delta
+        JsonNode delta = changes(since + 3);
+        assertFalse(delta.get("full").asBoolean());
+        assertEquals(List.of(second), ids(delta.get("deleted")));
+    }
+
+    @Test
+    void deletingAMissingProductChangesNothing() throws Exception {
+        long version = changes(0).get("version").asLong();
+        long tombstones = productTombstoneRepository.count();
+        Long missing = product.getId() + 1_000_000;
+
+        mockMvc.perform(delete("/products/" + missing)).andExpect(status().isNotFound());
+
+        assertEquals(version, productService.getMenuSnapshot().version());
+        assertEquals(tombstones, productTombstoneRepository.count());
+        assertFalse(productTombstoneRepository.existsById(missing));
+        JsonNode current = changes(version);
+        assertFalse(current.get("full").asBoolean());
+        assertEquals(version, current.get("version").asLong());
+        assertTrue(current.get("deleted").isEmpty());
+    }
+
+    private List<String> names(MvcResult result) throws Exception {
+        List<String> names = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(result.getResponse().getContentAsByteArray())) {
+            names.add(node.get("name").asText());
+        }
+        return names;
+    }
+
+    private Product save(String name) {
+        Product created = new Product();
+        created.setName(name + " " + System.nanoTime());
+        created.setPrice(Money.of("30.00"));
+        created.setCategory("Cardapio");
+        created.setAvailability(true);
+        return productService.saveProduct(created);
+    }
+
+    private JsonNode changes(long since) throws Exception {
+        MvcResult result = mockMvc.perform(get("/products/changes?since=" + since))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+
+    private static List<Long> ids(JsonNode nodes) {
+        List<Long> ids = new ArrayList<>();
+        nodes.forEach(node -> ids.add(node.isObject() ? node.get("id").asLong() : node.asLong()));
+        return ids;
+    }
+
+    private List<Long> searchIds(String query) throws Exception {
+        return ids(search("q=" + query).get("items"));
+    }
+
+    private JsonNode search(String params) throws Exception {
+        MvcResult result = mockMvc.perform(get("/products/search?" + params.replace(" ", "+")))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+}
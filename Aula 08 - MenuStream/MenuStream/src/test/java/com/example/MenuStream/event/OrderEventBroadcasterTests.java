@@ -0,0 +1,188 @@
+package com.example.MenuStream.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderEventBroadcasterTests {
+
+    private OrderEventBroadcaster broadcaster;
+
+    @AfterEach
+    void stop() {
+        if (broadcaster != null) {
+            broadcaster.stop();
+        }
+    }
+
+    @Test
+    void deliversEveryEventInOrderAcrossBatches() {
+        start(1024, 2, Duration.ofSeconds(5));
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(emitter, null);
+
+        // Mais que um lote (256) para passar pelo reagendamento entre lotes
+        for (long id = 1; id <= 600; id++) {
+            broadcaster.publish(OrderEvent.deleted(id));
+        }
+
+        await(() -> emitter.ids().size() == 600);
+        assertEquals(LongStream.rangeClosed(1, 600).boxed().toList(), emitter.ids());
+        assertTrue(emitter.names().stream().allMatch("order-deleted"::equals));
+    }
+
+    @Test
+    void replaysEventsAfterLastEventId() {
+        start(1024, 2, Duration.ofSeconds(5));
+        for (long id = 1; id <= 5; id++) {
+            broadcaster.publish(OrderEvent.deleted(id));
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(emitter, 2L);
+        await(() -> emitter.ids().size() == 3);
+        broadcaster.publish(OrderEvent.deleted(6L));
+
+        await(() -> emitter.ids().size() == 4);
+        assertEquals(List.of(3L, 4L, 5L, 6L), emitter.ids());
+    }
+
+    @Test
+    void clientBehindTheBufferGetsResyncAndSkipsToTheNewestEvent() {
+        start(16, 2, Duration.ofSeconds(5));
+        for (long id = 1; id <= 40; id++) {
+            broadcaster.publish(OrderEvent.deleted(id));
+        }
+
+        // O evento 2 ja saiu do buffer (guarda 25..40)
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(emitter, 1L);
+        await(() -> emitter.ids().size() == 1);
+        broadcaster.publish(OrderEvent.deleted(41L));
+
+        await(() -> emitter.ids().size() == 2);
+        assertEquals(List.of("resync", "order-deleted"), emitter.names());
+        assertEquals(List.of(40L, 41L), emitter.ids());
+    }
+
+    @Test
+    void blockedSubscriberDoesNotDelayTheOthers() throws Exception {
+        // Uma thread de entrega so: sem o prazo de envio, o cliente preso seguraria o outro para sempre
+        start(1024, 1, Duration.ofMillis(200));
+        BlockingEmitter blocked = new BlockingEmitter();
+        broadcaster.subscribe(blocked, null);
+        broadcaster.publish(OrderEvent.deleted(1L));
+        blocked.entered.await();
+
+        RecordingEmitter healthy = new RecordingEmitter();
+        broadcaster.subscribe(healthy, 0L);
+        for (long id = 2; id <= 3; id++) {
+            broadcaster.publish(OrderEvent.deleted(id));
+        }
+
+        try {
+            await(() -> healthy.ids().size() == 3);
+            assertEquals(List.of(1L, 2L, 3L), healthy.ids());
+            // O cliente preso foi desconectado; ele reconecta com Last-Event-ID
+            await(() -> broadcaster.subscriberCount() == 1);
+        } finally {
+            blocked.release.countDown();
+        }
+    }
+
+    private void start(int capacity, int dispatcherThreads, Duration sendTimeout) {
+        broadcaster = new OrderEventBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "capacity", capacity);
+        ReflectionTestUtils.setField(broadcaster, "dispatcherThreads", dispatcherThreads);
+        ReflectionTestUtils.setField(broadcaster, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(broadcaster, "sendTimeout", sendTimeout);
+        broadcaster.start();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in 10s");
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    // Guarda id e nome de cada evento enviado; comentarios (o "connected" inicial) sao ignorados
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<Long> ids = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> {
+                if (part.getData() instanceof String chunk) {
+                    text.append(chunk);
+                }
+            });
+            Long id = null;
+            String name = null;
+            for (String line : text.toString().split("\n")) {
+                if (line.startsWith("id:")) {
+                    id = Long.parseLong(line.substring(3));
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                }
+            }
+            if (id != null) {
+                synchronized (this) {
+                    ids.add(id);
+                    names.add(name);
+                }
+            }
+        }
+
+        synchronized List<Long> ids() {
+            return List.copyOf(ids);
+        }
+
+        synchronized List<String> names() {
+            return List.copyOf(names);
+        }
+    }
+
+    // Simula um cliente que parou de ler: depois do "connected", todo envio fica preso e ignora interrupcoes,
+    // como uma escrita em socket com o buffer cheio
+    private static class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private boolean connected;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (!connected) {
+                connected = true;
+                return;
+            }
+            entered.countDown();
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                    // segue preso
+                }
+            }
+        }
+    }
+}
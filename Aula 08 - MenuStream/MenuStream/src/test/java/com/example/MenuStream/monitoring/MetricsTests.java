@@ -0,0 +1,131 @@
+package com.example.MenuStream.monitoring;
+
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.ProductRepository;
+import com.example.MenuStream.service.OrderService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MetricsTests {
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private PrometheusMeterRegistry prometheus;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void createdOrdersFeedTheBusinessMeters() {
+        double created = registry.get("menustream.orders").tag("event", "order-created").counter().count();
+        DistributionSummary lines = registry.get("menustream.order.lines").summary();
+        long ordersBefore = lines.count();
+        double linesBefore = lines.totalAmount();
+
+        orderService.saveOrder(order(3));
+        Order order = orderService.saveOrder(order(1));
+        orderService.deleteOrder(order.getId());
+
+        assertEquals(created + 2, registry.get("menustream.orders").tag("event", "order-created").counter().count());
+        assertTrue(registry.get("menustream.orders").tag("event", "order-deleted").counter().count() >= 1);
+        assertEquals(ordersBefore + 2, lines.count());
+        assertEquals(linesBefore + 4, lines.totalAmount());
+        assertTrue(prometheus.scrape().contains("menustream_order_lines_bucket{"));
+    }
+
+    @Test
+    void repositoriesPoolAndHibernateAreInstrumented() {
+        customerRepository.findAll();
+
+        Timer findAll = registry.get("spring.data.repository.invocations")
+                .tag("repository", "CustomerRepository")
+                .tag("method", "findAll")
+                .timer();
+        assertTrue(findAll.count() >= 1);
+        assertTrue(prometheus.scrape().contains("spring_data_repository_invocations_seconds_bucket{"));
+        assertNotNull(registry.get("hikaricp.connections.pending").gauge());
+        assertNotNull(registry.get("hikaricp.connections.active").gauge());
+        assertTrue(registry.get("hibernate.sessions.open").functionCounter().count() >= 1);
+    }
+
+    @Test
+    void endpointsGetLatencyHistograms() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(observationFilter()).build();
+        mockMvc.perform(get("/products")).andExpect(status().isOk());
+
+        Timer timer = registry.get("http.server.requests").tag("uri", "/products").tag("method", "GET").timer();
+        assertTrue(timer.count() >= 1);
+        String scrape = prometheus.scrape();
+        assertTrue(scrape.lines().anyMatch(line -> line.startsWith("http_server_requests_seconds_bucket{")
+                && line.contains("uri=\"/products\"")), "no histogram buckets for /products");
+    }
+
+    private Filter observationFilter() {
+        return context.getBeansOfType(FilterRegistrationBean.class).values().stream()
+                .map(FilterRegistrationBean::getFilter)
+                .filter(ServerHttpObservationFilter.class::isInstance)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private OrderDTO order(int lineCount) {
+        Customer customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail("metrics" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua M, 10");
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customerRepository.save(customer).getId());
+        orderDTO.setStatus("NEW");
+        orderDTO.setOrderDate(new Date());
+        List<OrderDetailDTO> details = new ArrayList<>();
+        for (int i = 0; i < lineCount; i++) {
+            Product product = new Product();
+            product.setName("Metrica " + i);
+            product.setPrice(Money.of("10.00"));
+            product.setCategory("Metricas");
+            product.setAvailability(true);
+            OrderDetailDTO detail = new OrderDetailDTO();
+            detail.setProductId(productRepository.save(product).getId());
+            detail.setQuantity(1);
+            details.add(detail);
+        }
+        orderDTO.setOrderDetails(details);
+        return orderDTO;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.MenuStream.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlRequestStatsTests {
+
+    @Test
+    void literalsAndInListsCollapseIntoOneShape() {
+        assertEquals("select p.id from product p where p.id in (...) and p.name=? and p.stock>?",
+                SqlRequestStats.shape("select p.id from product p\n where p.id in (?, ?,?) and p.name='O''Hara' and p.stock>10"));
+        assertEquals("select p1_0.id from products p1_0 where p1_0.id=?",
+                SqlRequestStats.shape("select p1_0.id from products p1_0 where p1_0.id=?"));
+    }
+
+    @Test
+    void lazyLoadsInALoopShowUpAsRepeatedShape() {
+        SqlRequestStats stats = new SqlRequestStats();
+        stats.statement("select o1_0.id from orders o1_0");
+        for (int i = 0; i < 7; i++) {
+            stats.statement("select p1_0.id,p1_0.name from products p1_0 where p1_0.id=?");
+        }
+        stats.statement("select c1_0.id from customer c1_0 where c1_0.id in (?,?)");
+        stats.statement("select c1_0.id from customer c1_0 where c1_0.id in (?,?,?,?)");
+
+        assertEquals(10, stats.statements());
+        assertEquals(Map.of("select p1_0.id,p1_0.name from products p1_0 where p1_0.id=?", 7), stats.repeated(5));
+        assertEquals(2, stats.repeated(2).size());
+    }
+}
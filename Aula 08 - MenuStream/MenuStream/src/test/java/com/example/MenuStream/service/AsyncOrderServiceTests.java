@@ -0,0 +1,170 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.DTO.OrderStatusDTO;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AsyncOrderServiceTests {
+
+    @Autowired
+    private AsyncOrderService asyncOrderService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Long customerId;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        customerId = customer("async");
+        product = new Product();
+        product.setName("Marmita");
+        product.setPrice(Money.of("20.00"));
+        product.setCategory("Async");
+        product.setAvailability(true);
+        product = productService.saveProduct(product);
+    }
+
+    @Test
+    void acceptedOrdersAreWrittenWithTheirReservedIds() throws Exception {
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderStatusDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return asyncOrderService.accept(order(customerId, 2));
+            }));
+        }
+        start.countDown();
+        Set<Long> ids = new HashSet<>();
+        for (Future<OrderStatusDTO> future : futures) {
+            OrderStatusDTO accepted = future.get();
+            assertEquals(AsyncOrderService.QUEUED, accepted.state());
+            assertEquals("/orders/" + accepted.orderId() + "/status", accepted.statusUrl());
+            ids.add(accepted.orderId());
+        }
+        executor.shutdown();
+        assertEquals(threads, ids.size());
+
+        for (Long id : ids) {
+            assertEquals(AsyncOrderService.CREATED, asyncOrderService.awaitStatus(id, 10).get(10, TimeUnit.SECONDS).state());
+            Order order = orderService.getOrderById(id);
+            // 2 x 20,00 + 10%
+            assertEquals(Money.of("44"), order.getTotalAmount());
+        }
+
+        // Os pedidos sincronos continuam usando a mesma sequencia sem colidir com os ids reservados
+        Order sync = orderService.saveOrder(order(customerId, 1));
+        assertFalse(ids.contains(sync.getId()));
+        assertEquals(threads, orderRepository.findAllById(ids).size());
+    }
+
+    @Test
+    void fullQueueRejectsAndFailedWritesReleaseStock() throws Exception {
+        stockService.setStock(product.getId(), 1000);
+        Long doomed = customer("doomed");
+        ReentrantLock writer = asyncOrderService.writerLock();
+        List<OrderStatusDTO> accepted = new ArrayList<>();
+        OrderStatusDTO failing;
+
+        writer.lock();
+        try {
+            failing = asyncOrderService.accept(order(doomed, 5));
+            ResponseStatusException full = null;
+            while (full == null) {
+                try {
+                    accepted.add(asyncOrderService.accept(order(customerId, 1)));
+                } catch (ResponseStatusException e) {
+                    full = e;
+                }
+            }
+            assertEquals(503, full.getStatusCode().value());
+            assertEquals(63, accepted.size());
+            assertEquals(1000 - 5 - 63, stockService.getStock(product.getId()).stock());
+
+            // O cliente some antes do pedido ser gravado: a chave estrangeira derruba o lote
+            customerRepository.deleteById(doomed);
+        } finally {
+            writer.unlock();
+        }
+
+        OrderStatusDTO failed = asyncOrderService.awaitStatus(failing.orderId(), 10).get(10, TimeUnit.SECONDS);
+        assertEquals(AsyncOrderService.FAILED, failed.state());
+        assertNotNull(failed.error());
+        for (OrderStatusDTO status : accepted) {
+            assertEquals(AsyncOrderService.CREATED,
+                    asyncOrderService.awaitStatus(status.orderId(), 10).get(10, TimeUnit.SECONDS).state());
+        }
+        assertEquals(1000 - 63, stockService.getStock(product.getId()).stock());
+    }
+
+    @Test
+    void invalidOrdersAreRejectedBeforeQueueing() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> asyncOrderService.accept(order(-1L, 1)));
+        assertEquals(400, e.getStatusCode().value());
+        assertEquals(404, assertThrows(ResponseStatusException.class,
+                () -> asyncOrderService.getStatus(-1L)).getStatusCode().value());
+    }
+
+    private Long customer(String prefix) {
+        Customer customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail(prefix + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua G, 70");
+        return customerRepository.save(customer).getId();
+    }
+
+    private OrderDTO order(Long customerId, int quantity) {
+        OrderDetailDTO detail = new OrderDetailDTO();
+        detail.setProductId(product.getId());
+        detail.setQuantity(quantity);
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customerId);
+        orderDTO.setStatus("NEW");
+        orderDTO.setOrderDate(new Date());
+        orderDTO.setOrderDetails(new ArrayList<>(List.of(detail)));
+        return orderDTO;
+    }
+}
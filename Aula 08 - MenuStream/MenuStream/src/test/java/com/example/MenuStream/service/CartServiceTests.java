@@ -0,0 +1,205 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.CartDTO;
+import com.example.MenuStream.SqlStatementCounter;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartServiceTests {
+
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Grava o que outros testes deixaram pendente e esvazia a memoria
+        cartService.flush();
+        cartService.evictIdle(-1);
+        products.clear();
+        for (int i = 0; i < 8; i++) {
+            Product product = new Product();
+            product.setName("Item " + i);
+            product.setPrice(Money.ofCents((2 + i) * 100L));
+            product.setCategory("Carrinho");
+            product.setAvailability(true);
+            products.add(productService.saveProduct(product));
+        }
+    }
+
+    @Test
+    void tapsChangeTheCartWithoutTouchingTheDatabase() {
+        Long customerId = customer();
+        cartService.getCart(customerId);
+
+        SqlStatementCounter.reset();
+        cartService.addItem(customerId, products.get(0).getId(), 2);
+        cartService.addItem(customerId, products.get(0).getId(), 1);
+        cartService.addItem(customerId, products.get(1).getId(), 1);
+        cartService.setItem(customerId, products.get(2).getId(), 4);
+        CartDTO cart = cartService.removeItem(customerId, products.get(2).getId());
+
+        assertEquals(List.of(), SqlStatementCounter.statements());
+        assertEquals(2, cart.items().size());
+        assertEquals(3, cart.items().get(0).quantity());
+        // 2 * 3 + 3 * 1
+        assertEquals(Money.of("9"), cart.subtotal());
+    }
+
+    @Test
+    void flushWritesAllPendingCartsInBatches() {
+        List<Long> few = customers(5);
+        List<Long> many = customers(40);
+
+        taps(few);
+        SqlStatementCounter.reset();
+        cartService.flush();
+        int fewStatements = SqlStatementCounter.statements().size();
+
+        taps(many);
+        SqlStatementCounter.reset();
+        cartService.flush();
+        int manyStatements = SqlStatementCounter.statements().size();
+
+        // 1 SELECT dos carrinhos + 1 lote de INSERT em shopping_carts + 1 lote de INSERT em cart_items
+        assertEquals(3, fewStatements, () -> SqlStatementCounter.statements().toString());
+        assertEquals(fewStatements, manyStatements, () -> SqlStatementCounter.statements().toString());
+    }
+
+    @Test
+    void evictedCartsAreRestoredFromTheDatabase() {
+        Long customerId = customer();
+        cartService.addItem(customerId, products.get(3).getId(), 2);
+        cartService.addItem(customerId, products.get(4).getId(), 5);
+
+        // Pendente: nao pode sair da memoria antes de ser gravado
+        assertEquals(0, cartService.evictIdle(-1));
+        cartService.flush();
+        assertTrue(cartService.evictIdle(-1) >= 1);
+        assertEquals(0, cartService.activeCarts());
+
+        CartDTO restored = cartService.getCart(customerId);
+        assertEquals(List.of(products.get(3).getId(), products.get(4).getId()),
+                restored.items().stream().map(CartDTO.Line::productId).toList());
+        assertEquals(List.of(2, 5), restored.items().stream().map(CartDTO.Line::quantity).toList());
+
+        // Alteracao depois da restauracao: item removido tambem some do banco
+        cartService.removeItem(customerId, products.get(3).getId());
+        cartService.flush();
+        cartService.evictIdle(-1);
+        assertEquals(1, cartService.getCart(customerId).items().size());
+    }
+
+    @Test
+    void deletedProductOrCustomerDoesNotHoldBackTheOtherCarts() {
+        List<Long> customers = customers(3);
+        Product doomed = products.get(5);
+        cartService.addItem(customers.get(0), products.get(0).getId(), 1);
+        cartService.addItem(customers.get(1), doomed.getId(), 2);
+        cartService.addItem(customers.get(1), products.get(1).getId(), 3);
+        cartService.addItem(customers.get(2), products.get(2).getId(), 1);
+        Long goneCustomer = customer();
+        cartService.addItem(goneCustomer, products.get(3).getId(), 1);
+
+        // Apagados com os carrinhos ainda pendentes: o INSERT dos itens falha no commit do lote
+        productService.deleteProduct(doomed.getId());
+        customerRepository.deleteById(goneCustomer);
+        cartService.flush();
+
+        // Todos gravados (o do produto apagado sem a linha dele) e fora da memoria, sem nada pendente
+        cartService.evictIdle(-1);
+        assertEquals(0, cartService.activeCarts());
+        cartService.flush();
+        assertEquals(1, cartService.getCart(customers.get(0)).items().size());
+        assertEquals(List.of(products.get(1).getId()),
+                cartService.getCart(customers.get(1)).items().stream().map(CartDTO.Line::productId).toList());
+        assertEquals(1, cartService.getCart(customers.get(2)).items().size());
+    }
+
+    @Test
+    void concurrentTapsAreNotLost() throws Exception {
+        List<Long> customers = customers(20);
+        int threads = products.size();
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Long productId = products.get(t).getId();
+            futures.add(executor.submit(() -> {
+                for (int round = 0; round < 50; round++) {
+                    for (Long customerId : customers) {
+                        cartService.addItem(customerId, productId, 1);
+                    }
+                }
+            }));
+        }
+        // Flush e expiracao rodando ao mesmo tempo que os toques
+        Future<?> background = executor.submit(() -> {
+            while (futures.stream().anyMatch(future -> !future.isDone())) {
+                cartService.flush();
+                cartService.evictIdle(-1);
+            }
+        });
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        background.get();
+        executor.shutdown();
+
+        cartService.flush();
+        cartService.evictIdle(-1);
+        for (Long customerId : customers) {
+            CartDTO cart = cartService.getCart(customerId);
+            assertEquals(threads, cart.items().size());
+            cart.items().forEach(line -> assertEquals(50, line.quantity()));
+        }
+    }
+
+    private void taps(List<Long> customerIds) {
+        for (Long customerId : customerIds) {
+            for (int i = 0; i < 10; i++) {
+                cartService.addItem(customerId, products.get(i % 3).getId(), 1);
+            }
+        }
+    }
+
+    private List<Long> customers(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(customer());
+        }
+        // Carrega os carrinhos (vazios) antes de medir
+        ids.forEach(cartService::getCart);
+        return ids;
+    }
+
+    private Long customer() {
+        Customer customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail("cart" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua C, 30");
+        return customerRepository.save(customer).getId();
+    }
+}
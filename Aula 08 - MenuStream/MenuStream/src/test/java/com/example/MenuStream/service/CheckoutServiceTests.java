@@ -0,0 +1,191 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.IdempotentResponse;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.IdempotencyRecord;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.IdempotencyRecordRepository;
+import com.example.MenuStream.repository.OrderRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutServiceTests {
+
+    @Autowired
+    private CheckoutService checkoutService;
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long customerId;
+    private Product pizza;
+    private Product juice;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail("checkout" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua D, 40");
+        customerId = customerRepository.save(customer).getId();
+        pizza = product("Pizza", "30.00");
+        juice = product("Suco", "6.00");
+    }
+
+    @Test
+    void checkoutTurnsTheCartIntoAnOrderOnce() throws Exception {
+        cartService.addItem(customerId, pizza.getId(), 2);
+        cartService.addItem(customerId, juice.getId(), 1);
+        String key = UUID.randomUUID().toString();
+        long before = orderRepository.count();
+
+        IdempotentResponse first = checkoutService.checkout(customerId, key);
+        JsonNode order = objectMapper.readTree(first.body());
+        assertEquals(201, first.status());
+        assertFalse(first.replayed());
+        assertEquals(2, order.get("orderDetails").size());
+        // (60 + 6) + 10%
+        assertEquals(0, new BigDecimal("72.6").compareTo(order.get("totalAmount").decimalValue()));
+        assertTrue(cartService.getCart(customerId).items().isEmpty());
+
+        // O cliente nao recebeu a resposta e tenta de novo; depois de um restart a resposta vem da tabela
+        IdempotentResponse retry = checkoutService.checkout(customerId, key);
+        idempotencyService.clearMemory();
+        IdempotentResponse afterRestart = checkoutService.checkout(customerId, key);
+
+        assertTrue(retry.replayed());
+        assertTrue(afterRestart.replayed());
+        assertEquals(order, objectMapper.readTree(retry.body()));
+        assertEquals(order, objectMapper.readTree(afterRestart.body()));
+        assertEquals(before + 1, orderRepository.count());
+    }
+
+    @Test
+    void concurrentDuplicatesCollapseIntoOneOrder() throws Exception {
+        cartService.addItem(customerId, pizza.getId(), 1);
+        String key = UUID.randomUUID().toString();
+        long before = orderRepository.count();
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<IdempotentResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return checkoutService.checkout(customerId, key);
+            }));
+        }
+        start.countDown();
+        Set<Long> orderIds = new HashSet<>();
+        int fresh = 0;
+        for (Future<IdempotentResponse> future : futures) {
+            IdempotentResponse response = future.get();
+            orderIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+            fresh += response.replayed() ? 0 : 1;
+        }
+        executor.shutdown();
+
+        assertEquals(1, orderIds.size());
+        assertEquals(1, fresh);
+        assertEquals(before + 1, orderRepository.count());
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() {
+        cartService.addItem(customerId, pizza.getId(), 1);
+        String key = UUID.randomUUID().toString();
+        checkoutService.checkout(customerId, key);
+
+        Customer other = new Customer();
+        other.setName("Outro");
+        other.setEmail("other" + System.nanoTime() + "@menustream.com");
+        other.setDeliveryAddress("Rua E, 50");
+        Long otherId = customerRepository.save(other).getId();
+        cartService.addItem(otherId, juice.getId(), 1);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> checkoutService.checkout(otherId, key));
+        assertEquals(422, e.getStatusCode().value());
+    }
+
+    @Test
+    void failedCheckoutCanBeRetriedWithTheSameKey() {
+        String key = UUID.randomUUID().toString();
+        assertThrows(ResponseStatusException.class, () -> checkoutService.checkout(customerId, key));
+
+        cartService.addItem(customerId, juice.getId(), 3);
+        IdempotentResponse response = checkoutService.checkout(customerId, key);
+        assertFalse(response.replayed());
+    }
+
+    @Test
+    void expiredKeyNotYetPurgedRunsAgain() {
+        cartService.addItem(customerId, pizza.getId(), 1);
+        String key = UUID.randomUUID().toString();
+        IdempotentResponse first = checkoutService.checkout(customerId, key);
+
+        // Validade vencida, mas a linha continua na tabela ate o proximo purgeExpired
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElseThrow();
+        record.setExpiresAt(new Date(System.currentTimeMillis() - 1000));
+        idempotencyRecordRepository.save(record);
+        idempotencyService.clearMemory();
+        cartService.addItem(customerId, juice.getId(), 1);
+        long before = orderRepository.count();
+
+        IdempotentResponse second = checkoutService.checkout(customerId, key);
+
+        assertEquals(201, second.status());
+        assertFalse(second.replayed());
+        assertFalse(Arrays.equals(first.body(), second.body()));
+        assertEquals(before + 1, orderRepository.count());
+        assertTrue(idempotencyRecordRepository.findById(key).orElseThrow().getExpiresAt().after(new Date()));
+    }
+
+    private Product product(String name, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(Money.of(price));
+        product.setCategory("Checkout");
+        product.setAvailability(true);
+        return productService.saveProduct(product);
+    }
+}
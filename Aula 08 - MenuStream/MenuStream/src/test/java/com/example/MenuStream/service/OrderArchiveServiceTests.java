@@ -0,0 +1,168 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.DTO.OrderResponseDTO;
+import com.example.MenuStream.model.ArchivedPayment;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Payment;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.OrderRepository;
+import com.example.MenuStream.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Lotes de 3 pedidos (application-test.properties)
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderArchiveServiceTests {
+
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private SalesRollupService salesRollupService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long customerId;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail("archive" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua K, 110");
+        customerId = customerRepository.save(customer).getId();
+        products = List.of(product("Feijoada", "45.00"), product("Caipirinha", "15.00"));
+    }
+
+    @Test
+    void oldFulfilledOrdersMoveToTheArchiveInBatchesAndStayReadable() {
+        long now = System.currentTimeMillis();
+        List<Order> old = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            old.add(order(new Date(now - (60 + i) * DAY)));
+        }
+        Order recent = order(new Date(now - DAY));
+        Order open = order(null);
+        Order unpaid = order(new Date(now - 90 * DAY));
+        Long approved = payment(old.get(0), Payment.APPROVED);
+        payment(unpaid, Payment.PENDING);
+
+        OrderResponseDTO before = orderService.getOrderResponse(old.get(0).getId());
+        long rebuiltBefore = salesRollupService.rebuild();
+
+        long moved = orderArchiveService.archive(new Date(now - 30 * DAY));
+
+        assertTrue(moved >= 7, () -> "moved " + moved);
+        for (Order order : old) {
+            assertFalse(orderRepository.existsById(order.getId()));
+            assertTrue(orderArchiveService.isArchived(order.getId()));
+        }
+        assertTrue(orderRepository.existsById(recent.getId()));
+        assertTrue(orderRepository.existsById(open.getId()));
+        assertTrue(orderRepository.existsById(unpaid.getId()));
+
+        // O pagamento foi junto com o pedido
+        assertTrue(paymentRepository.findById(approved).isEmpty());
+        ArchivedPayment archivedPayment = entityManager.find(ArchivedPayment.class, approved);
+        assertNotNull(archivedPayment);
+        assertEquals(Payment.APPROVED, archivedPayment.getPaymentStatus());
+
+        // As leituras caem no arquivo e devolvem o mesmo pedido
+        OrderResponseDTO after = orderService.getOrderResponse(old.get(0).getId());
+        assertEquals(before.id(), after.id());
+        assertEquals(before.customerId(), after.customerId());
+        assertEquals(before.totalAmount(), after.totalAmount());
+        assertEquals(before.fulfillmentDate().getTime(), after.fulfillmentDate().getTime());
+        assertEquals(new HashSet<>(before.orderDetails()), new HashSet<>(after.orderDetails()));
+        Order archived = orderService.getOrderById(old.get(1).getId());
+        assertEquals(2, archived.getOrderDetails().size());
+
+        // Os relatorios continuam contando os pedidos arquivados
+        assertEquals(rebuiltBefore, salesRollupService.rebuild());
+
+        // Arquivado nao muda mais
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> orderService.updateOrder(old.get(2).getId(), dto(new Date())));
+        assertEquals(409, e.getStatusCode().value());
+
+        // Rodar de novo (ou depois de um restart) nao encontra nada repetido
+        assertEquals(0, orderArchiveService.archive(new Date(now - 30 * DAY)));
+    }
+
+    private Product product(String name, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(Money.of(price));
+        product.setCategory("Arquivo");
+        product.setAvailability(true);
+        return productService.saveProduct(product);
+    }
+
+    private Order order(Date fulfillmentDate) {
+        return orderService.saveOrder(dto(fulfillmentDate));
+    }
+
+    private OrderDTO dto(Date fulfillmentDate) {
+        List<OrderDetailDTO> details = new ArrayList<>();
+        for (Product product : products) {
+            OrderDetailDTO detail = new OrderDetailDTO();
+            detail.setProductId(product.getId());
+            detail.setQuantity(2);
+            details.add(detail);
+        }
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customerId);
+        orderDTO.setStatus(fulfillmentDate == null ? "NEW" : "DELIVERED");
+        orderDTO.setOrderDate(new Date(fulfillmentDate == null ? System.currentTimeMillis()
+                : fulfillmentDate.getTime() - 3_600_000));
+        orderDTO.setFulfillmentDate(fulfillmentDate);
+        orderDTO.setOrderDetails(details);
+        return orderDTO;
+    }
+
+    private Long payment(Order order, String status) {
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setPaymentMethod("CREDIT_CARD");
+        payment.setTransactionAmount(order.getTotalAmount());
+        payment.setPaymentStatus(status);
+        payment.setGateway(LocalPaymentGateway.NAME);
+        payment.setUpdatedAt(new Date());
+        return paymentRepository.save(payment).getId();
+    }
+}
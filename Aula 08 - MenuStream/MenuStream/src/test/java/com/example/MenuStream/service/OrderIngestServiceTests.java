@@ -0,0 +1,206 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.OrderBatchResponse;
+import com.example.MenuStream.DTO.OrderBatchResult;
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.OrderRepository;
+import com.example.MenuStream.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Blocos de 4 pedidos (application-test.properties)
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderIngestServiceTests {
+
+    @Autowired
+    private OrderIngestService orderIngestService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long customerId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setName("Terminal");
+        customer.setEmail("ingest" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua I, 9");
+        customerId = customerRepository.save(customer).getId();
+        Product product = new Product();
+        product.setName("Prato do terminal");
+        product.setPrice(Money.of("18.00"));
+        product.setCategory("Offline");
+        product.setAvailability(true);
+        productId = productRepository.save(product).getId();
+    }
+
+    @Test
+    void cleanBatchCreatesEveryOrderAcrossChunks() throws Exception {
+        List<OrderDTO> orders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            orders.add(order(productId, 1 + i % 3));
+        }
+
+        OrderBatchResponse response = ingest(orders);
+
+        assertEquals(10, response.received());
+        assertEquals(10, response.created());
+        assertEquals(0, response.failed());
+        for (int i = 0; i < 10; i++) {
+            OrderBatchResult result = response.results().get(i);
+            assertEquals(i, result.index());
+            assertEquals("CREATED", result.status());
+            assertTrue(orderRepository.existsById(result.orderId()));
+        }
+    }
+
+    @Test
+    void invalidLineIsRejectedAndTheRestOfItsChunkCommits() throws Exception {
+        List<OrderDTO> orders = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            orders.add(order(productId, 1));
+        }
+        orders.set(2, order(-1L, 1));
+
+        OrderBatchResponse response = ingest(orders);
+
+        assertEquals(6, response.received());
+        assertEquals(5, response.created());
+        assertEquals(1, response.failed());
+        OrderBatchResult rejected = response.results().get(2);
+        assertEquals(2, rejected.index());
+        assertEquals("REJECTED", rejected.status());
+        assertEquals("Product not found", rejected.error());
+        assertNull(rejected.orderId());
+        for (int i : List.of(0, 1, 3, 4, 5)) {
+            assertTrue(orderRepository.existsById(response.results().get(i).orderId()));
+        }
+    }
+
+    @Test
+    void chunkThatFailsAtFlushIsRetriedOneByOne() throws Exception {
+        List<OrderDTO> orders = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            orders.add(order(productId, 1));
+        }
+        // Passa na validacao, mas a coluna status (varchar 255) recusa o valor no flush e derruba o bloco
+        orders.get(1).setStatus("X".repeat(300));
+        long before = orderRepository.count();
+
+        OrderBatchResponse response = ingest(orders);
+
+        assertEquals(3, response.created());
+        OrderBatchResult failed = response.results().get(1);
+        assertEquals("FAILED", failed.status());
+        assertNotNull(failed.error());
+        assertNull(failed.orderId());
+        for (int i : List.of(0, 2, 3)) {
+            assertEquals("CREATED", response.results().get(i).status());
+            assertTrue(orderRepository.existsById(response.results().get(i).orderId()));
+        }
+        assertEquals(before + 3, orderRepository.count());
+    }
+
+    @Test
+    void malformedJsonStopsTheStreamButKeepsWhatCameBefore() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            body.append(objectMapper.writeValueAsString(order(productId, 1))).append('\n');
+        }
+        body.append("{\"customerId\": ").append(customerId).append(", \"status\": \n");
+        body.append(objectMapper.writeValueAsString(order(productId, 1))).append('\n');
+        long before = orderRepository.count();
+
+        OrderBatchResponse response = orderIngestService.ingest(
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+
+        // Os 5 primeiros (um bloco cheio e um parcial) gravados; a linha quebrada recusada; o resto nao e lido
+        assertEquals(6, response.received());
+        assertEquals(5, response.created());
+        OrderBatchResult malformed = response.results().get(5);
+        assertEquals(5, malformed.index());
+        assertEquals("REJECTED", malformed.status());
+        assertEquals("Malformed JSON", malformed.error());
+        assertEquals(before + 5, orderRepository.count());
+    }
+
+    @Test
+    void brokenJsonSyntaxKeepsThePendingChunk() throws Exception {
+        // Array truncado no meio de um pedido: 5 pedidos lidos (um bloco cheio e um parcial ainda pendente)
+        StringBuilder array = new StringBuilder("[");
+        for (int i = 0; i < 5; i++) {
+            array.append(objectMapper.writeValueAsString(order(productId, 1))).append(',');
+        }
+        array.append("{\"customerId\":").append(customerId).append(',');
+        // NDJSON com um objeto que fecha com o caractere errado
+        String ndjson = objectMapper.writeValueAsString(order(productId, 1)) + "\n{]\n"
+                + objectMapper.writeValueAsString(order(productId, 1)) + "\n";
+
+        assertMalformedAfter(array.toString(), 5);
+        assertMalformedAfter(ndjson, 1);
+    }
+
+    // Os "read" pedidos antes do erro gravados, a posicao do erro recusada
+    private void assertMalformedAfter(String body, int read) throws Exception {
+        long before = orderRepository.count();
+
+        OrderBatchResponse response = orderIngestService.ingest(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(read + 1, response.received());
+        assertEquals(read, response.created());
+        OrderBatchResult malformed = response.results().get(read);
+        assertEquals(read, malformed.index());
+        assertEquals("REJECTED", malformed.status());
+        assertEquals("Malformed JSON", malformed.error());
+        assertEquals(before + read, orderRepository.count());
+    }
+
+    private OrderBatchResponse ingest(List<OrderDTO> orders) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (OrderDTO order : orders) {
+            body.append(objectMapper.writeValueAsString(order)).append('\n');
+        }
+        return orderIngestService.ingest(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private OrderDTO order(Long productId, int quantity) {
+        OrderDetailDTO detail = new OrderDetailDTO();
+        detail.setProductId(productId);
+        detail.setQuantity(quantity);
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customerId);
+        orderDTO.setStatus("RECEIVED");
+        orderDTO.setOrderDate(new Date());
+        orderDTO.setOrderDetails(new ArrayList<>(List.of(detail)));
+        return orderDTO;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.DTO.OrderResponseDTO;
+import com.example.MenuStream.SqlStatementCounter;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.OrderRepository;
+import com.example.MenuStream.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceTests {
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Customer customer;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail("cliente" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua A, 10");
+        customer = customerRepository.save(customer);
+
+        products.clear();
+        for (int i = 0; i < 60; i++) {
+            Product product = new Product();
+            product.setName("Produto " + i);
+            product.setPrice(Money.ofCents((10 + i) * 100L));
+            product.setCategory("Pratos");
+            product.setAvailability(true);
+            products.add(productRepository.save(product));
+        }
+    }
+
+    @Test
+    void saveOrderStatementCountDoesNotGrowWithLineItems() {
+        // Aquecimento: a primeira chamada busca os blocos de ids das sequencias
+        orderService.saveOrder(orderWithLines(1));
+
+        SqlStatementCounter.reset();
+        orderService.saveOrder(orderWithLines(2));
+        int small = SqlStatementCounter.statements().size();
+
+        SqlStatementCounter.reset();
+        orderService.saveOrder(orderWithLines(45));
+        int large = SqlStatementCounter.statements().size();
+
+        // 1 SELECT de produtos + 1 lote de INSERT em orders + 1 lote de INSERT em order_details
+        assertEquals(3, small, () -> SqlStatementCounter.statements().toString());
+        assertEquals(small, large, () -> SqlStatementCounter.statements().toString());
+    }
+
+    @Test
+    void updateOrderStatementCountFollowsTheDiffNotTheOrderSize() {
+        Order order = orderService.saveOrder(orderWithLines(40));
+        Date orderDate = order.getOrderDate();
+
+        // Nada mudou: so a leitura do pedido com itens e produtos
+        OrderDTO same = orderWithLines(40);
+        same.setOrderDate(orderDate);
+        SqlStatementCounter.reset();
+        orderService.updateOrder(order.getId(), same);
+        assertEquals(1, SqlStatementCounter.statements().size(), () -> SqlStatementCounter.statements().toString());
+
+        // Uma quantidade: leitura + UPDATE do item + UPDATE do total
+        OrderDTO oneQuantity = orderWithLines(40);
+        oneQuantity.setOrderDate(orderDate);
+        oneQuantity.getOrderDetails().get(7).setQuantity(20);
+        SqlStatementCounter.reset();
+        orderService.updateOrder(order.getId(), oneQuantity);
+        assertEquals(List.of(1, 1, 1), counts("select", "update order_details", "update orders"));
+        assertEquals(3, SqlStatementCounter.statements().size(), () -> SqlStatementCounter.statements().toString());
+
+        // Dez quantidades, cinco itens retirados e tres novos: os UPDATEs, DELETEs e INSERTs vao em lotes
+        OrderDTO bigger = orderWithLines(43);
+        bigger.setOrderDate(orderDate);
+        for (int i = 0; i < 10; i++) {
+            bigger.getOrderDetails().get(i).setQuantity(50 + i);
+        }
+        bigger.getOrderDetails().subList(20, 25).clear();
+        SqlStatementCounter.reset();
+        orderService.updateOrder(order.getId(), bigger);
+        assertEquals(List.of(1, 1, 1, 1), counts("update order_details", "delete from order_details",
+                "insert into order_details", "update orders"));
+        assertTrue(SqlStatementCounter.statements().size() <= 6, () -> SqlStatementCounter.statements().toString());
+
+        // Sem linhas velhas sobrando e com o total recalculado a partir dos itens
+        OrderResponseDTO stored = orderService.getOrderResponse(order.getId());
+        assertEquals(38, stored.orderDetails().size());
+        long subtotal = 0;
+        for (OrderDetailDTO detail : bigger.getOrderDetails()) {
+            Product product = products.stream().filter(p -> p.getId().equals(detail.getProductId())).findFirst().orElseThrow();
+            OrderResponseDTO.Item item = stored.orderDetails().stream()
+                    .filter(line -> line.productId().equals(product.getId())).findFirst().orElseThrow();
+            assertEquals(detail.getQuantity(), item.quantity());
+            subtotal += PricingEngine.lineCents(product.getPrice(), detail.getQuantity());
+        }
+        assertEquals(PricingEngine.orderTotal(subtotal), stored.totalAmount());
+    }
+
+    @Test
+    void updateOrderMergesRepeatedProductsAndIgnoresTheClientTotal() {
+        Order order = orderService.saveOrder(orderWithLines(2));
+        OrderDTO changed = orderWithLines(2);
+        OrderDetailDTO again = new OrderDetailDTO();
+        again.setProductId(products.get(0).getId());
+        again.setQuantity(4);
+        changed.getOrderDetails().add(again);
+        changed.setTotalAmount(Money.of("1.00"));
+
+        Order updated = orderService.updateOrder(order.getId(), changed);
+
+        // (10 * 5 + 11 * 2) + 10%
+        assertEquals(Money.of("79.2"), updated.getTotalAmount());
+        assertEquals(2, orderService.getOrderResponse(order.getId()).orderDetails().size());
+    }
+
+    @Test
+    void saveOrderComputesTotalWithServiceCharge() {
+        Order order = orderService.saveOrder(orderWithLines(2));
+
+        // (10 * 1 + 11 * 2) + 10%
+        assertEquals(Money.of("35.2"), order.getTotalAmount());
+        assertEquals(2, order.getOrderDetails().size());
+    }
+
+    @Test
+    void saveOrderRejectsUnknownProduct() {
+        OrderDTO orderDTO = orderWithLines(1);
+        OrderDetailDTO unknown = new OrderDetailDTO();
+        unknown.setProductId(-1L);
+        unknown.setQuantity(1);
+        orderDTO.getOrderDetails().add(unknown);
+        long orders = orderRepository.count();
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> orderService.saveOrder(orderDTO));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+        assertEquals("Product not found", e.getReason());
+        assertEquals(orders, orderRepository.count());
+    }
+
+    @Test
+    void saveOrderRejectsUnknownCustomer() {
+        OrderDTO orderDTO = orderWithLines(1);
+        orderDTO.setCustomerId(-1L);
+        long orders = orderRepository.count();
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> orderService.saveOrder(orderDTO));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+        assertEquals("Customer not found", e.getReason());
+        assertEquals(orders, orderRepository.count());
+    }
+
+    // Quantos comandos comecam com cada prefixo
+    private static List<Integer> counts(String... prefixes) {
+        List<String> statements = SqlStatementCounter.statements();
+        List<Integer> counts = new ArrayList<>();
+        for (String prefix : prefixes) {
+            counts.add((int) statements.stream().filter(sql -> sql.startsWith(prefix + " ")).count());
+        }
+        return counts;
+    }
+
+    private OrderDTO orderWithLines(int lines) {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customer.getId());
+        orderDTO.setStatus("NEW");
+        orderDTO.setOrderDate(new Date());
+        List<OrderDetailDTO> details = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            OrderDetailDTO detail = new OrderDetailDTO();
+            detail.setProductId(products.get(i).getId());
+            detail.setQuantity(i + 1);
+            details.add(detail);
+        }
+        orderDTO.setOrderDetails(details);
+        return orderDTO;
+    }
+}
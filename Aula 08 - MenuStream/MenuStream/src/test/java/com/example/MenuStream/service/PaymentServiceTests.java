@@ -0,0 +1,170 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.PaymentDTO;
+import com.example.MenuStream.SqlStatementCounter;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Payment;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.OrderRepository;
+import com.example.MenuStream.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Gateway local com latencia de 100ms, ate 100 cobrancas em andamento e timeout de 300ms (application-test.properties)
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentServiceTests {
+
+    private static final int PAYMENTS = 400;
+
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private LocalPaymentGateway gateway;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail("payment" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua I, 90");
+        customer = customerRepository.save(customer);
+    }
+
+    @Test
+    void paymentsOverlapUpToTheGatewayLimitAndSettleInBatches() {
+        List<Order> unsaved = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            unsaved.add(order("10.00"));
+        }
+        List<Order> orders = orderRepository.saveAll(unsaved);
+
+        gateway.resetPeak();
+        // Todos os envios na mesma transacao: as 400 cobrancas vao para o gateway juntas no commit
+        List<Long> ids = transactionTemplate.execute(status -> orders.stream().map(order -> {
+            PaymentDTO payment = paymentService.submit(order.getId(), "CREDIT_CARD");
+            assertEquals(Payment.PENDING, payment.paymentStatus());
+            return payment.id();
+        }).toList());
+        await(() -> paymentService.pendingSettlements() == PAYMENTS);
+
+        // Ate o limite do gateway (100) em andamento ao mesmo tempo, nunca mais que isso
+        assertEquals(100, gateway.peakInFlight());
+
+        // Uma transacao: um SELECT dos pagamentos e o UPDATE preparado uma vez, enviado em lotes JDBC
+        SqlStatementCounter.reset();
+        paymentService.settle();
+        assertEquals(2, SqlStatementCounter.statements().size());
+        for (Long id : ids) {
+            assertEquals(Payment.APPROVED, paymentService.getPayment(id).paymentStatus());
+        }
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> paymentService.submit(orders.get(0).getId(), "PIX"));
+        assertEquals(409, e.getStatusCode().value());
+    }
+
+    @Test
+    void declinedPaymentCanBeSubmittedAgainWithANewChargeKey() {
+        Order order = orderRepository.save(order("25.13"));
+
+        PaymentDTO first = paymentService.submit(order.getId(), "CREDIT_CARD");
+        // Repeticao enquanto pendente devolve o mesmo pagamento
+        assertEquals(first.id(), paymentService.submit(order.getId(), "CREDIT_CARD").id());
+        PaymentDTO declined = settled(first.id());
+        assertEquals(Payment.DECLINED, declined.paymentStatus());
+        assertEquals("Card declined", declined.failureReason());
+
+        PaymentDTO again = paymentService.submit(order.getId(), "DEBIT_CARD");
+        assertEquals(first.id(), again.id());
+        assertEquals(Payment.PENDING, again.paymentStatus());
+        PaymentDTO declinedAgain = settled(again.id());
+        assertEquals(Payment.DECLINED, declinedAgain.paymentStatus());
+        assertNotEquals(declined.gatewayReference(), declinedAgain.gatewayReference());
+    }
+
+    @Test
+    void unansweredChargesAreRetriedAndThenFail() {
+        Order order = orderRepository.save(order("40.99"));
+        Long id = paymentService.submit(order.getId(), "CREDIT_CARD").id();
+
+        // max-attempts=3: cada timeout conta uma tentativa, e so a terceira deixa o pagamento FAILED
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            if (attempt > 1) {
+                assertTrue(paymentService.retryPending(Duration.ZERO) >= 1);
+            }
+            int expected = attempt;
+            await(() -> {
+                paymentService.settle();
+                return paymentRepository.findById(id).orElseThrow().getAttempts() == expected;
+            });
+        }
+        PaymentDTO failed = paymentService.getPayment(id);
+        assertEquals(Payment.FAILED, failed.paymentStatus());
+        assertTrue(failed.failureReason().contains("Timeout"), failed.failureReason());
+    }
+
+    @Test
+    void unknownOrderIsNotFound() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> paymentService.submit(-1L, "CREDIT_CARD"));
+        assertEquals(404, e.getStatusCode().value());
+    }
+
+    private Order order(String total) {
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus("NEW");
+        order.setOrderDate(new Date());
+        order.setTotalAmount(Money.of(total));
+        return order;
+    }
+
+    private PaymentDTO settled(Long id) {
+        await(() -> {
+            paymentService.settle();
+            return !Payment.PENDING.equals(paymentService.getPayment(id).paymentStatus());
+        });
+        return paymentService.getPayment(id);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.MoneyConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PricingEngineTests {
+
+    @Test
+    void serviceChargeIsRoundedHalfUpToTheCent() {
+        // 10% de 10,05 = 1,005 -> 1,01
+        assertEquals(Money.of("11.06"), PricingEngine.orderTotal(1005));
+        // 10% de 10,04 = 1,004 -> 1,00
+        assertEquals(Money.of("11.04"), PricingEngine.orderTotal(1004));
+        assertEquals(Money.of("35.20"), PricingEngine.orderTotal(3200));
+        assertEquals(-101, PricingEngine.serviceChargeCents(-1005));
+        assertEquals(Money.ZERO, PricingEngine.orderTotal(0));
+    }
+
+    @Test
+    void totalsMatchTheOldBigDecimalPathWheneverItWasExact() {
+        for (long subtotal = 0; subtotal < 100_000; subtotal += 7) {
+            BigDecimal old = BigDecimal.valueOf(subtotal, 2).multiply(BigDecimal.valueOf(1.1));
+            assertEquals(Money.of(old.setScale(2, RoundingMode.HALF_UP)), PricingEngine.orderTotal(subtotal));
+        }
+    }
+
+    @Test
+    void lineOverflowIsAnErrorNotAWrongTotal() {
+        assertThrows(ArithmeticException.class, () -> PricingEngine.lineCents(Money.ofCents(Long.MAX_VALUE / 2), 3));
+    }
+
+    @Test
+    void moneyKeepsTheJsonAndColumnFormat() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals("{\"price\":12.50}", objectMapper.writeValueAsString(Map.of("price", Money.of("12.5"))));
+        assertEquals(Money.ofCents(1250), objectMapper.readValue("12.5", Money.class));
+        assertEquals(Money.ofCents(1250), objectMapper.readValue("\"12.50\"", Money.class));
+        assertEquals(Money.ofCents(700), objectMapper.readValue("7", Money.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("\"1.999\"", Money.class));
+
+        MoneyConverter converter = new MoneyConverter();
+        assertEquals(new BigDecimal("72.60"), converter.convertToDatabaseColumn(Money.of("72.6")));
+        // Totais antigos gravados com tres casas (x 1.1) viram centavos arredondados
+        assertEquals(Money.ofCents(1106), converter.convertToEntityAttribute(new BigDecimal("11.055")));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.ProductSearchPage;
+import com.example.MenuStream.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTests {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.reload(List.of(
+                product(1L, "Feijão Tropeiro", "Pratos", "Feijão, farinha e torresmo", true),
+                product(2L, "FEIJOADA Completa", "Pratos", "Com couve e laranja", true),
+                product(3L, "Pão de Queijo", "Lanches", "Porção com dez unidades", false),
+                product(4L, "Suco de Laranja", "Bebidas", "Natural, 500 ml", true)));
+    }
+
+    @Test
+    void matchesPrefixesIgnoringAccentsAndCase() {
+        assertEquals(Set.of(1L, 2L), found("feij"));
+        assertEquals(Set.of(1L, 2L), found("FEIJ"));
+        assertEquals(Set.of(1L), found("feijão"));
+        assertEquals(Set.of(3L), found("pao"));
+        assertEquals(Set.of(3L), found("PÃO"));
+        assertEquals(Set.of(3L), found("porcao"));
+
+        // Todos os termos precisam casar, em qualquer campo
+        assertEquals(Set.of(3L), found("queijo lanch"));
+        assertEquals(Set.of(), found("queijo bebida"));
+        assertEquals(Set.of(), found("feijoes"));
+    }
+
+    @Test
+    void ranksExactTermsAndNamesFirst() {
+        // "pao" inteiro vale mais que o prefixo de "paozinho", mesmo com "Paozinho" antes na ordem alfabetica
+        index.put(product(5L, "Paozinho Doce", "Lanches", null, true));
+        assertEquals(List.of(3L, 5L), ids(index.search("pao", null, null, 0, 10)));
+        // "laranja" no nome do suco vale mais que na descricao da feijoada
+        assertEquals(List.of(4L, 2L), ids(index.search("laranja", null, null, 0, 10)));
+    }
+
+    @Test
+    void filtersByCategoryAndAvailability() {
+        assertEquals(Set.of(1L, 2L), Set.copyOf(ids(index.search(null, "PRATOS", null, 0, 10))));
+        assertEquals(List.of(3L), ids(index.search(null, null, false, 0, 10)));
+        assertEquals(List.of(4L), ids(index.search("laranja", "Bebidas", true, 0, 10)));
+        assertEquals(List.of(), ids(index.search("laranja", "Bebidas", false, 0, 10)));
+    }
+
+    @Test
+    void putAndRemoveKeepTheIndexInSync() {
+        index.put(product(5L, "Feijão Amigo", "Sopas", "Caldo de feijão", true));
+        assertEquals(Set.of(1L, 2L, 5L), found("feij"));
+
+        // Renomeado: os termos antigos deixam de casar
+        index.put(product(1L, "Tutu Mineiro", "Pratos", "Com torresmo", true));
+        assertEquals(Set.of(2L, 5L), found("feij"));
+        assertEquals(Set.of(1L), found("tutu"));
+
+        index.remove(5L);
+        assertEquals(Set.of(2L), found("feij"));
+        assertEquals(Set.of(), found("amigo"));
+    }
+
+    @Test
+    void pagesAreLimitedToTheRequestedSize() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            products.add(product(id, String.format("Esfiha %02d", id), "Lanches", null, true));
+        }
+        index.reload(products);
+
+        ProductSearchPage first = index.search("esfiha", null, null, 0, 10);
+        assertEquals(10, first.items().size());
+        assertEquals(25, first.total());
+        ProductSearchPage last = index.search("esfiha", null, null, 2, 10);
+        assertEquals(List.of(21L, 22L, 23L, 24L, 25L), ids(last));
+        assertEquals(25, last.total());
+        assertTrue(index.search("esfiha", null, null, 3, 10).items().isEmpty());
+
+        // page * size passa de Integer.MAX_VALUE: pagina vazia, nao IndexOutOfBoundsException
+        ProductSearchPage beyond = index.search("esfiha", null, null, Integer.MAX_VALUE, 200);
+        assertTrue(beyond.items().isEmpty());
+        assertEquals(25, beyond.total());
+    }
+
+    private Set<Long> found(String query) {
+        return Set.copyOf(ids(index.search(query, null, null, 0, 10)));
+    }
+
+    private static List<Long> ids(ProductSearchPage page) {
+        return page.items().stream().map(Product::getId).toList();
+    }
+
+    private static Product product(Long id, String name, String category, String description, boolean available) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setDescription(description);
+        product.setAvailability(available);
+        return product;
+    }
+}
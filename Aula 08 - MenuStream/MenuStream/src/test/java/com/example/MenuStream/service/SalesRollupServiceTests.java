@@ -0,0 +1,175 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.HourlySalesDTO;
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.DTO.SalesTotalDTO;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SalesRollupServiceTests {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Customer customer;
+    private Product burger;
+    private Product fries;
+    private Product soda;
+    // Cada teste usa horas proprias no passado, longe dos pedidos criados pelos outros testes
+    private long baseHour;
+
+    @BeforeEach
+    void setUp() {
+        customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail("rollup" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua B, 20");
+        customer = customerRepository.save(customer);
+
+        burger = product("Burger", "10.00", "Lanches");
+        fries = product("Fritas", "5.00", "Lanches");
+        soda = product("Refri", "4.00", "Bebidas");
+        baseHour = (ThreadLocalRandom.current().nextLong(100_000, 300_000)) * HOUR;
+    }
+
+    @Test
+    void reportsSumOrdersPerHourProductAndCategory() {
+        orderService.saveOrder(order(baseHour + 60_000, burger, 2, soda, 1));
+        orderService.saveOrder(order(baseHour + 120_000, fries, 1, soda, 2));
+        orderService.saveOrder(order(baseHour + HOUR + 60_000, burger, 1));
+
+        // Antes do flush (contadores em memoria) e depois (tabela) o resultado e o mesmo
+        assertReports();
+        salesRollupService.flush();
+        assertReports();
+    }
+
+    private void assertReports() {
+        List<HourlySalesDTO> hourly = salesRollupService.getHourlySales(new Date(baseHour), new Date(baseHour + 2 * HOUR));
+        assertEquals(2, hourly.size());
+        assertEquals(new Date(baseHour), hourly.get(0).hour());
+        assertEquals(2, hourly.get(0).orders());
+        assertEquals(6, hourly.get(0).quantity());
+        // (20 + 4) * 1.1 + (5 + 8) * 1.1
+        assertAmount("40.70", hourly.get(0).amount());
+        assertEquals(1, hourly.get(1).orders());
+        assertAmount("11.00", hourly.get(1).amount());
+
+        List<SalesTotalDTO> products = salesRollupService.getProductSales(new Date(baseHour), new Date(baseHour + 2 * HOUR), 10);
+        assertEquals(List.of(key(burger), key(soda), key(fries)), products.stream().map(SalesTotalDTO::key).toList());
+        assertEquals(3, products.get(0).quantity());
+        assertEquals(2, products.get(0).orders());
+        assertAmount("33.00", products.get(0).amount());
+        assertAmount("13.20", products.get(1).amount());
+
+        List<SalesTotalDTO> categories = salesRollupService.getCategorySales(new Date(baseHour), new Date(baseHour + 2 * HOUR));
+        assertEquals("Lanches", categories.get(0).key());
+        assertEquals(3, categories.get(0).orders());
+        assertAmount("38.50", categories.get(0).amount());
+        assertEquals("Bebidas", categories.get(1).key());
+        assertAmount("13.20", categories.get(1).amount());
+    }
+
+    @Test
+    void updateAndDeleteReplaceThePreviousContribution() {
+        Order first = orderService.saveOrder(order(baseHour + 60_000, burger, 2));
+        Order second = orderService.saveOrder(order(baseHour + 120_000, soda, 1));
+        salesRollupService.flush();
+
+        // Muda de hora, de produto e de valor (total recalculado: 3 x 5,00 + 10%)
+        OrderDTO changed = order(baseHour + HOUR + 60_000, fries, 3);
+        orderService.updateOrder(first.getId(), changed);
+        orderService.deleteOrder(second.getId());
+        salesRollupService.flush();
+
+        List<HourlySalesDTO> hourly = salesRollupService.getHourlySales(new Date(baseHour), new Date(baseHour + 2 * HOUR));
+        assertEquals(1, hourly.size());
+        assertEquals(new Date(baseHour + HOUR), hourly.get(0).hour());
+        assertEquals(3, hourly.get(0).quantity());
+        assertAmount("16.50", hourly.get(0).amount());
+
+        List<SalesTotalDTO> products = salesRollupService.getProductSales(new Date(baseHour), new Date(baseHour + 2 * HOUR), 10);
+        assertEquals(List.of(key(fries)), products.stream().map(SalesTotalDTO::key).toList());
+    }
+
+    @Test
+    void rebuildMatchesIncrementalRollups() {
+        orderService.saveOrder(order(baseHour + 60_000, burger, 2, soda, 1));
+        orderService.saveOrder(order(baseHour + 120_000, fries, 1, soda, 2, burger, 1));
+        orderService.saveOrder(order(baseHour + HOUR + 60_000, burger, 1));
+        salesRollupService.flush();
+        Date from = new Date(baseHour);
+        Date to = new Date(baseHour + 2 * HOUR);
+        List<HourlySalesDTO> hourly = salesRollupService.getHourlySales(from, to);
+        List<SalesTotalDTO> products = salesRollupService.getProductSales(from, to, 10);
+        List<SalesTotalDTO> categories = salesRollupService.getCategorySales(from, to);
+
+        salesRollupService.rebuild();
+
+        assertEquals(hourly, salesRollupService.getHourlySales(from, to));
+        assertEquals(products, salesRollupService.getProductSales(from, to, 10));
+        assertEquals(categories, salesRollupService.getCategorySales(from, to));
+    }
+
+    private Product product(String name, String price, String category) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(Money.of(price));
+        product.setCategory(category);
+        product.setAvailability(true);
+        return productRepository.save(product);
+    }
+
+    // Pares produto, quantidade
+    private OrderDTO order(long date, Object... items) {
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customer.getId());
+        orderDTO.setStatus("NEW");
+        orderDTO.setOrderDate(new Date(date));
+        List<OrderDetailDTO> details = new ArrayList<>();
+        for (int i = 0; i < items.length; i += 2) {
+            OrderDetailDTO detail = new OrderDetailDTO();
+            detail.setProductId(((Product) items[i]).getId());
+            detail.setQuantity((Integer) items[i + 1]);
+            details.add(detail);
+        }
+        orderDTO.setOrderDetails(details);
+        return orderDTO;
+    }
+
+    private static String key(Product product) {
+        return String.valueOf(product.getId());
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> expected + " != " + actual);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.CacheRegionStatsDTO;
+import com.example.MenuStream.DTO.CursorPage;
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.SqlStatementCounter;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Leituras repetidas de Product/Customer nao vao ao banco, e as escritas pelos servicos nunca deixam dado velho
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTests {
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    private String category;
+
+    @BeforeEach
+    void setUp() {
+        category = "Cache-" + System.nanoTime();
+    }
+
+    @Test
+    void productReadsAreServedFromTheCacheAndWritesInvalidate() {
+        Product product = product("Lasanha", "32.00");
+        productService.getProductById(product.getId());
+        long hits = stats("products").hits();
+
+        SqlStatementCounter.reset();
+        assertEquals(Money.of("32.00"), productService.getProductById(product.getId()).getPrice());
+        assertEquals(List.of(), SqlStatementCounter.statements());
+        assertTrue(stats("products").hits() > hits);
+
+        Product changes = productService.getProductById(product.getId());
+        changes.setPrice(Money.of("35.00"));
+        productService.updateProduct(product.getId(), changes);
+        assertEquals(Money.of("35.00"), productService.getProductById(product.getId()).getPrice());
+
+        productService.deleteProduct(product.getId());
+        assertThrows(RuntimeException.class, () -> productService.getProductById(product.getId()));
+    }
+
+    @Test
+    void categoryPagesComeFromTheQueryCacheUntilAProductChanges() {
+        Product first = product("Pastel", "8.00");
+        product("Coxinha", "7.00");
+
+        assertEquals(2, productService.getProducts(category, null, 10).items().size());
+        SqlStatementCounter.reset();
+        assertEquals(2, productService.getProducts(category, null, 10).items().size());
+        assertEquals(List.of(), SqlStatementCounter.statements());
+
+        // Nova linha na mesma categoria: o resultado guardado deixa de valer
+        product("Esfiha", "6.00");
+        CursorPage<Product> page = productService.getProducts(category, null, 10);
+        assertEquals(3, page.items().size());
+
+        // Alteracao em um produto da pagina: a pagina volta com o valor novo
+        Product changes = productService.getProductById(first.getId());
+        changes.setName("Pastel de queijo");
+        productService.updateProduct(first.getId(), changes);
+        assertEquals("Pastel de queijo", productService.getProducts(category, null, 10).items().get(0).getName());
+
+        // Saiu da categoria
+        changes.setCategory("Outra");
+        productService.updateProduct(first.getId(), changes);
+        assertEquals(2, productService.getProducts(category, null, 10).items().size());
+    }
+
+    @Test
+    void customerReadsAreCachedAndUpdatesAndDeletesInvalidate() {
+        Customer customer = customer();
+        customerService.getCustomerById(customer.getId());
+
+        SqlStatementCounter.reset();
+        customerService.getCustomerById(customer.getId());
+        assertEquals(List.of(), SqlStatementCounter.statements());
+
+        Customer changes = customerService.getCustomerById(customer.getId());
+        changes.setDeliveryAddress("Rua Nova, 1");
+        customerService.updateCustomer(customer.getId(), changes);
+        assertEquals("Rua Nova, 1", customerService.getCustomerById(customer.getId()).getDeliveryAddress());
+
+        customerService.deleteCustomer(customer.getId());
+        assertThrows(RuntimeException.class, () -> customerService.getCustomerById(customer.getId()));
+    }
+
+    @Test
+    void placingAnOrderDoesNotReadCachedProducts() {
+        Customer customer = customer();
+        List<Product> products = List.of(product("Pizza", "40.00"), product("Suco", "9.00"));
+        products.forEach(product -> productService.getProductById(product.getId()));
+
+        SqlStatementCounter.reset();
+        orderService.saveOrder(order(customer, products));
+        assertFalse(SqlStatementCounter.statements().stream().anyMatch(sql -> sql.contains("from products")),
+                () -> SqlStatementCounter.statements().toString());
+
+        // Preco alterado pelo ProductService: o proximo pedido ja usa o valor novo
+        Product pizza = productService.getProductById(products.get(0).getId());
+        pizza.setPrice(Money.of("50.00"));
+        productService.updateProduct(pizza.getId(), pizza);
+        // (50 + 9) + 10%
+        assertEquals(Money.of("64.90"), orderService.saveOrder(order(customer, products)).getTotalAmount());
+    }
+
+    @Test
+    void everyRegionReportsStatistics() {
+        // A regiao de consultas so e criada no primeiro uso
+        productService.getProducts(category, null, 10);
+        List<String> regions = cacheStatisticsService.getStatistics().stream().map(CacheRegionStatsDTO::region).toList();
+        assertTrue(regions.containsAll(List.of("products", "customers", "product-queries",
+                "default-update-timestamps-region")), regions::toString);
+    }
+
+    private CacheRegionStatsDTO stats(String region) {
+        return cacheStatisticsService.getStatistics(region);
+    }
+
+    private Product product(String name, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(Money.of(price));
+        product.setCategory(category);
+        product.setAvailability(true);
+        return productService.saveProduct(product);
+    }
+
+    private Customer customer() {
+        Customer customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail("cache" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua J, 100");
+        return customerService.saveCustomer(customer);
+    }
+
+    private OrderDTO order(Customer customer, List<Product> products) {
+        List<OrderDetailDTO> details = new ArrayList<>();
+        for (Product product : products) {
+            OrderDetailDTO detail = new OrderDetailDTO();
+            detail.setProductId(product.getId());
+            detail.setQuantity(1);
+            details.add(detail);
+        }
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customer.getId());
+        orderDTO.setStatus("NEW");
+        orderDTO.setOrderDate(new Date());
+        orderDTO.setOrderDetails(details);
+        return orderDTO;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.MenuStream.service;
+
+import com.example.MenuStream.DTO.OrderDTO;
+import com.example.MenuStream.DTO.OrderDetailDTO;
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.repository.CustomerRepository;
+import com.example.MenuStream.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockServiceTests {
+
+    private static final int THREADS = 200;
+
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long customerId;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setName("Cliente");
+        customer.setEmail("stock" + System.nanoTime() + "@menustream.com");
+        customer.setDeliveryAddress("Rua F, 60");
+        customerId = customerRepository.save(customer).getId();
+    }
+
+    @Test
+    void hundredsOfBuyersNeverOversell() throws Exception {
+        Product promo = product("Promo", 1000);
+        Map<Long, Product> products = Map.of(promo.getId(), promo);
+
+        AtomicInteger sold = new AtomicInteger();
+        race(20, () -> {
+            try {
+                stockService.reserve(Map.of(promo.getId(), 1), products);
+                sold.incrementAndGet();
+            } catch (ResponseStatusException outOfStock) {
+                // esgotado
+            }
+        });
+        assertEquals(1000, sold.get());
+        assertEquals(0, stockService.getStock(promo.getId()).stock());
+    }
+
+    @Test
+    void ordersStopAtZeroAndAvailabilityFlips() throws Exception {
+        Product promo = product("Combo", 30);
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        race(1, () -> {
+            try {
+                orderService.saveOrder(order(promo, 1));
+                created.incrementAndGet();
+            } catch (ResponseStatusException e) {
+                assertEquals(409, e.getStatusCode().value());
+                rejected.incrementAndGet();
+            }
+        });
+        assertEquals(30, created.get());
+        assertEquals(THREADS - 30, rejected.get());
+
+        stockService.reconcile();
+        Product stored = productRepository.findById(promo.getId()).orElseThrow();
+        assertEquals(0, stored.getStock());
+        assertFalse(stored.isAvailability());
+        assertFalse(productService.getMenuProduct(promo.getId()).isAvailability());
+
+        stockService.setStock(promo.getId(), 10);
+        assertTrue(productService.getMenuProduct(promo.getId()).isAvailability());
+        assertEquals(10, productRepository.findById(promo.getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void rolledBackDeletedAndReducedOrdersGiveStockBack() {
+        Product product = product("Bolo", 10);
+
+        OrderDTO unknownCustomer = order(product, 4);
+        unknownCustomer.setCustomerId(-1L);
+        assertThrows(RuntimeException.class, () -> orderService.saveOrder(unknownCustomer));
+        assertEquals(10, stockService.getStock(product.getId()).stock());
+
+        Order order = orderService.saveOrder(order(product, 3));
+        assertEquals(7, stockService.getStock(product.getId()).stock());
+
+        OrderDTO smaller = order(product, 1);
+        smaller.setTotalAmount(order.getTotalAmount());
+        orderService.updateOrder(order.getId(), smaller);
+        assertEquals(9, stockService.getStock(product.getId()).stock());
+
+        Order another = orderService.saveOrder(order(product, 2));
+        assertEquals(7, stockService.getStock(product.getId()).stock());
+        orderService.deleteOrder(another.getId());
+        assertEquals(9, stockService.getStock(product.getId()).stock());
+    }
+
+    @Test
+    void nonPositiveQuantitiesAreRejectedWithoutTouchingStock() throws Exception {
+        Product product = product("Quindim", 10);
+        Order order = orderService.saveOrder(order(product, 2));
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order(product, -5))))
+                .andExpect(status().isBadRequest());
+        for (Integer quantity : new Integer[]{0, -5, null}) {
+            OrderDTO invalid = order(product, 1);
+            invalid.getOrderDetails().get(0).setQuantity(quantity);
+            ResponseStatusException created = assertThrows(ResponseStatusException.class,
+                    () -> orderService.saveOrder(invalid));
+            assertEquals(400, created.getStatusCode().value());
+            ResponseStatusException updated = assertThrows(ResponseStatusException.class,
+                    () -> orderService.updateOrder(order.getId(), invalid));
+            assertEquals(400, updated.getStatusCode().value());
+        }
+        ResponseStatusException reserved = assertThrows(ResponseStatusException.class,
+                () -> stockService.reserve(Map.of(product.getId(), -5), Map.of(product.getId(), product)));
+        assertEquals(400, reserved.getStatusCode().value());
+
+        assertEquals(8, stockService.getStock(product.getId()).stock());
+        stockService.reconcile();
+        assertEquals(8, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    // Roda "rounds" chamadas de action em cada uma das THREADS threads, liberadas juntas.
+    // A vazao contra o lock de linha fica em benchmarks/ (StockReservationBenchmark)
+    private void race(int rounds, Runnable action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                for (int i = 0; i < rounds; i++) {
+                    action.run();
+                }
+                return null;
+            }));
+        }
+        ready.await();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+
+    private Product product(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(Money.of("12.00"));
+        product.setCategory("Promocao");
+        product.setAvailability(true);
+        product.setStock(stock);
+        return productService.saveProduct(product);
+    }
+
+    private OrderDTO order(Product product, int quantity) {
+        OrderDetailDTO detail = new OrderDetailDTO();
+        detail.setProductId(product.getId());
+        detail.setQuantity(quantity);
+        OrderDTO orderDTO = new OrderDTO();
+        orderDTO.setCustomerId(customerId);
+        orderDTO.setStatus("NEW");
+        orderDTO.setOrderDate(new Date());
+        orderDTO.setOrderDetails(new ArrayList<>(List.of(detail)));
+        return orderDTO;
+    }
+}
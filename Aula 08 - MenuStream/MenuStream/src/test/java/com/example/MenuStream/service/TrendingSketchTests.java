@@ -0,0 +1,126 @@
+package com.example.MenuStream.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrendingSketchTests {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void topKMatchesExactCountOnSkewedStream() {
+        TrendingSketch sketch = new TrendingSketch(MINUTE, 15, 4, 1024, 64);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        double[] zipf = zipf(2000, 1.1);
+        long total = 0;
+        long start = 1_000 * MINUTE;
+
+        // 200 mil itens espalhados pelos 15 minutos da janela
+        for (int i = 0; i < 200_000; i++) {
+            long key = sample(zipf, random);
+            int quantity = 1 + random.nextInt(3);
+            sketch.add(key, quantity, start + i * (15 * MINUTE - 1) / 200_000);
+            exact.merge(key, (long) quantity, Long::sum);
+            total += quantity;
+        }
+        long now = start + 15 * MINUTE - 1;
+
+        List<Long> expected = exact.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(10).map(Map.Entry::getKey).toList();
+        List<TrendingSketch.Entry> top = sketch.top(10, now);
+        List<Long> actual = top.stream().map(TrendingSketch.Entry::key).toList();
+
+        assertEquals(expected.subList(0, 5), actual.subList(0, 5));
+        Set<Long> overlap = new HashSet<>(expected);
+        overlap.retainAll(actual);
+        assertTrue(overlap.size() >= 9, () -> expected + " vs " + actual);
+
+        // Count-Min nunca subestima; o excesso fica dentro de e * total / width
+        long bound = (long) Math.ceil(Math.E * total / 1024);
+        for (TrendingSketch.Entry entry : top) {
+            long real = exact.get(entry.key());
+            assertTrue(entry.count() >= real);
+            assertTrue(entry.count() - real <= bound, () -> entry + " real " + real + " bound " + bound);
+        }
+    }
+
+    @Test
+    void oldBucketsLeaveTheWindow() {
+        TrendingSketch sketch = new TrendingSketch(MINUTE, 15, 4, 1024, 64);
+        long start = 1_000 * MINUTE;
+        sketch.add(1, 100, start);
+        sketch.add(2, 10, start + 10 * MINUTE);
+
+        assertEquals(List.of(new TrendingSketch.Entry(1, 100), new TrendingSketch.Entry(2, 10)),
+                sketch.top(10, start + 14 * MINUTE));
+        // 15 minutos depois o balde do produto 1 ja saiu da janela (e a posicao dele no anel pode ser reusada)
+        assertEquals(List.of(new TrendingSketch.Entry(2, 10)), sketch.top(10, start + 15 * MINUTE));
+        sketch.add(3, 5, start + 15 * MINUTE);
+        assertEquals(0, sketch.estimate(1, start + 15 * MINUTE));
+        assertEquals(List.of(new TrendingSketch.Entry(3, 5)), sketch.top(10, start + 25 * MINUTE));
+    }
+
+    @Test
+    void concurrentUpdatesAreNotLost() throws Exception {
+        TrendingSketch sketch = new TrendingSketch(MINUTE, 15, 4, 1024, 64);
+        long now = 1_000 * MINUTE;
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    sketch.add(i % 5, 1, now);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<TrendingSketch.Entry> top = sketch.top(10, now);
+        assertEquals(5, top.size());
+        long expected = (long) threads * perThread / 5;
+        top.sort(Comparator.comparingLong(TrendingSketch.Entry::key));
+        for (int key = 0; key < 5; key++) {
+            assertEquals(new TrendingSketch.Entry(key, expected), top.get(key));
+        }
+    }
+
+    private static double[] zipf(int keys, double exponent) {
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < keys; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static long sample(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return (index >= 0 ? index : -index - 1) + 1;
+    }
+}
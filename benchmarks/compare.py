@@ -0,0 +1,92 @@
+#!/usr/bin/env python3
+"""Compara dois resultados JMH em JSON (-rf json) e aponta as regressoes.
+
+Uso: python3 compare.py base.json atual.json [--threshold 10] [--alloc-threshold 10]
+
+Para cada benchmark (nome + modo + parametros) presente nos dois arquivos:
+  - pontuacao principal: regressao se piorou mais que --threshold % (throughput menor; avgt/sample/ss maior)
+    e a diferenca passa da soma das margens de erro das duas rodadas;
+  - gc.alloc.rate.norm (com -prof gc): regressao se os bytes por operacao subiram mais que --alloc-threshold %.
+Sai com codigo 1 quando ha regressao, para poder ser usado no CI.
+"""
+import argparse
+import json
+import math
+import sys
+
+ALLOC = "gc.alloc.rate.norm"
+# Bytes por operacao abaixo disso sao ruido (ex.: 0 -> 16 B/op por escape analysis)
+ALLOC_MIN_BYTES = 64
+
+
+def load(path):
+    with open(path, encoding="utf-8") as f:
+        results = {}
+        for entry in json.load(f):
+            params = ",".join(f"{k}={v}" for k, v in sorted((entry.get("params") or {}).items()))
+            results[(entry["benchmark"], entry["mode"], params)] = entry
+        return results
+
+
+def error(metric):
+    value = metric.get("scoreError")
+    return 0.0 if value is None or (isinstance(value, float) and math.isnan(value)) else float(value)
+
+
+def change(base, current):
+    return math.inf if base == 0 else (current - base) / base * 100
+
+
+def short(name):
+    parts = name.split(".")
+    return ".".join(p[0] for p in parts[:-2]) + "." + ".".join(parts[-2:])
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("base")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0, help="piora aceita na pontuacao, em %% (10)")
+    parser.add_argument("--alloc-threshold", type=float, default=10.0, help="aumento aceito em B/op, em %% (10)")
+    args = parser.parse_args()
+
+    base = load(args.base)
+    current = load(args.current)
+    regressions = 0
+
+    print(f"{'benchmark':60} {'mode':6} {'params':22} {'base':>12} {'atual':>12} {'delta':>8}  unidade")
+    for key in sorted(base.keys() & current.keys()):
+        name, mode, params = key
+        old, new = base[key]["primaryMetric"], current[key]["primaryMetric"]
+        delta = change(old["score"], new["score"])
+        worse = -delta if mode == "thrpt" else delta
+        beyond_error = abs(new["score"] - old["score"]) > error(old) + error(new)
+        flags = []
+        if worse > args.threshold and beyond_error:
+            flags.append("REGRESSAO")
+
+        old_alloc = base[key].get("secondaryMetrics", {}).get(ALLOC)
+        new_alloc = current[key].get("secondaryMetrics", {}).get(ALLOC)
+        alloc = ""
+        if old_alloc and new_alloc:
+            alloc_delta = change(old_alloc["score"], new_alloc["score"])
+            alloc = f"  {old_alloc['score']:.0f} -> {new_alloc['score']:.0f} B/op"
+            if (alloc_delta > args.alloc_threshold
+                    and new_alloc["score"] - old_alloc["score"] > ALLOC_MIN_BYTES):
+                flags.append("ALOCACAO")
+
+        regressions += 1 if flags else 0
+        print(f"{short(name):60} {mode:6} {params:22} {old['score']:12.4f} {new['score']:12.4f} {delta:+7.1f}%"
+              f"  {new['scoreUnit']}{alloc}  {' '.join(flags)}".rstrip())
+
+    for key in sorted(base.keys() - current.keys()):
+        print(f"so na base: {key[0]} {key[1]} {key[2]}")
+    for key in sorted(current.keys() - base.keys()):
+        print(f"novo: {key[0]} {key[1]} {key[2]}")
+
+    print(f"\n{regressions} regressao(oes) (limites: {args.threshold}% na pontuacao, {args.alloc_threshold}% em B/op)")
+    return 1 if regressions else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
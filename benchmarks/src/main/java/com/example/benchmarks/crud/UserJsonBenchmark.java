@@ -0,0 +1,73 @@
+package com.example.benchmarks.crud;
+
+import com.example.SpringBackendCRUD.Model.Phone;
+import com.example.SpringBackendCRUD.Model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON de /users: GET /users com 10 a 10.000 usuarios (3 telefones cada, com a referencia de volta
+// Phone.user) e o corpo de um POST /users lido para a entidade.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserJsonBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int users;
+
+    private ObjectMapper objectMapper;
+    private List<User> all;
+    private byte[] createBody;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        all = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = User.builder().name("Usuario " + i).email("user" + i + "@crud.com").build();
+            user.setId(i + 1L);
+            List<Phone> phones = new ArrayList<>();
+            for (int p = 0; p < 3; p++) {
+                Phone phone = Phone.builder().type(p == 0 ? "movel" : "fixo").number("11 9" + (10_000_000 + i * 3 + p)).user(user).build();
+                phone.setId(i * 3L + p + 1);
+                phones.add(phone);
+            }
+            user.setPhones(phones);
+            all.add(user);
+        }
+        createBody = objectMapper.writeValueAsBytes(all.get(0));
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(all);
+    }
+
+    @Benchmark
+    public User deserializeCreateBody() throws IOException {
+        return objectMapper.readValue(createBody, User.class);
+    }
+}
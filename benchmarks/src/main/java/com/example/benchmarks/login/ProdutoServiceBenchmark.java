@@ -0,0 +1,75 @@
+package com.example.benchmarks.login;
+
+import com.example.login.domain.produto.Produto;
+import com.example.login.dto.ProdutoDTO;
+import com.example.login.repository.ProdutoRepository;
+import com.example.login.service.ProdutoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// ProdutoService.getAllProdutos / getProdutoById (convertToDTO em cada produto) sobre um repositorio em memoria,
+// para medir so o servico: listas de 10 a 10.000 produtos.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProdutoServiceBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int produtos;
+
+    private ProdutoService produtoService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Produto> all = new ArrayList<>(produtos);
+        for (int i = 0; i < produtos; i++) {
+            Produto produto = new Produto();
+            produto.setId(i + 1L);
+            produto.setNome("Produto " + i);
+            produto.setDescricao("Descricao do produto " + i + " com alguns detalhes");
+            produto.setPreco(5 + random.nextInt(20_000) / 100.0);
+            all.add(produto);
+        }
+        produtoService = new ProdutoService(repository(all));
+    }
+
+    @Benchmark
+    public List<ProdutoDTO> getAllProdutos() {
+        return produtoService.getAllProdutos();
+    }
+
+    @Benchmark
+    public ProdutoDTO getProdutoById() {
+        return produtoService.getProdutoById(1L);
+    }
+
+    // Atende so findAll e findById, os metodos usados pelos benchmarks
+    private static ProdutoRepository repository(List<Produto> all) {
+        return (ProdutoRepository) Proxy.newProxyInstance(ProdutoRepository.class.getClassLoader(),
+                new Class<?>[]{ProdutoRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> all;
+                    case "findById" -> Optional.of(all.get((int) ((Long) args[0] - 1)));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.benchmarks.menustream;
+
+import com.example.MenuStream.DTO.CustomerDTO;
+import com.example.MenuStream.model.Customer;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// CustomerController.createCustomer: ModelMapper (o bean do AppConfig, ja aquecido) contra o construtor
+// Customer(CustomerDTO) que esta comentado no controller.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private CustomerDTO customerDTO;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        customerDTO = new CustomerDTO("Cliente Benchmark", "benchmark@menustream.com", "Rua dos Testes, 100", "PIX");
+        modelMapper.map(customerDTO, Customer.class);
+    }
+
+    @Benchmark
+    public Customer modelMapper() {
+        return modelMapper.map(customerDTO, Customer.class);
+    }
+
+    @Benchmark
+    public Customer constructor() {
+        return new Customer(customerDTO);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.benchmarks.menustream;
+
+import com.example.MenuStream.DTO.ProductSearchPage;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.service.ProductSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Cardapio de 10 a 10.000 produtos: a serializacao do MenuSnapshot (JSON + gzip, feita na primeira leitura depois
+// de cada alteracao de produto), a recarga do indice de busca e uma busca por prefixo em GET /products/search.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MenuBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int products;
+
+    private ObjectMapper objectMapper;
+    private List<Product> menu;
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        objectMapper = MenuStreamFixtures.objectMapper();
+        menu = MenuStreamFixtures.menu(products, 42);
+        index = new ProductSearchIndex();
+        index.reload(menu);
+    }
+
+    // Como MenuSnapshot.serialize
+    @Benchmark
+    public byte[] menuSnapshot() throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(menu);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(json);
+        }
+        return gzip.toByteArray();
+    }
+
+    @Benchmark
+    public ProductSearchIndex reloadSearchIndex() {
+        ProductSearchIndex fresh = new ProductSearchIndex();
+        fresh.reload(menu);
+        return fresh;
+    }
+
+    @Benchmark
+    public ProductSearchPage search() {
+        return index.search("frango qu", null, true, 0, 20);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.benchmarks.menustream;
+
+import com.example.MenuStream.model.Customer;
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.model.Order;
+import com.example.MenuStream.model.OrderDetail;
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.service.PricingEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+// Dados dos benchmarks do MenuStream, sempre os mesmos para a mesma semente: cardapios com nomes, descricoes e
+// categorias variados e pedidos com itens de produtos desse cardapio.
+final class MenuStreamFixtures {
+
+    private static final String[] CATEGORIES = {"Pizzas", "Lanches", "Bebidas", "Sobremesas", "Saladas", "Massas",
+            "Porcoes", "Pratos executivos"};
+    private static final String[] WORDS = {"frango", "queijo", "tomate", "manjericao", "calabresa", "feijao",
+            "chocolate", "morango", "bacon", "cebola", "alho", "picanha", "salmao", "limao", "coco", "milho"};
+
+    private MenuStreamFixtures() {
+    }
+
+    // Como o ObjectMapper do Spring Boot (Jackson2ObjectMapperBuilder com as opcoes padrao da auto-configuracao)
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static List<Product> menu(int size, long seed) {
+        Random random = new Random(seed);
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product product = new Product();
+            product.setId(i + 1L);
+            product.setName(word(random) + " " + word(random) + " " + i);
+            product.setDescription(sentence(random, 8 + random.nextInt(12)));
+            product.setPrice(Money.ofCents(500 + random.nextInt(15_000)));
+            product.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            product.setAvailability(random.nextInt(10) != 0);
+            product.setImage("https://cdn.menustream.com/products/" + (i + 1) + ".jpg");
+            product.setStock(random.nextInt(4) == 0 ? null : random.nextInt(200));
+            product.setRowVersion(1L);
+            products.add(product);
+        }
+        return products;
+    }
+
+    // Pedido gravado (ids preenchidos) com lines itens de produtos distintos do cardapio
+    static Order order(int lines, List<Product> menu, long seed) {
+        Random random = new Random(seed);
+        Customer customer = new Customer();
+        customer.setId(1L);
+        customer.setName("Cliente Benchmark");
+        customer.setEmail("benchmark@menustream.com");
+        customer.setDeliveryAddress("Rua dos Testes, 100");
+
+        Order order = new Order();
+        order.setId(1_000L + lines);
+        order.setCustomer(customer);
+        order.setStatus("NEW");
+        order.setOrderDate(new Date(1_700_000_000_000L));
+        long subtotal = 0;
+        for (int i = 0; i < lines; i++) {
+            Product product = menu.get((i * 7 + random.nextInt(3)) % menu.size());
+            OrderDetail detail = new OrderDetail();
+            detail.setId(10_000L + i);
+            detail.setOrder(order);
+            detail.setProduct(product);
+            detail.setQuantity(1 + random.nextInt(4));
+            order.getOrderDetails().add(detail);
+            subtotal += PricingEngine.lineCents(product.getPrice(), detail.getQuantity());
+        }
+        order.setTotalAmount(PricingEngine.orderTotal(subtotal));
+        return order;
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            sentence.append(i == 0 ? "" : " ").append(word(random));
+        }
+        return sentence.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.benchmarks.menustream;
+
+import com.example.MenuStream.DTO.OrderResponseDTO;
+import com.example.MenuStream.model.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// JSON de um pedido como sai de /orders: o grafo de entidades (Order -> OrderDetail -> Product, com as
+// referencias de volta) contra o OrderResponseDTO, incluindo a montagem do DTO a partir das entidades.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderJsonBenchmark {
+
+    @Param({"1", "10", "50", "100"})
+    private int lines;
+
+    private ObjectMapper objectMapper;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        objectMapper = MenuStreamFixtures.objectMapper();
+        order = MenuStreamFixtures.order(lines, MenuStreamFixtures.menu(200, 42), 7);
+    }
+
+    @Benchmark
+    public byte[] serializeEntityGraph() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(OrderResponseDTO.of(order));
+    }
+}
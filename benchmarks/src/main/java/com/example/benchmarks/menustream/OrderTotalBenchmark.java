@@ -0,0 +1,71 @@
+package com.example.benchmarks.menustream;
+
+import com.example.MenuStream.model.Money;
+import com.example.MenuStream.service.PricingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Total de um pedido (OrderService.saveOrder): caminho antigo (cadeia de BigDecimal x 1.1) contra
+// Money/PricingEngine em centavos. Com -prof gc, gc.alloc.rate.norm mostra os bytes alocados por pedido.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "10", "50", "100"})
+    private int lines;
+
+    private BigDecimal[] decimalPrices;
+    private Money[] prices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        decimalPrices = new BigDecimal[lines];
+        prices = new Money[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            long cents = 500 + random.nextInt(10_000);
+            decimalPrices[i] = BigDecimal.valueOf(cents, 2);
+            prices[i] = Money.ofCents(cents);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    // Como OrderService.buildOrder calculava o total antes do Money
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal itemTotal = decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            totalAmount = totalAmount.add(itemTotal);
+        }
+        return totalAmount.multiply(BigDecimal.valueOf(1.1));
+    }
+
+    @Benchmark
+    public Money moneyTotal() {
+        long subtotal = 0;
+        for (int i = 0; i < lines; i++) {
+            subtotal = Math.addExact(subtotal, PricingEngine.lineCents(prices[i], quantities[i]));
+        }
+        return PricingEngine.orderTotal(subtotal);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.benchmarks.menustream;
+
+import com.example.MenuStream.model.Product;
+import com.example.MenuStream.service.StockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Compras simultaneas do mesmo produto (StockService.reserve): o contador em memoria (compareAndSet) contra a
+// referencia com lock de linha, SELECT ... FOR UPDATE + UPDATE + COMMIT em um H2 em memoria. Estoque grande o
+// bastante para nunca esgotar, entao as duas variantes medem so a disputa pelo mesmo item.
+// Compare as duas com o mesmo -t (padrao 8 threads); ver README.md.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class StockReservationBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:stock;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    private StockService stockService;
+    private Map<Long, Product> products;
+    private final Map<Long, Integer> one = Map.of(1L, 1);
+    private Connection schema;
+
+    // Uma conexao por thread, como cada requisicao com a sua transacao
+    @State(Scope.Thread)
+    public static class RowLock {
+        private Connection connection;
+        private PreparedStatement select;
+        private PreparedStatement update;
+
+        @Setup
+        public void open() throws SQLException {
+            connection = DriverManager.getConnection(URL);
+            connection.setAutoCommit(false);
+            select = connection.prepareStatement("select stock from products where id = 1 for update");
+            update = connection.prepareStatement("update products set stock = ? where id = 1");
+        }
+
+        @TearDown
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createTable() throws SQLException {
+        schema = DriverManager.getConnection(URL);
+        try (Statement statement = schema.createStatement()) {
+            statement.execute("create table if not exists products (id bigint primary key, stock int not null)");
+        }
+    }
+
+    // Contadores novos a cada iteracao, para o estoque nunca chegar a zero
+    @Setup(Level.Iteration)
+    public void resetStock() throws SQLException {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Promo");
+        product.setStock(Integer.MAX_VALUE);
+        products = Map.of(1L, product);
+        stockService = new StockService();
+        Field publisher = ReflectionUtils.findField(StockService.class, "eventPublisher");
+        ReflectionUtils.makeAccessible(publisher);
+        ReflectionUtils.setField(publisher, stockService, (ApplicationEventPublisher) event -> {
+        });
+        try (Statement statement = schema.createStatement()) {
+            statement.execute("merge into products key (id) values (1, " + Integer.MAX_VALUE + ")");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void dropTable() throws SQLException {
+        try (Statement statement = schema.createStatement()) {
+            statement.execute("drop table products");
+        }
+        schema.close();
+    }
+
+    @Benchmark
+    public void counter() {
+        stockService.reserve(one, products);
+    }
+
+    @Benchmark
+    public int rowLock(RowLock rowLock) throws SQLException {
+        int stock;
+        try (ResultSet row = rowLock.select.executeQuery()) {
+            row.next();
+            stock = row.getInt(1);
+        }
+        rowLock.update.setInt(1, stock - 1);
+        rowLock.update.executeUpdate();
+        rowLock.connection.commit();
+        return stock;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.loadtest;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+
+// Uma operacao da API no relatorio ("GET /products"): monta a proxima requisicao e, se precisar, guarda algo
+// da resposta para as proximas (ex.: o id do pedido criado, usado depois no PUT).
+// request() roda so na thread que agenda as chegadas; completed() roda nas threads do HttpClient.
+interface Endpoint {
+
+    String name();
+
+    HttpRequest.Builder request(SplittableRandom random);
+
+    default void completed(HttpResponse<byte[]> response) {
+    }
+}
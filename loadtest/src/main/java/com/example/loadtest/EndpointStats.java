@@ -0,0 +1,76 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Resultados de um endpoint, em microssegundos:
+//   latency: do instante em que a requisicao DEVERIA ter saido (agenda do modelo aberto) ate a resposta. Se o
+//            servidor trava e as chegadas atrasam, a espera entra na conta: e a latencia corrigida para a omissao
+//            coordenada, a que um usuario chegando naquele instante sentiria;
+//   service: do envio de fato ate a resposta (o que uma ferramenta de modelo fechado mediria).
+// A diferenca entre as duas nos percentis altos mostra o quanto o gerador ficou para tras.
+final class EndpointStats {
+
+    // 3 digitos significativos; a faixa cresce sozinha (resize automatico)
+    private static final int PRECISION = 3;
+
+    private final String name;
+    private final Histogram latency = new ConcurrentHistogram(PRECISION);
+    private final Histogram service = new ConcurrentHistogram(PRECISION);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    // Erro = status 4xx/5xx ou requisicao sem resposta (timeout, conexao recusada); todas entram nos histogramas
+    void record(long intendedNanos, long sentNanos, long doneNanos, HttpResponse<?> response, Throwable failure) {
+        latency.recordValue(Math.max(0, (doneNanos - intendedNanos) / 1000));
+        service.recordValue(Math.max(0, (doneNanos - sentNanos) / 1000));
+        if (response != null) {
+            statuses.computeIfAbsent(response.statusCode(), status -> new LongAdder()).increment();
+            if (response.statusCode() >= 400) {
+                errors.increment();
+            }
+        } else {
+            Throwable cause = failure.getCause() != null ? failure.getCause() : failure;
+            failures.computeIfAbsent(cause.getClass().getSimpleName(), type -> new LongAdder()).increment();
+            errors.increment();
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    Histogram latency() {
+        return latency;
+    }
+
+    Histogram service() {
+        return service;
+    }
+
+    long count() {
+        return latency.getTotalCount();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> outcomes = new TreeMap<>();
+        statuses.forEach((status, count) -> outcomes.put(String.valueOf(status), count.sum()));
+        failures.forEach((type, count) -> outcomes.put(type, count.sum()));
+        return outcomes;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.loadtest;
+
+import com.example.MenuStream.MenuStreamApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Teste de carga da API do MenuStream (ver README.md):
+//   java -jar target/loadtest.jar --scenario=orders --rate=200 --duration=PT60S
+// Sem --target, sobe o MenuStream neste mesmo processo no perfil bench (H2 em memoria com a massa de dados gerada,
+// nada de rede ou MySQL), em portas livres, e o derruba no fim. Com --target=http://host:porta mede uma instancia
+// que ja esta rodando (tambem no perfil bench, para os ids dos cenarios existirem).
+// O aplicativo e o gerador dividem CPU e memoria quando rodam juntos: para numeros de capacidade, rode separados.
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        ConfigurableApplicationContext app = null;
+        URI target = options.target();
+        if (target == null) {
+            app = start(options.appArgs());
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            target = URI.create("http://127.0.0.1:" + port);
+        }
+        // Java 17: sem virtual threads; o envio e assincrono (sendAsync) e estas threads so tratam as respostas
+        ExecutorService responses = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-http");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(options.timeout())
+                    .executor(responses)
+                    .build();
+            MenuStreamApi api = MenuStreamApi.load(client, target, options.timeout());
+            Scenario scenario = Scenario.of(options.scenario(), options.mix(), api.endpoints());
+            System.out.printf("Running %s (%s) against %s: %.1f req/s for %ss after %ss warmup%n", scenario.name(),
+                    scenario.mix(), target, options.rate(), options.duration().toSeconds(),
+                    options.warmup().toSeconds());
+            RunResult result = new OpenModelRunner(client, options).run(scenario);
+            Report.write(result, System.out);
+        } finally {
+            responses.shutdownNow();
+            if (app != null) {
+                app.close();
+            }
+        }
+    }
+
+    // Portas livres (0) para nao colidir com uma instancia aberta em 8080/8081, a menos que venham nos argumentos
+    private static ConfigurableApplicationContext start(List<String> appArgs) {
+        List<String> args = new ArrayList<>(appArgs);
+        if (appArgs.stream().noneMatch(arg -> arg.startsWith("--server.port="))) {
+            args.add("--server.port=0");
+        }
+        if (appArgs.stream().noneMatch(arg -> arg.startsWith("--management.server.port="))) {
+            args.add("--management.server.port=0");
+        }
+        return new SpringApplicationBuilder(MenuStreamApplication.class)
+                .profiles("bench")
+                .run(args.toArray(String[]::new));
+    }
+}
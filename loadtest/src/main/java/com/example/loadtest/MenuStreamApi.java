@@ -0,0 +1,238 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Endpoints do MenuStream usados nos cenarios. Antes da carga le (sem medir) o cardapio e uma pagina de pedidos,
+// para as requisicoes usarem ids que existem: produtos disponiveis e sem controle de estoque nos pedidos (um produto
+// esgotado daria 409 e mediria a recusa, nao o pedido), clientes e pedidos da massa do perfil bench nos PUTs.
+// Os pedidos criados pelo POST entram em um anel e passam a ser alterados pelos PUTs seguintes.
+final class MenuStreamApi {
+
+    private static final String JSON = "application/json";
+    private static final int CREATED_ORDERS = 10_000;
+
+    private final URI base;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long[] productIds;
+    private final long[] orderableIds;
+    private final String[] searchTerms;
+    private final long[] customerIds;
+    private final List<OrderRef> seededOrders;
+    private final AtomicReferenceArray<OrderRef> createdOrders = new AtomicReferenceArray<>(CREATED_ORDERS);
+    private final AtomicLong created = new AtomicLong();
+
+    private MenuStreamApi(URI base, JsonNode menu, JsonNode orders) {
+        this.base = base;
+        List<Long> products = new ArrayList<>();
+        List<Long> orderable = new ArrayList<>();
+        List<String> terms = new ArrayList<>();
+        for (JsonNode product : menu) {
+            products.add(product.path("id").asLong());
+            if (product.path("availability").asBoolean() && product.path("stock").isNull()) {
+                orderable.add(product.path("id").asLong());
+            }
+            String name = product.path("name").asText();
+            if (!name.isBlank() && terms.size() < 100) {
+                terms.add(name.split(" ")[0].toLowerCase());
+            }
+        }
+        List<OrderRef> seeded = new ArrayList<>();
+        for (JsonNode order : orders.path("items")) {
+            seeded.add(OrderRef.of(order));
+        }
+        if (orderable.isEmpty() || seeded.isEmpty()) {
+            throw new IllegalStateException("Target has no orderable products or no orders; start it with the "
+                    + "bench profile (or let the load test start it in-process)");
+        }
+        this.productIds = products.stream().mapToLong(Long::longValue).toArray();
+        this.orderableIds = orderable.stream().mapToLong(Long::longValue).sorted().toArray();
+        this.searchTerms = terms.toArray(String[]::new);
+        this.customerIds = seeded.stream().mapToLong(OrderRef::customerId).distinct().toArray();
+        this.seededOrders = seeded;
+    }
+
+    static MenuStreamApi load(HttpClient client, URI base, Duration timeout) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode menu = objectMapper.readTree(get(client, base.resolve("/products"), timeout));
+        JsonNode orders = objectMapper.readTree(get(client, base.resolve("/orders?size=200"), timeout));
+        return new MenuStreamApi(base, menu, orders);
+    }
+
+    private static byte[] get(HttpClient client, URI uri, Duration timeout) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri).timeout(timeout).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + uri + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    // Nome usado no --mix -> endpoint
+    Map<String, Endpoint> endpoints() {
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        // Cardapio completo como o app pede (gzip); o corpo nao e descompactado
+        endpoints.put("get-products", endpoint("GET /products", random -> HttpRequest.newBuilder(uri("/products"))
+                .header("Accept-Encoding", "gzip")));
+        endpoints.put("get-product", endpoint("GET /products/{id}", random ->
+                HttpRequest.newBuilder(uri("/products/" + pick(productIds, random)))));
+        endpoints.put("search-products", endpoint("GET /products/search", random -> HttpRequest.newBuilder(
+                uri("/products/search?q=" + URLEncoder.encode(searchTerms[random.nextInt(searchTerms.length)],
+                        StandardCharsets.UTF_8)))));
+        endpoints.put("get-orders", endpoint("GET /orders", random -> HttpRequest.newBuilder(uri("/orders?size=20"))));
+        endpoints.put("get-order", endpoint("GET /orders/{id}", random ->
+                HttpRequest.newBuilder(uri("/orders/" + order(random).id()))));
+        endpoints.put("post-order", new Endpoint() {
+            @Override
+            public String name() {
+                return "POST /orders";
+            }
+
+            @Override
+            public HttpRequest.Builder request(SplittableRandom random) {
+                return HttpRequest.newBuilder(uri("/orders"))
+                        .header("Content-Type", JSON)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(json(newOrder(random))));
+            }
+
+            @Override
+            public void completed(HttpResponse<byte[]> response) {
+                if (response.statusCode() == 200) {
+                    remember(response.body());
+                }
+            }
+        });
+        endpoints.put("put-order", endpoint("PUT /orders/{id}", random -> {
+            OrderRef order = order(random);
+            return HttpRequest.newBuilder(uri("/orders/" + order.id()))
+                    .header("Content-Type", JSON)
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(json(changedOrder(order, random))));
+        }));
+        return endpoints;
+    }
+
+    private interface RequestFactory {
+        HttpRequest.Builder request(SplittableRandom random);
+    }
+
+    private static Endpoint endpoint(String name, RequestFactory factory) {
+        return new Endpoint() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public HttpRequest.Builder request(SplittableRandom random) {
+                return factory.request(random);
+            }
+        };
+    }
+
+    // Pedido novo de 1 a 3 produtos diferentes
+    private ObjectNode newOrder(SplittableRandom random) {
+        ObjectNode order = objectMapper.createObjectNode();
+        order.put("customerId", pick(customerIds, random));
+        order.put("status", "NEW");
+        order.put("orderDate", System.currentTimeMillis());
+        ArrayNode details = order.putArray("orderDetails");
+        int lines = 1 + random.nextInt(Math.min(3, orderableIds.length));
+        long first = random.nextInt(orderableIds.length);
+        for (int i = 0; i < lines; i++) {
+            details.addObject()
+                    .put("productId", orderableIds[(int) ((first + i) % orderableIds.length)])
+                    .put("quantity", 1 + random.nextInt(3));
+        }
+        return order;
+    }
+
+    // O mesmo pedido com outro status e a quantidade do primeiro item alterada (o servico grava so a diferenca).
+    // A quantidade so muda em produto sem controle de estoque, pelo mesmo motivo dos pedidos novos
+    private ObjectNode changedOrder(OrderRef ref, SplittableRandom random) {
+        ObjectNode order = objectMapper.createObjectNode();
+        order.put("customerId", ref.customerId());
+        order.put("status", random.nextBoolean() ? "PREPARING" : "READY");
+        order.set("orderDate", ref.orderDate());
+        ArrayNode details = order.putArray("orderDetails");
+        for (int i = 0; i < ref.productIds().length; i++) {
+            details.addObject()
+                    .put("productId", ref.productIds()[i])
+                    .put("quantity", i == 0 && Arrays.binarySearch(orderableIds, ref.productIds()[0]) >= 0
+                            ? 1 + random.nextInt(4) : ref.quantities()[i]);
+        }
+        return order;
+    }
+
+    // Um pedido criado nesta rodada quando houver, senao um da massa de dados
+    private OrderRef order(SplittableRandom random) {
+        int filled = (int) Math.min(created.get(), CREATED_ORDERS);
+        if (filled > 0 && random.nextInt(4) != 0) {
+            OrderRef order = createdOrders.get(random.nextInt(filled));
+            if (order != null) {
+                return order;
+            }
+        }
+        return seededOrders.get(random.nextInt(seededOrders.size()));
+    }
+
+    private void remember(byte[] body) {
+        try {
+            OrderRef order = OrderRef.of(objectMapper.readTree(body));
+            createdOrders.set((int) (created.getAndIncrement() % CREATED_ORDERS), order);
+        } catch (IOException e) {
+            // Resposta que nao e um pedido: o PUT continua usando os outros
+        }
+    }
+
+    private byte[] json(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsBytes(node);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return base.resolve(path);
+    }
+
+    private static long pick(long[] ids, SplittableRandom random) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    // O necessario de um pedido (OrderResponseDTO) para montar o corpo de um PUT
+    private record OrderRef(long id, long customerId, JsonNode orderDate, long[] productIds, int[] quantities) {
+
+        static OrderRef of(JsonNode order) {
+            JsonNode details = order.path("orderDetails");
+            long[] products = new long[details.size()];
+            int[] quantities = new int[details.size()];
+            for (int i = 0; i < details.size(); i++) {
+                products[i] = details.get(i).path("productId").asLong();
+                quantities[i] = details.get(i).path("quantity").asInt();
+            }
+            return new OrderRef(order.path("id").asLong(), order.path("customerId").asLong(), order.path("orderDate"),
+                    products, quantities);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Carga em modelo aberto: as requisicoes chegam em taxa constante (--rate por segundo), em instantes fixados de
+// antemao (inicio + i / rate), respondidas ou nao as anteriores. Nao espera a resposta para mandar a proxima, como
+// os usuarios de verdade; um gerador que espera (modelo fechado) manda menos quando o servidor fica lento e deixa
+// de medir justamente as requisicoes que pegariam a lentidao (omissao coordenada).
+// Uma unica thread agenda e envia (sendAsync); as respostas sao tratadas nas threads do HttpClient.
+// max-in-flight limita as requisicoes em andamento: se o limite segurar a agenda, o atraso entra na latencia, que
+// e sempre contada a partir do instante previsto. As chegadas do aquecimento (--warmup) nao entram no resultado.
+final class OpenModelRunner {
+
+    private final HttpClient client;
+    private final Options options;
+
+    OpenModelRunner(HttpClient client, Options options) {
+        this.client = client;
+        this.options = options;
+    }
+
+    RunResult run(Scenario scenario) throws InterruptedException {
+        Map<Endpoint, EndpointStats> stats = new LinkedHashMap<>();
+        for (Endpoint endpoint : scenario.endpoints()) {
+            stats.putIfAbsent(endpoint, new EndpointStats(endpoint.name()));
+        }
+        SplittableRandom random = new SplittableRandom(options.seed());
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        double intervalNanos = 1e9 / options.rate();
+
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        long sent = 0;
+        long maxLagNanos = 0;
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            inFlight.acquire();
+
+            Endpoint endpoint = scenario.pick(random);
+            HttpRequest request = endpoint.request(random).timeout(options.timeout()).build();
+            EndpointStats endpointStats = intended >= measureFrom ? stats.get(endpoint) : null;
+            long sentAt = System.nanoTime();
+            if (endpointStats != null) {
+                sent++;
+                maxLagNanos = Math.max(maxLagNanos, sentAt - intended);
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, failure) -> {
+                long done = System.nanoTime();
+                inFlight.release();
+                if (response != null) {
+                    endpoint.completed(response);
+                }
+                if (endpointStats != null) {
+                    endpointStats.record(intended, sentAt, done, response, failure);
+                }
+            });
+        }
+        long scheduleEnd = System.nanoTime();
+        // Espera as que ainda estao em andamento (cada uma termina em no maximo --timeout)
+        boolean drained = inFlight.tryAcquire(options.maxInFlight(),
+                options.timeout().toNanos() + TimeUnit.SECONDS.toNanos(5), TimeUnit.NANOSECONDS);
+        long elapsed = Math.max(end, scheduleEnd) - measureFrom;
+        return new RunResult(scenario, options, startedAt, Duration.ofNanos(elapsed), sent,
+                Duration.ofNanos(maxLagNanos), drained, stats.values().stream().toList());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Parametros da linha de comando (--chave=valor). Os que comecam com spring., server., management., logging. ou
+// menustream. vao para a aplicacao quando ela sobe no mesmo processo (ex.: --menustream.bench.scale=10).
+record Options(URI target, String scenario, String mix, double rate, Duration duration, Duration warmup,
+               int maxInFlight, Duration timeout, long seed, Path out, List<String> appArgs) {
+
+    private static final List<String> APP_PREFIXES = List.of("spring.", "server.", "management.", "logging.",
+            "menustream.");
+
+    static Options parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (APP_PREFIXES.stream().anyMatch(name::startsWith)) {
+                appArgs.add(arg);
+            } else {
+                values.put(name, value);
+            }
+        }
+        String scenario = values.getOrDefault("scenario", "orders");
+        Options options = new Options(
+                values.containsKey("target") ? URI.create(values.get("target")) : null,
+                scenario,
+                values.get("mix"),
+                Double.parseDouble(values.getOrDefault("rate", "100")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                Duration.parse(values.getOrDefault("warmup", "PT10S")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                Duration.parse(values.getOrDefault("timeout", "PT10S")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Path.of(values.getOrDefault("out", "results/" + (values.containsKey("mix") ? "custom" : scenario))),
+                appArgs);
+        List<String> unknown = new ArrayList<>(values.keySet());
+        unknown.removeAll(List.of("target", "scenario", "mix", "rate", "duration", "warmup", "max-in-flight",
+                "timeout", "seed", "out"));
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + unknown);
+        }
+        if (options.rate() <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        return options;
+    }
+}
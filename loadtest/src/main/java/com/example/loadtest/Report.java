@@ -0,0 +1,149 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+// Relatorio da rodada em --out:
+//   summary.txt   tabela por endpoint (a mesma impressa no console);
+//   summary.json  os mesmos numeros, para comparar rodadas ou montar graficos;
+//   <endpoint>.hgrm  distribuicao completa da latencia corrigida (formato do HdrHistogram, abre no
+//                    HdrHistogram plotter), uma por endpoint e uma do total (all.hgrm).
+// Latencias em milissegundos: p50..max da latencia corrigida (desde o instante previsto) e "p99 service" do tempo
+// desde o envio (ver EndpointStats).
+final class Report {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private Report() {
+    }
+
+    static void write(RunResult result, PrintStream console) throws IOException {
+        Path out = result.options().out();
+        Files.createDirectories(out);
+        String table = table(result);
+        console.print(table);
+        Files.writeString(out.resolve("summary.txt"), table);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(out.resolve("summary.json").toFile(), json(result));
+        for (EndpointStats endpoint : result.endpoints()) {
+            hgrm(endpoint.latency(), out.resolve(slug(endpoint.name()) + ".hgrm"));
+        }
+        hgrm(total(result.endpoints()), out.resolve("all.hgrm"));
+        console.println("Report written to " + out.toAbsolutePath());
+    }
+
+    private static String table(RunResult result) {
+        StringBuilder text = new StringBuilder();
+        Options options = result.options();
+        double seconds = result.elapsed().toNanos() / 1e9;
+        text.append(String.format(Locale.ROOT, "Scenario %s (%s)%n", result.scenario().name(), result.scenario().mix()));
+        text.append(String.format(Locale.ROOT, "Target rate %.1f/s, achieved %.1f/s over %.1fs (warmup %ss), "
+                        + "max schedule lag %.3f ms, started %s%n", options.rate(), result.sent() / seconds, seconds,
+                options.warmup().toSeconds(), result.maxLag().toNanos() / 1e6, result.startedAt()));
+        if (!result.drained()) {
+            text.append("WARNING: some requests were still in flight when the report was written\n");
+        }
+        text.append(String.format(Locale.ROOT, "%n%-22s %8s %7s %9s %9s %9s %9s %9s %11s  %s%n", "endpoint", "count",
+                "errors", "p50", "p90", "p99", "p99.9", "max", "p99 service", "outcomes"));
+        for (EndpointStats endpoint : result.endpoints()) {
+            row(text, endpoint.name(), endpoint.latency(), endpoint.service(), endpoint.errors(),
+                    endpoint.outcomes().toString());
+        }
+        long errors = result.endpoints().stream().mapToLong(EndpointStats::errors).sum();
+        row(text, "all", total(result.endpoints()), totalService(result.endpoints()), errors, "");
+        return text.toString();
+    }
+
+    private static void row(StringBuilder text, String name, Histogram latency, Histogram service, long errors,
+                            String outcomes) {
+        text.append(String.format(Locale.ROOT, "%-22s %8d %7d", name, latency.getTotalCount(), errors));
+        for (double percentile : PERCENTILES) {
+            text.append(String.format(Locale.ROOT, " %9.3f", millis(latency.getValueAtPercentile(percentile))));
+        }
+        text.append(String.format(Locale.ROOT, " %9.3f %11.3f  %s%n", millis(latency.getMaxValue()),
+                millis(service.getValueAtPercentile(99)), outcomes));
+    }
+
+    private static Map<String, Object> json(RunResult result) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("scenario", result.scenario().name());
+        json.put("mix", result.scenario().mix());
+        json.put("startedAt", result.startedAt().toString());
+        json.put("targetRate", result.options().rate());
+        json.put("achievedRate", result.sent() / (result.elapsed().toNanos() / 1e9));
+        json.put("durationSeconds", result.elapsed().toNanos() / 1e9);
+        json.put("warmupSeconds", result.options().warmup().toSeconds());
+        json.put("maxScheduleLagMs", result.maxLag().toNanos() / 1e6);
+        json.put("drained", result.drained());
+        List<Map<String, Object>> endpoints = result.endpoints().stream().map(endpoint -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("endpoint", endpoint.name());
+            entry.put("count", endpoint.count());
+            entry.put("errors", endpoint.errors());
+            entry.put("outcomes", endpoint.outcomes());
+            entry.put("latencyMs", percentiles(endpoint.latency()));
+            entry.put("serviceTimeMs", percentiles(endpoint.service()));
+            return entry;
+        }).toList();
+        json.put("endpoints", endpoints);
+        Map<String, Object> all = new LinkedHashMap<>();
+        all.put("count", endpoints.stream().mapToLong(entry -> (long) entry.get("count")).sum());
+        all.put("errors", result.endpoints().stream().mapToLong(EndpointStats::errors).sum());
+        all.put("latencyMs", percentiles(total(result.endpoints())));
+        all.put("serviceTimeMs", percentiles(totalService(result.endpoints())));
+        json.put("all", all);
+        return json;
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        values.put("mean", histogram.getTotalCount() == 0 ? 0 : histogram.getMean() / 1000);
+        values.put("p50", millis(histogram.getValueAtPercentile(50)));
+        values.put("p90", millis(histogram.getValueAtPercentile(90)));
+        values.put("p99", millis(histogram.getValueAtPercentile(99)));
+        values.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        values.put("max", millis(histogram.getMaxValue()));
+        return values;
+    }
+
+    private static Histogram total(List<EndpointStats> endpoints) {
+        return merge(endpoints, EndpointStats::latency);
+    }
+
+    private static Histogram totalService(List<EndpointStats> endpoints) {
+        return merge(endpoints, EndpointStats::service);
+    }
+
+    private static Histogram merge(List<EndpointStats> endpoints, Function<EndpointStats, Histogram> histogram) {
+        Histogram total = new Histogram(3);
+        endpoints.forEach(endpoint -> total.add(histogram.apply(endpoint)));
+        return total;
+    }
+
+    // Valores gravados em microssegundos; o .hgrm sai em milissegundos
+    private static void hgrm(Histogram histogram, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    // "PUT /orders/{id}" -> put-orders-id
+    private static String slug(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.loadtest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Resultado de uma rodada (so a parte medida, sem o aquecimento). maxLag: maior atraso entre o instante previsto
+// de uma chegada e o envio; perto de zero quando o gerador acompanhou a taxa pedida.
+record RunResult(Scenario scenario, Options options, Instant startedAt, Duration elapsed, long sent,
+                 Duration maxLag, boolean drained, List<EndpointStats> endpoints) {
+}
@@ -0,0 +1,56 @@
+package com.example.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Mistura de endpoints com pesos: cada chegada sorteia um endpoint na proporcao do peso.
+// Formato do --mix: <endpoint>:<peso>,<endpoint>:<peso>... (nomes em MenuStreamApi.endpoints()).
+record Scenario(String name, String mix, List<Endpoint> endpoints, int[] cumulativeWeights) {
+
+    // Misturas prontas (--scenario=<nome>); --mix=... define uma outra
+    static final Map<String, String> MIXES = Map.of(
+            "orders", "get-products:80,post-order:15,put-order:5",
+            "browse", "get-products:50,search-products:20,get-product:15,get-orders:10,get-order:5",
+            "checkout", "get-products:40,post-order:45,put-order:10,get-order:5");
+
+    static Scenario of(String name, String mix, Map<String, Endpoint> catalog) {
+        String spec = mix != null ? mix : MIXES.get(name);
+        if (spec == null) {
+            throw new IllegalArgumentException("Unknown scenario " + name + " (known: " + MIXES.keySet()
+                    + "); use --mix=<endpoint>:<weight>,... for a custom one");
+        }
+        List<Endpoint> endpoints = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            Endpoint endpoint = catalog.get(parts[0]);
+            if (endpoint == null || parts.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry " + entry + " (endpoints: " + catalog.keySet() + ")");
+            }
+            endpoints.add(endpoint);
+            weights.add(Integer.parseInt(parts[1]));
+        }
+        int[] cumulative = new int[weights.size()];
+        int total = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            total += weights.get(i);
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Mix weights must add up to more than zero: " + spec);
+        }
+        return new Scenario(mix != null ? "custom" : name, spec, endpoints, cumulative);
+    }
+
+    Endpoint pick(SplittableRandom random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return endpoints.get(i);
+            }
+        }
+        throw new IllegalStateException();
+    }
+}